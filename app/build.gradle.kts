@@ -64,6 +64,10 @@ dependencies {
 
     // Testing
     testImplementation(libs.junit)
+    // org.json real para los tests JVM (el de android.jar es un stub)
+    testImplementation("org.json:json:20231013")
+    // Servidor HTTP local para probar reintentos y circuit breaker
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.10.0")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
@@ -80,6 +84,7 @@ dependencies {
     // ML Kit
     implementation("com.google.mlkit:text-recognition:16.0.0")
     implementation("com.google.mlkit:translate:17.0.2")
+    implementation("com.google.mlkit:language-id:17.0.6")
     // implementation("com.google.mlkit:text-recognition-japanese:16.0.0")
     // implementation("com.google.mlkit:text-recognition-korean:16.0.0")
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.example.snap.camara;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tiempo de OCR por frame con el frame entero y con el recorte del visor,
+ * por el mismo camino que la cámara (NV21 e InputImage.fromByteArray).
+ *
+ * Usa los frames grabados de assets/ocr_frames del test si los hay; si no,
+ * genera carteles sintéticos con texto en el centro y ruido en los bordes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CroppedOcrBenchmarkTest {
+
+    private static final String TAG = "CroppedOcrBenchmark";
+    private static final String FRAMES_DIR = "ocr_frames";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private TextRecognizer recognizer;
+
+    @Before
+    public void setUp() {
+        recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+    }
+
+    @After
+    public void tearDown() {
+        recognizer.close();
+    }
+
+    @Test
+    public void croppingToTheReticleReducesOcrTime() throws Exception {
+        List<Bitmap> frames = loadRecordedFrames();
+        boolean synthetic = frames.isEmpty();
+        if (synthetic) {
+            frames.add(syntheticSign(1280, 720, "SALIDA DE EMERGENCIA"));
+            frames.add(syntheticSign(1920, 1080, "PROHIBIDO FUMAR"));
+        }
+
+        YuvCropper cropper = new YuvCropper();
+        for (Bitmap frame : frames) {
+            int width = frame.getWidth() & ~1;
+            int height = frame.getHeight() & ~1;
+            byte[] nv21 = toNv21(frame, width, height);
+            RegionOfInterest.Crop crop = RegionOfInterest.CENTER_RETICLE.cropFor(width, height, 0);
+
+            InputImage full = InputImage.fromByteArray(nv21, width, height, 0, InputImage.IMAGE_FORMAT_NV21);
+            // Planos como los de CameraX: V y U intercalados con pixelStride 2
+            int lumaSize = width * height;
+            ByteBuffer y = ByteBuffer.wrap(nv21, 0, lumaSize).slice();
+            ByteBuffer v = ByteBuffer.wrap(nv21, lumaSize, nv21.length - lumaSize).slice();
+            ByteBuffer u = ByteBuffer.wrap(nv21, lumaSize + 1, nv21.length - lumaSize - 1).slice();
+            byte[] croppedNv21 = cropper.toNv21(y, width, 1, u, v, width, 2, crop).clone();
+            InputImage cropped = InputImage.fromByteArray(croppedNv21, crop.width, crop.height, 0,
+                    InputImage.IMAGE_FORMAT_NV21);
+
+            long fullMs = medianOcrMillis(full);
+            long croppedMs = medianOcrMillis(cropped);
+            String report = String.format("%dx%d: entero %d ms, recorte %dx%d %d ms (%.0f%%)",
+                    width, height, fullMs, crop.width, crop.height, croppedMs,
+                    fullMs > 0 ? 100.0 * croppedMs / fullMs : 100.0);
+            Log.i(TAG, report);
+            System.out.println(report);
+
+            if (synthetic) {
+                // El recorte no pierde el cartel que está en el visor
+                Text text = Tasks.await(recognizer.process(cropped));
+                assertTrue(text.getText(), text.getText().toUpperCase().contains(centerText(frames.indexOf(frame))));
+            }
+        }
+    }
+
+    private long medianOcrMillis(InputImage image) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            Tasks.await(recognizer.process(image));
+        }
+        long[] times = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            Tasks.await(recognizer.process(image));
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    private static String centerText(int index) {
+        return index == 0 ? "SALIDA" : "FUMAR";
+    }
+
+    private static List<Bitmap> loadRecordedFrames() throws IOException {
+        List<Bitmap> frames = new ArrayList<>();
+        AssetManager assets = InstrumentationRegistry.getInstrumentation().getContext().getAssets();
+        String[] names = assets.list(FRAMES_DIR);
+        if (names == null) {
+            return frames;
+        }
+        for (String name : names) {
+            try (InputStream in = assets.open(FRAMES_DIR + "/" + name)) {
+                Bitmap bitmap = BitmapFactory.decodeStream(in);
+                if (bitmap != null) {
+                    frames.add(bitmap);
+                }
+            }
+        }
+        return frames;
+    }
+
+    /** Cartel claro en el centro y textos pequeños por los bordes, como una calle */
+    private static Bitmap syntheticSign(int width, int height, String centerText) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.rgb(90, 100, 110));
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.rgb(235, 235, 225));
+        canvas.drawRect(width * 0.15f, height * 0.35f, width * 0.85f, height * 0.65f, paint);
+        paint.setColor(Color.BLACK);
+        paint.setTextSize(height / 12f);
+        paint.setTextAlign(Paint.Align.CENTER);
+        canvas.drawText(centerText, width / 2f, height / 2f + height / 36f, paint);
+
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(height / 30f);
+        paint.setTextAlign(Paint.Align.LEFT);
+        String[] clutter = {"Calle Mayor 12", "Abierto 9:00 - 21:00", "Horario de carga", "Zona azul", "Farmacia"};
+        for (int i = 0; i < clutter.length; i++) {
+            canvas.drawText(clutter[i], width * 0.03f, height * (0.08f + 0.05f * i), paint);
+            canvas.drawText(clutter[i], width * 0.65f, height * (0.75f + 0.05f * i), paint);
+        }
+        return bitmap;
+    }
+
+    /** RGB a NV21 (BT.601, rango limitado) */
+    private static byte[] toNv21(Bitmap bitmap, int width, int height) {
+        int[] argb = new int[width * height];
+        bitmap.getPixels(argb, 0, width, 0, 0, width, height);
+        byte[] nv21 = new byte[width * height * 3 / 2];
+        int uvIndex = width * height;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int pixel = argb[row * width + col];
+                int r = (pixel >> 16) & 0xff;
+                int g = (pixel >> 8) & 0xff;
+                int b = pixel & 0xff;
+                nv21[row * width + col] = (byte) clamp(((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+                if (row % 2 == 0 && col % 2 == 0) {
+                    nv21[uvIndex++] = (byte) clamp(((112 * r - 94 * g - 18 * b + 128) >> 8) + 128);
+                    nv21[uvIndex++] = (byte) clamp(((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128);
+                }
+            }
+        }
+        return nv21;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -5,13 +5,13 @@ import android.widget.Button;
 
 import com.example.snap.data.entities.User;
 import com.example.snap.data.repository.UserRepository;
+import com.example.snap.services.TranslationScheduler;
 import com.example.snap.ui.base.BaseActivity;
 import com.example.snap.ui.components.BottomNavigationComponent;
 import com.example.snap.utils.ValidationHelper;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 /**
  * Actividad de login refactorizada.
@@ -22,7 +22,7 @@ public class LoginActivity extends BaseActivity {
     private TextInputEditText etEmail, etPassword;
     private Button btnLogin, btnRegister;
     private UserRepository userRepository;
-    private ExecutorService executorService;
+    private Executor executorService;
     private BottomNavigationComponent bottomNavigation;
 
     @Override
@@ -44,7 +44,8 @@ public class LoginActivity extends BaseActivity {
 
     private void initializeComponents() {
         userRepository = new UserRepository(getApplication());
-        executorService = Executors.newSingleThreadExecutor();
+        // El login lo espera el usuario: va con prioridad interactiva
+        executorService = TranslationScheduler.getInstance().executor(TranslationScheduler.Priority.INTERACTIVE);
 
         // Configurar navegación (SÚPER LIMPIO)
         bottomNavigation = findViewById(R.id.bottomNavigation);
@@ -167,12 +168,4 @@ public class LoginActivity extends BaseActivity {
         btnRegister.setEnabled(!loading);
         btnRegister.setText(loading ? "Registrando..." : "Registrarse");
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -135,6 +135,7 @@ public class SettingsActivity extends BaseActivity {
         SharedPreferences currentLangPrefs = getSharedPreferences("current_languages", MODE_PRIVATE);
         currentLangPrefs.edit()
                 .putString("current_source_lang", sourceCode)
+                .putBoolean("current_source_auto", false)
                 .putString("current_target_lang", targetCode)
                 .apply();
                 
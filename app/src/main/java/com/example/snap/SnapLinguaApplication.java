@@ -6,14 +6,36 @@ import android.content.SharedPreferences;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 
+import com.example.snap.data.repository.OfflinePhrasesRepository;
+import com.example.snap.data.repository.PendingTranslationRepository;
+import com.example.snap.services.ConnectivityMonitor;
+import com.example.snap.services.FavoritesPrefetcher;
+import com.example.snap.services.MLKitTranslationEngine;
+import com.example.snap.services.NetworkTranslationService;
+import com.example.snap.services.OfflineReplayer;
+import com.example.snap.services.TranslationScheduler;
+
 public class SnapLinguaApplication extends Application {
     
     private static SnapLinguaApplication instance;
     
+    // Repite con la API lo traducido sin conexión en cuanto vuelve la red
+    private OfflineReplayer offlineReplayer;
+    // Deja traducidos favoritos e historial frecuente para usarlos sin conexión
+    private FavoritesPrefetcher favoritesPrefetcher;
+    
     public static SnapLinguaApplication getInstance() {
         return instance;
     }
     
+    public OfflineReplayer getOfflineReplayer() {
+        return offlineReplayer;
+    }
+    
+    public FavoritesPrefetcher getFavoritesPrefetcher() {
+        return favoritesPrefetcher;
+    }
+    
     /**
      * Obtiene un Context con el idioma correcto aplicado.
      * Usar este método para Toast, Dialog, etc.
@@ -35,6 +57,39 @@ public class SnapLinguaApplication extends Application {
         // Esto asegura que se usen los idiomas por defecto del usuario cada vez
         clearCurrentLanguages();
         android.util.Log.d("SnapLinguaApp", "App started - cleared current languages to use default preferences");
+        
+        // Estado de la red para decidir entre API y ML Kit
+        ConnectivityMonitor connectivity = ConnectivityMonitor.getInstance(this);
+        
+        // Ambos piden directamente a la API: lo de ML Kit no debe acabar en caché como definitivo
+        NetworkTranslationService api = new NetworkTranslationService(this);
+        
+        offlineReplayer = new OfflineReplayer(
+                new PendingTranslationRepository(this),
+                api,
+                connectivity,
+                TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE));
+        offlineReplayer.start();
+        
+        favoritesPrefetcher = new FavoritesPrefetcher(
+                new OfflinePhrasesRepository(this),
+                api,
+                connectivity,
+                TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE));
+        favoritesPrefetcher.start();
+    }
+    
+    /**
+     * Los traductores de ML Kit los comparten todas las pantallas, así que no
+     * los cierra ninguna: se liberan aquí cuando la app pasa a segundo plano
+     * y el sistema pide memoria. Se recrean al volver a usarse.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            MLKitTranslationEngine.getInstance().close();
+        }
     }
     
     /**
@@ -80,6 +80,9 @@ public class TextActivity extends BaseActivity {
     }
 
     private void setupLanguageSelector() {
+        // El texto ya está escrito: se puede identificar su idioma en el dispositivo
+        languageSelector.setAutoDetectEnabled(true);
+
         // Primero intentamos cargar los idiomas de la sesión actual
         String[] currentLanguages = languageSelector.loadCurrentLanguages();
         
@@ -109,6 +112,7 @@ public class TextActivity extends BaseActivity {
             sourceLang = srcCode;
             targetLang = tgtCode;
             updateQuickTranslationChips();
+            viewModel.prefetchForLanguages(sourceLang, targetLang, getCurrentUser());
             
             // Guardar la selección actual para que persista al cambiar de pantalla
             languageSelector.saveCurrentLanguages();
@@ -118,6 +122,7 @@ public class TextActivity extends BaseActivity {
     private void setupListeners() {
 
         btnClear.setOnClickListener(v -> {
+            viewModel.cancelPendingTranslations();
             etInput.setText("");
             tvOutput.setText("La traducción aparecerá aquí");
             hideProgress();
@@ -220,9 +225,14 @@ public class TextActivity extends BaseActivity {
         viewModel.getCurrentTranslation().observe(this, translatedText -> {
             hideProgress();
             if (translatedText != null) {
+                // Si solo se añade un trozo más de un texto largo, no repetimos la animación
+                boolean continuation = tvOutput.getText().length() > 0
+                        && translatedText.startsWith(tvOutput.getText().toString());
                 tvOutput.setText(translatedText);
-                tvOutput.setAlpha(0);
-                tvOutput.animate().alpha(1).setDuration(500).start();
+                if (!continuation) {
+                    tvOutput.setAlpha(0);
+                    tvOutput.animate().alpha(1).setDuration(500).start();
+                }
             }
         });
     }
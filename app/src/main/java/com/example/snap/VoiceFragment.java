@@ -20,19 +20,15 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
+import com.example.snap.presentation.viewmodel.TranslationViewModel;
+import com.example.snap.services.TranslationEngine;
 import com.example.snap.ui.components.BottomNavigationComponent;
 import com.example.snap.ui.components.LanguageSelector;
-import com.google.mlkit.common.model.DownloadConditions;
-import com.google.mlkit.nl.translate.TranslateLanguage;
-import com.google.mlkit.nl.translate.Translation;
-import com.google.mlkit.nl.translate.Translator;
-import com.google.mlkit.nl.translate.TranslatorOptions;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 
 import static android.app.Activity.RESULT_OK;
 
@@ -52,8 +48,8 @@ public class VoiceFragment extends Fragment implements TextToSpeech.OnInitListen
     private TextToSpeech tts;
     private boolean isTtsReady = false;
 
-    // Traducciones
-    private final Map<String, Translator> translatorCache = new HashMap<>();
+    // Traducciones (API o ML Kit, según decida el motor del ViewModel)
+    private TranslationViewModel viewModel;
 
     // Idiomas actuales
     private String currentSourceCode = "es";
@@ -91,6 +87,7 @@ public class VoiceFragment extends Fragment implements TextToSpeech.OnInitListen
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
+        viewModel = new ViewModelProvider(requireActivity()).get(TranslationViewModel.class);
         initializeViews(view);
         setupLanguageSelector();
         setupButtons();
@@ -191,34 +188,35 @@ public class VoiceFragment extends Fragment implements TextToSpeech.OnInitListen
         inputText.setText(text);
         translatedText.setText("Traduciendo...");
 
-        String key = currentSourceCode + "-" + currentTargetCode;
-        Translator translator = translatorCache.get(key);
+        viewModel.translate(text, currentSourceCode, currentTargetCode, new TranslationEngine.Callback() {
+            @Override
+            public void onSuccess(String result) {
+                runOnUiThreadIfAdded(() -> {
+                    translatedText.setText(result);
+                    showCustomToast("Traducción completada", android.R.drawable.ic_input_add);
+                });
+            }
 
-        if (translator == null) {
-            TranslatorOptions options = new TranslatorOptions.Builder()
-                    .setSourceLanguage(getMLKitLanguage(currentSourceCode))
-                    .setTargetLanguage(getMLKitLanguage(currentTargetCode))
-                    .build();
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Error al traducir: " + error);
+                runOnUiThreadIfAdded(() -> {
+                    translatedText.setText("Error al traducir");
+                    showCustomToast("Error al traducir", android.R.drawable.ic_delete);
+                });
+            }
+        });
+    }
 
-            translator = Translation.getClient(options);
-            translatorCache.put(key, translator);
+    // Los callbacks del motor llegan en hilos de fondo
+    private void runOnUiThreadIfAdded(Runnable action) {
+        if (getActivity() != null) {
+            getActivity().runOnUiThread(() -> {
+                if (isAdded()) {
+                    action.run();
+                }
+            });
         }
-
-        Translator finalTranslator = translator;
-        translator.downloadModelIfNeeded(new DownloadConditions.Builder().build())
-                .addOnSuccessListener(v -> finalTranslator.translate(text)
-                        .addOnSuccessListener(result -> {
-                            translatedText.setText(result);
-                            showCustomToast("Traducción completada", android.R.drawable.ic_input_add);
-                        })
-                        .addOnFailureListener(e -> {
-                            translatedText.setText("Error al traducir");
-                            showCustomToast("Error al traducir", android.R.drawable.ic_delete);
-                        }))
-                .addOnFailureListener(e -> {
-                    translatedText.setText("Error de modelo");
-                    showCustomToast("Error de modelo", android.R.drawable.ic_dialog_alert);
-                });
     }
 
 //Reproduce el texto traducido con TTS
@@ -252,22 +250,6 @@ public class VoiceFragment extends Fragment implements TextToSpeech.OnInitListen
         }
     }
 
-//Convierte código ISO a formato ML Kit
-
-
-    private String getMLKitLanguage(String isoCode) {
-        switch (isoCode) {
-            case "es": return TranslateLanguage.SPANISH;
-            case "en": return TranslateLanguage.ENGLISH;
-            case "fr": return TranslateLanguage.FRENCH;
-            case "de": return TranslateLanguage.GERMAN;
-            case "it": return TranslateLanguage.ITALIAN;
-            case "pt": return TranslateLanguage.PORTUGUESE;
-            case "zh": return TranslateLanguage.CHINESE;
-            case "ja": return TranslateLanguage.JAPANESE;
-            default: return TranslateLanguage.ENGLISH;
-        }
-    }
     //Obtiene el locale para reconocimiento de voz
 
 
@@ -325,12 +307,6 @@ public class VoiceFragment extends Fragment implements TextToSpeech.OnInitListen
     public void onDestroy() {
         super.onDestroy();
 
-        // Limpiar traductores
-        for (Translator t : translatorCache.values()) {
-            t.close();
-        }
-        translatorCache.clear();
-
         // Cerrar TTS
         if (tts != null) {
             tts.shutdown();
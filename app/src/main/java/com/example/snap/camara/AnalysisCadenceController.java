@@ -0,0 +1,144 @@
+package com.example.snap.camara;
+
+/**
+ * Decide cada cuánto se analiza un frame de la cámara en vivo.
+ *
+ * Parte de la latencia medida del OCR (no se le pide más de lo que puede
+ * sacar) y la ajusta por:
+ * - escena quieta: cada frame sin cambios alarga el intervalo, y uno con
+ *   cambios lo devuelve al ritmo base;
+ * - traducciones pendientes: mientras hay lote en vuelo no se escanea más
+ *   rápido de lo que vuelven las traducciones;
+ * - estado térmico y ahorro de batería del dispositivo.
+ * El resultado siempre queda entre minIntervalMs y maxIntervalMs.
+ *
+ * No toca Android: la actividad le pasa las medidas y el estado del sistema.
+ */
+public class AnalysisCadenceController {
+
+    public static final long DEFAULT_MIN_INTERVAL_MS = 150L;
+    public static final long DEFAULT_MAX_INTERVAL_MS = 2000L;
+
+    // Mismos valores que PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_STATUS_NONE = 0;
+    public static final int THERMAL_STATUS_LIGHT = 1;
+    public static final int THERMAL_STATUS_MODERATE = 2;
+    public static final int THERMAL_STATUS_SEVERE = 3;
+    public static final int THERMAL_STATUS_CRITICAL = 4;
+
+    // Intervalo mínimo respecto a lo que tarda el OCR: deja respirar al reconocedor
+    static final double OCR_DUTY_FACTOR = 1.5;
+    // Cada frame sin cambios alarga el intervalo este factor, hasta IDLE_MAX_FACTOR
+    static final double IDLE_BACKOFF = 1.5;
+    static final double IDLE_MAX_FACTOR = 4.0;
+    static final double POWER_SAVE_FACTOR = 2.0;
+    // Peso de la última medida en la media móvil exponencial
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+
+    private double ocrLatencyMs = 0;
+    private double translationLatencyMs = 0;
+    private double idleFactor = 1.0;
+    private int backlog = 0;
+    private int thermalStatus = THERMAL_STATUS_NONE;
+    private boolean powerSaveMode = false;
+
+    public AnalysisCadenceController() {
+        this(DEFAULT_MIN_INTERVAL_MS, DEFAULT_MAX_INTERVAL_MS);
+    }
+
+    public AnalysisCadenceController(long minIntervalMs, long maxIntervalMs) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("Intervalos no válidos: " + minIntervalMs + ".." + maxIntervalMs);
+        }
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+    }
+
+    /** Resultado del detector de cambios para el frame que tocaba analizar */
+    public synchronized void onFrameChecked(boolean sceneChanged) {
+        if (sceneChanged) {
+            idleFactor = 1.0;
+        } else {
+            idleFactor = Math.min(IDLE_MAX_FACTOR, idleFactor * IDLE_BACKOFF);
+        }
+    }
+
+    public synchronized void onOcrCompleted(long latencyMs) {
+        ocrLatencyMs = ewma(ocrLatencyMs, latencyMs);
+    }
+
+    /** Latencia media del OCR (0 si aún no hay medidas) */
+    public synchronized long getOcrLatencyMs() {
+        return Math.round(ocrLatencyMs);
+    }
+
+    public synchronized void onTranslationCompleted(long latencyMs) {
+        translationLatencyMs = ewma(translationLatencyMs, latencyMs);
+    }
+
+    /** Lotes de traducción de la cámara aún sin respuesta */
+    public synchronized void setBacklog(int pendingBatches) {
+        backlog = Math.max(0, pendingBatches);
+    }
+
+    /** Uno de los THERMAL_STATUS_* (PowerManager.getCurrentThermalStatus) */
+    public synchronized void setThermalStatus(int status) {
+        thermalStatus = status;
+    }
+
+    public synchronized void setPowerSaveMode(boolean enabled) {
+        powerSaveMode = enabled;
+    }
+
+    /** Tiempo mínimo que debe pasar entre dos frames analizados */
+    public synchronized long getIntervalMs() {
+        if (thermalStatus >= THERMAL_STATUS_CRITICAL) {
+            // El sistema está a punto de limitar la app: lo mínimo imprescindible
+            return maxIntervalMs;
+        }
+
+        double interval = Math.max(minIntervalMs, OCR_DUTY_FACTOR * ocrLatencyMs);
+        interval *= idleFactor;
+        if (backlog > 0) {
+            interval = Math.max(interval, translationLatencyMs);
+        }
+        interval *= thermalFactor(thermalStatus);
+        if (powerSaveMode) {
+            interval *= POWER_SAVE_FACTOR;
+        }
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, Math.round(interval)));
+    }
+
+    /** Si desde el último frame analizado ya ha pasado el intervalo actual */
+    public boolean isDue(long nowMs, long lastAnalysisMs) {
+        return nowMs - lastAnalysisMs >= getIntervalMs();
+    }
+
+    private static double thermalFactor(int status) {
+        switch (status) {
+            case THERMAL_STATUS_MODERATE:
+                return 2.0;
+            case THERMAL_STATUS_SEVERE:
+                return 4.0;
+            default:
+                return 1.0;
+        }
+    }
+
+    private static double ewma(double current, long sample) {
+        return current == 0 ? sample : current + EWMA_ALPHA * (sample - current);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AnalysisCadenceController{interval=" + getIntervalMs() + "ms"
+                + ", ocr=" + Math.round(ocrLatencyMs) + "ms"
+                + ", translation=" + Math.round(translationLatencyMs) + "ms"
+                + ", idle=" + String.format("%.1f", idleFactor) + "x"
+                + ", backlog=" + backlog + ", thermal=" + thermalStatus
+                + ", powerSave=" + powerSaveMode + "}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.snap.camara;
+
+/**
+ * Elige la resolución del análisis de la cámara según el dispositivo y lo
+ * que tardó el OCR la última vez.
+ *
+ * ML Kit necesita unos 16 px por carácter; 720p suele bastar para un cartel
+ * a un par de metros. Con recorte al visor se puede subir a 1080p en móviles
+ * rápidos (el OCR sigue procesando un área parecida y la letra pequeña gana
+ * detalle). En móviles modestos, o si el OCR ya iba lento, se baja un escalón.
+ */
+public class AnalysisResolutionPolicy {
+
+    public enum Tier {
+        SD(640, 480),
+        HD(1280, 720),
+        FHD(1920, 1080);
+
+        public final int width;
+        public final int height;
+
+        Tier(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    // Por debajo, el OCR va sobrado y puede permitirse más resolución
+    static final long FAST_OCR_MS = 80L;
+    // Por encima, el OCR frena la cámara: se baja un escalón
+    static final long SLOW_OCR_MS = 250L;
+    // Núcleos a partir de los que no se considera un móvil modesto
+    static final int MIN_CORES_FOR_HD = 6;
+
+    /**
+     * @param lowRamDevice ActivityManager.isLowRamDevice()
+     * @param cpuCores     Runtime.availableProcessors()
+     * @param lastTier     resolución con la que se midió lastOcrMs (null si no hay medida)
+     * @param lastOcrMs    latencia media del OCR en la sesión anterior
+     * @param cropping     si se recorta al visor antes del OCR
+     */
+    public Tier choose(boolean lowRamDevice, int cpuCores, Tier lastTier, long lastOcrMs, boolean cropping) {
+        boolean modest = lowRamDevice || cpuCores < MIN_CORES_FOR_HD;
+        Tier initial = modest ? Tier.SD : Tier.HD;
+        // Un móvil modesto no pasa de 720p; 1080p solo compensa recortando
+        Tier ceiling = modest || !cropping ? Tier.HD : Tier.FHD;
+
+        if (lastTier == null || lastOcrMs <= 0) {
+            return initial;
+        }
+        // Se parte de la resolución con la que se midió, así no va y viene entre sesiones
+        Tier next = lastTier;
+        if (lastOcrMs > SLOW_OCR_MS) {
+            next = stepDown(lastTier);
+        } else if (lastOcrMs < FAST_OCR_MS) {
+            next = stepUp(lastTier);
+        }
+        return next.ordinal() > ceiling.ordinal() ? ceiling : next;
+    }
+
+    private static Tier stepDown(Tier tier) {
+        return tier == Tier.SD ? Tier.SD : Tier.values()[tier.ordinal() - 1];
+    }
+
+    private static Tier stepUp(Tier tier) {
+        return tier == Tier.FHD ? Tier.FHD : Tier.values()[tier.ordinal() + 1];
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.snap.camara;
 
 import android.Manifest;
+import android.app.ActivityManager;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.PowerManager;
 import android.provider.MediaStore;
 import android.util.Log;
+import android.util.Size;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -21,6 +25,8 @@ import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
@@ -29,6 +35,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.snap.R;
 import com.example.snap.presentation.viewmodel.TranslationViewModel;
+import com.example.snap.services.TranslationHandle;
 import com.example.snap.ui.base.BaseActivity;
 import com.example.snap.ui.components.BottomNavigationComponent;
 import com.example.snap.ui.components.LanguageSelector;
@@ -42,9 +49,15 @@ import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 
@@ -60,9 +73,10 @@ public class Camara extends BaseActivity {
     private static final int GALLERY_REQUEST_CODE = 101;
     private static final int STORAGE_PERMISSION_CODE = 102;
 
-    // TIEMPO DE ESPERA (1.2 segundos) entre cada escaneo de la cámara.
-    // Esto es vital para no saturar la API ni calentar el teléfono.
-    private static final long ANALYSIS_DELAY = 1200L;
+    // Medidas del OCR de la última sesión, para elegir la resolución del análisis
+    private static final String CAMERA_PREFS = "camara_prefs";
+    private static final String KEY_OCR_LATENCY_MS = "ocr_latency_ms";
+    private static final String KEY_ANALYSIS_TIER = "analysis_tier";
 
     // --- Elementos visuales (la pantalla) ---
     private PreviewView cameraPreview;      // Donde se ve la cámara
@@ -88,6 +102,31 @@ public class Camara extends BaseActivity {
     // --- Variables de control ---
     private boolean isProcessing = false;
     private long lastAnalysisTime = 0; // Guarda la hora del último escaneo
+    // Cada cuánto se escanea: se adapta a la latencia, la escena y la temperatura.
+    // La protección de la API la pone el presupuesto compartido (RateLimiter).
+    private final AnalysisCadenceController cadence = new AnalysisCadenceController();
+    private PowerManager powerManager;
+    // Solo se pasa al OCR la zona del visor; FULL_FRAME para analizar todo el frame
+    private final RegionOfInterest regionOfInterest = RegionOfInterest.CENTER_RETICLE;
+    private final YuvCropper yuvCropper = new YuvCropper();
+    private final AnalysisResolutionPolicy resolutionPolicy = new AnalysisResolutionPolicy();
+    private AnalysisResolutionPolicy.Tier analysisTier;
+    private final PowerManager.OnThermalStatusChangedListener thermalListener = cadence::setThermalStatus;
+    // Caracteres del último frame con texto: estimación del coste del siguiente
+    private volatile int lastFrameChars = 0;
+    // Con el móvil quieto sobre el mismo texto no repetimos OCR ni traducción
+    private final FrameChangeDetector frameChangeDetector = new FrameChangeDetector();
+    // Bloques con id estable entre frames: solo se traducen los nuevos o cambiados
+    private final TextBlockTracker blockTracker = new TextBlockTracker();
+    // Lote de la cámara en vuelo (0 si ninguno). Uno nuevo cancelaría al anterior
+    // y sus bloques se quedarían sin traducir, así que se espera a que termine
+    private final AtomicLong batchInFlight = new AtomicLong(0);
+    private final AtomicLong batchSequence = new AtomicLong(0);
+    // Último frame en vivo publicado; se monta en el hilo de la cámara y la UI solo lo pinta
+    private final AtomicReference<OcrFrame> liveFrame = new AtomicReference<>();
+    // Coste en el hilo principal de pintar cada frame (solo se tocan en el hilo principal)
+    private long renderedFrames = 0;
+    private long renderNanos = 0;
 
     // --- OCR y Traducción ---
     private TextRecognizer textRecognizer;   // El lector de texto de Google
@@ -95,8 +134,9 @@ public class Camara extends BaseActivity {
     private OCR_Helper ocrHelper;            // Nuestro ayudante que decide si usar ML Kit o API
 
     // --- Idiomas seleccionados ---
-    private String currentSourceCode = "es";
-    private String currentTargetCode = "en";
+    // Se escriben en el hilo principal y se leen en el de la cámara
+    private volatile String currentSourceCode = "es";
+    private volatile String currentTargetCode = "en";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -105,6 +145,7 @@ public class Camara extends BaseActivity {
 
         // 1. Vinculamos los elementos del diseño (XML) con el código
         initializeViews();
+        graphicOverlay.setRegionOfInterest(regionOfInterest);
         setupLanguageSelector();
         setupButtons();
         setupNavigation();
@@ -119,6 +160,8 @@ public class Camara extends BaseActivity {
         viewModel = new ViewModelProvider(this).get(TranslationViewModel.class);
         ocrHelper = new OCR_Helper(viewModel);
 
+        powerManager = (PowerManager) getSystemService(POWER_SERVICE);
+
         // 5. Pedimos permiso de cámara si no lo tenemos
         checkAndRequestPermissions();
 
@@ -151,6 +194,9 @@ public class Camara extends BaseActivity {
     }
 
     private void setupLanguageSelector() {
+        // La cámara puede leer carteles en cualquier idioma: se ofrece la detección automática
+        languageSelector.setAutoDetectEnabled(true);
+
         // Primero intentamos cargar los idiomas de la sesión actual
         String[] currentLanguages = languageSelector.loadCurrentLanguages();
         
@@ -178,6 +224,9 @@ public class Camara extends BaseActivity {
         languageSelector.setOnLanguageChangeListener((srcCode, tgtCode, srcIndex, tgtIndex) -> {
             currentSourceCode = srcCode;
             currentTargetCode = tgtCode;
+            // La misma escena hay que traducirla al nuevo idioma
+            frameChangeDetector.reset();
+            blockTracker.reset();
             
             // Guardar la selección actual para que persista al cambiar de pantalla
             languageSelector.saveCurrentLanguages();
@@ -200,6 +249,12 @@ public class Camara extends BaseActivity {
     protected void onResume() {
         super.onResume();
         btnCapture.setEnabled(true);
+        if (powerManager != null) {
+            // El ahorro de batería rara vez cambia con la cámara abierta: basta con mirarlo al volver
+            cadence.setPowerSaveMode(powerManager.isPowerSaveMode());
+            cadence.setThermalStatus(powerManager.getCurrentThermalStatus());
+            powerManager.addThermalStatusListener(ContextCompat.getMainExecutor(this), thermalListener);
+        }
         if (bottomNavigation != null) {
             bottomNavigation.setActiveScreen("camara");
             bottomNavigation.updateUserButtonState();
@@ -210,16 +265,27 @@ public class Camara extends BaseActivity {
     protected void onPause() {
         super.onPause();
         isProcessing = false;
+        if (powerManager != null) powerManager.removeThermalStatusListener(thermalListener);
+        saveOcrMeasurements();
         if (graphicOverlay != null) graphicOverlay.clear();
+        // Al volver la pantalla está vacía: el primer frame tiene que pasar por el OCR
+        frameChangeDetector.reset();
+        // Lo que siga en vuelo ya no se va a mostrar
+        if (viewModel != null) viewModel.cancelPendingTranslations();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        Log.d(TAG, "Frames: " + frameChangeDetector + ", bloques: " + blockTracker + ", ritmo: " + cadence);
+        if (renderedFrames > 0) {
+            Log.d(TAG, "Pintado en UI: " + renderedFrames + " frames, media "
+                    + (renderNanos / renderedFrames / 1000) + " µs");
+        }
         // Limpieza de memoria al cerrar la pantalla
         if (cameraExecutor != null) cameraExecutor.shutdown();
         if (textRecognizer != null) textRecognizer.close();
-        if (ocrHelper != null) ocrHelper.close(); // Cerramos los traductores
+        // Los traductores de ML Kit son de toda la app: los libera SnapLinguaApplication
     }
 
     // Configura e inicia la cámara
@@ -251,8 +317,17 @@ public class Camara extends BaseActivity {
 
         imageCapture = new ImageCapture.Builder().build();
 
-        // Configuración del análisis de imagen (para el OCR)
+        // Configuración del análisis de imagen (para el OCR), con la resolución
+        // que aguanta este móvil según lo que tardó el OCR la última vez
+        analysisTier = chooseAnalysisTier();
+        Log.d(TAG, "Resolución de análisis: " + analysisTier);
+        ResolutionSelector resolutionSelector = new ResolutionSelector.Builder()
+                .setResolutionStrategy(new ResolutionStrategy(
+                        new Size(analysisTier.width, analysisTier.height),
+                        ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                .build();
         imageAnalysis = new ImageAnalysis.Builder()
+                .setResolutionSelector(resolutionSelector)
                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST) // Si va lento, descarta frames viejos
                 .build();
 
@@ -269,6 +344,33 @@ public class Camara extends BaseActivity {
         }
     }
 
+    private AnalysisResolutionPolicy.Tier chooseAnalysisTier() {
+        android.content.SharedPreferences prefs = getSharedPreferences(CAMERA_PREFS, MODE_PRIVATE);
+        AnalysisResolutionPolicy.Tier lastTier = null;
+        String savedTier = prefs.getString(KEY_ANALYSIS_TIER, null);
+        if (savedTier != null) {
+            try {
+                lastTier = AnalysisResolutionPolicy.Tier.valueOf(savedTier);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Resolución guardada desconocida: " + savedTier);
+            }
+        }
+        ActivityManager activityManager = (ActivityManager) getSystemService(ACTIVITY_SERVICE);
+        boolean lowRam = activityManager != null && activityManager.isLowRamDevice();
+        return resolutionPolicy.choose(lowRam, Runtime.getRuntime().availableProcessors(),
+                lastTier, prefs.getLong(KEY_OCR_LATENCY_MS, 0), !regionOfInterest.isFullFrame());
+    }
+
+    // Guarda lo que tardó el OCR y con qué resolución, para la próxima vez
+    private void saveOcrMeasurements() {
+        long ocrLatency = cadence.getOcrLatencyMs();
+        if (analysisTier == null || ocrLatency <= 0) return;
+        getSharedPreferences(CAMERA_PREFS, MODE_PRIVATE).edit()
+                .putString(KEY_ANALYSIS_TIER, analysisTier.name())
+                .putLong(KEY_OCR_LATENCY_MS, ocrLatency)
+                .apply();
+    }
+
     // ========================================================================
     // AQUÍ ESTÁ LA MAGIA: Procesamiento en vivo
     // ========================================================================
@@ -277,9 +379,11 @@ public class Camara extends BaseActivity {
     private void processImageProxy(ImageProxy imageProxy) {
         long currentTime = System.currentTimeMillis();
 
-        // 1. FRENO DE MANO: Si pasó menos tiempo del configurado (1.2s), no hacemos nada.
-        // Esto evita que la app se vuelva loca enviando peticiones a la API.
-        if (currentTime - lastAnalysisTime < ANALYSIS_DELAY) {
+        // 1. FRENO DE MANO: si no hay presupuesto de API para traducir otro frame
+        // (p. ej. porque la pantalla de texto lo está usando), ni siquiera hacemos OCR.
+        // Estimamos el tamaño con lo que tenía el frame anterior.
+        if (!cadence.isDue(currentTime, lastAnalysisTime)
+                || !viewModel.hasCameraTranslationCapacity(lastFrameChars)) {
             imageProxy.close(); // Importante cerrar para liberar la cámara
             return;
         }
@@ -290,74 +394,188 @@ public class Camara extends BaseActivity {
             return;
         }
 
-        // Preparamos la imagen para ML Kit
-        InputImage image = InputImage.fromMediaImage(imageProxy.getImage(),
-                imageProxy.getImageInfo().getRotationDegrees());
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        RegionOfInterest.Crop crop = regionOfInterest.cropFor(imageProxy.getWidth(), imageProxy.getHeight(), rotation);
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+
+        // 2. Si la escena apenas ha cambiado, lo que hay en pantalla sigue valiendo
+        // (y con la escena quieta se va espaciando el siguiente análisis).
+        // Solo cuenta lo que pasa dentro del visor.
+        ImageProxy.PlaneProxy lumaPlane = planes[0];
+        ByteBuffer lumaInCrop = lumaPlane.getBuffer().duplicate();
+        lumaInCrop.position(crop.top * lumaPlane.getRowStride() + crop.left * lumaPlane.getPixelStride());
+        boolean sceneChanged = frameChangeDetector.hasChanged(lumaInCrop.slice(), crop.width, crop.height,
+                lumaPlane.getRowStride(), lumaPlane.getPixelStride());
+        cadence.onFrameChecked(sceneChanged);
+        if (!sceneChanged) {
+            imageProxy.close();
+            return;
+        }
+
+        // Preparamos la imagen para ML Kit: solo el recorte del visor. El array se
+        // reutiliza, pero no llega otro frame hasta cerrar este al terminar el OCR
+        InputImage image;
+        if (crop.isFullFrame()) {
+            image = InputImage.fromMediaImage(imageProxy.getImage(), rotation);
+        } else {
+            byte[] nv21 = yuvCropper.toNv21(lumaPlane.getBuffer(), lumaPlane.getRowStride(), lumaPlane.getPixelStride(),
+                    planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    crop);
+            image = InputImage.fromByteArray(nv21, crop.width, crop.height, rotation, InputImage.IMAGE_FORMAT_NV21);
+        }
+
+        // Guardamos la geometría antes de cerrar el frame
+        boolean needRotation = rotation == 90 || rotation == 270;
+        int width = needRotation ? imageProxy.getHeight() : imageProxy.getWidth();
+        int height = needRotation ? imageProxy.getWidth() : imageProxy.getHeight();
 
-        // 2. Buscamos texto en la imagen (OCR)
+        // 3. Buscamos texto en la imagen (OCR). El resultado se procesa en el hilo
+        // de la cámara: al hilo principal solo llega el frame ya montado
+        long ocrStart = System.currentTimeMillis();
         textRecognizer.process(image)
-                .addOnSuccessListener(visionText -> {
-                    // Volvemos al hilo principal para dibujar en pantalla
-                    runOnUiThread(() -> {
-                        graphicOverlay.clear(); // Borrar dibujos anteriores
-
-                        // Calculamos si la imagen está rotada para dibujar bien los cuadros
-                        boolean needRotation = imageProxy.getImageInfo().getRotationDegrees() == 90
-                                || imageProxy.getImageInfo().getRotationDegrees() == 270;
-                        int width = needRotation ? imageProxy.getHeight() : imageProxy.getWidth();
-                        int height = needRotation ? imageProxy.getWidth() : imageProxy.getHeight();
-                        graphicOverlay.setImageSourceInfo(width, height, false);
-                    });
-
-                    StringBuilder fullText = new StringBuilder();
-
-                    // 3. Recorremos cada bloque de texto encontrado
-                    for (Text.TextBlock block : visionText.getTextBlocks()) {
-                        String originalText = block.getText();
-
-                        // 4. Mandamos a traducir (OCR_Helper decide si usa API o ML Kit)
-                        ocrHelper.translateText(
-                                originalText,
-                                currentSourceCode,
-                                currentTargetCode,
-                                getCurrentUser(),
-                                new OCR_Helper.TranslationCallback() {
-                                    @Override
-                                    public void onSuccess(String translated) {
-                                        runOnUiThread(() -> {
-                                            // Si funciona: Dibujamos el texto traducido
-                                            if (graphicOverlay != null) {
-                                                graphicOverlay.add(block, translated);
-                                                fullText.append(translated).append("\n");
-                                                tvTranslatedResult.setText(fullText.toString());
-                                                tvTranslatedResult.setVisibility(View.VISIBLE);
-                                            }
-                                        });
-                                    }
-
-                                    @Override
-                                    public void onFailure(Exception e) {
-                                        // Si falla: Dibujamos el texto original (para no dejar vacío)
-                                        runOnUiThread(() -> {
-                                            if (graphicOverlay != null) {
-                                                graphicOverlay.add(block, originalText);
-                                                fullText.append(originalText).append("\n");
-                                                tvTranslatedResult.setText(fullText.toString());
-                                                tvTranslatedResult.setVisibility(View.VISIBLE);
-                                            }
-                                        });
-                                    }
-                                }
-                        );
-                    }
+                .addOnSuccessListener(this::runOnCameraThread, visionText -> {
+                    // 4. Emparejamos los bloques con los del frame anterior; las
+                    // coordenadas del OCR son relativas al recorte
+                    List<TextBlockTracker.Detection> detections =
+                            toDetections(visionText.getTextBlocks(), crop.offsetX, crop.offsetY);
+                    List<TextBlockTracker.TrackedBlock> tracked = blockTracker.update(detections);
+
+                    // Lo ya traducido se redibuja en su sitio al momento
+                    publishLiveFrame(OcrFrame.of(width, height, detections, tracked, blockTracker::getTranslation));
+
+                    // 5. Solo se mandan los bloques nuevos o con texto distinto
+                    translatePendingBlocks(tracked);
                 })
-                .addOnFailureListener(e -> Log.e(TAG, "Error OCR: " + e.getMessage()))
-                .addOnCompleteListener(task -> {
-                    // 5. MUY IMPORTANTE: Cerramos la imagen para que la cámara pueda enviar la siguiente.
+                .addOnFailureListener(this::runOnCameraThread, e -> {
+                    Log.e(TAG, "Error OCR: " + e.getMessage());
+                    frameChangeDetector.reset();
+                })
+                .addOnCompleteListener(this::runOnCameraThread, task -> {
+                    cadence.onOcrCompleted(System.currentTimeMillis() - ocrStart);
+                    // 6. MUY IMPORTANTE: Cerramos la imagen para que la cámara pueda enviar la siguiente.
                     imageProxy.close();
                 });
     }
 
+    // Ejecuta en el hilo de la cámara; si la pantalla ya se cerró, se descarta
+    private void runOnCameraThread(Runnable command) {
+        try {
+            cameraExecutor.execute(command);
+        } catch (RejectedExecutionException e) {
+            Log.d(TAG, "Resultado descartado: la cámara ya se cerró");
+        }
+    }
+
+    // Bloques del OCR a detecciones en coordenadas de la imagen completa
+    private static List<TextBlockTracker.Detection> toDetections(List<Text.TextBlock> blocks, int offsetX, int offsetY) {
+        List<TextBlockTracker.Detection> detections = new ArrayList<>(blocks.size());
+        for (Text.TextBlock block : blocks) {
+            Rect box = block.getBoundingBox();
+            detections.add(box != null
+                    ? new TextBlockTracker.Detection(block.getText(), box.left + offsetX, box.top + offsetY,
+                            box.right + offsetX, box.bottom + offsetY)
+                    : new TextBlockTracker.Detection(block.getText(), 0, 0, 0, 0));
+        }
+        return detections;
+    }
+
+    // Traduce en un solo lote los bloques del frame que aún no tienen traducción
+    private void translatePendingBlocks(List<TextBlockTracker.TrackedBlock> tracked) {
+        List<TextBlockTracker.TrackedBlock> pending = new ArrayList<>();
+        List<String> pendingTexts = new ArrayList<>();
+        int pendingChars = 0;
+        for (TextBlockTracker.TrackedBlock block : tracked) {
+            if (block.needsTranslation()) {
+                pending.add(block);
+                pendingTexts.add(block.getText());
+                pendingChars += block.getText().length();
+            }
+        }
+        // Estimación del coste del siguiente frame: con la escena quieta tiende a cero
+        lastFrameChars = pendingChars;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long batchId = batchSequence.incrementAndGet();
+        if (!batchInFlight.compareAndSet(0, batchId)) {
+            // Ya hay un lote en vuelo: al terminar se vuelve a mirar el frame
+            return;
+        }
+        cadence.setBacklog(1);
+
+        long translationStart = System.currentTimeMillis();
+        // Se leen una vez: el lote entero va con el mismo par aunque cambie a mitad
+        String sourceCode = currentSourceCode;
+        String targetCode = currentTargetCode;
+        TranslationHandle handle = ocrHelper.translateBatch(
+                pendingTexts,
+                sourceCode,
+                targetCode,
+                getCurrentUser(),
+                new OCR_Helper.BatchTranslationCallback() {
+                    @Override
+                    public void onSuccess(List<String> translatedTexts) {
+                        cadence.onTranslationCompleted(System.currentTimeMillis() - translationStart);
+                        runOnCameraThread(() -> {
+                            for (int i = 0; i < pending.size(); i++) {
+                                blockTracker.onTranslated(pending.get(i).getId(), pending.get(i).getText(),
+                                        translatedTexts.get(i));
+                            }
+                            onBatchFinished(batchId);
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        // Se queda el texto original en pantalla y el próximo
+                        // frame se vuelve a intentar aunque no cambie
+                        Log.w(TAG, "Error traduciendo bloques: " + e.getMessage());
+                        runOnCameraThread(() -> onBatchFinished(batchId));
+                    }
+                }
+        );
+        // Cancelado (al pausar o por otro lote): el siguiente frame puede volver a mandar
+        handle.onCancel(() -> releaseBatch(batchId));
+    }
+
+    private void releaseBatch(long batchId) {
+        if (batchInFlight.compareAndSet(batchId, 0)) {
+            cadence.setBacklog(0);
+        }
+    }
+
+    // En el hilo de la cámara, al volver un lote
+    private void onBatchFinished(long batchId) {
+        releaseBatch(batchId);
+        // Si quedan bloques sin traducir (aparecieron mientras tanto o falló),
+        // el siguiente frame tiene que pasar por el OCR aunque la escena esté quieta
+        if (blockTracker.hasUntranslated()) {
+            frameChangeDetector.reset();
+        }
+
+        // El último frame con las traducciones que acaban de llegar
+        OcrFrame current = liveFrame.get();
+        if (current != null) {
+            OcrFrame updated = current.withTranslations(blockTracker::getTranslation);
+            if (updated != current) {
+                publishLiveFrame(updated);
+            }
+        }
+    }
+
+    // Publica un frame en vivo a la UI: una sola tarea en el hilo principal por frame
+    private void publishLiveFrame(OcrFrame frame) {
+        liveFrame.set(frame);
+        runOnUiThread(() -> {
+            // Si mientras tanto se publicó otro más nuevo, este ya no se pinta
+            if (liveFrame.get() != frame) return;
+            // Con una foto estática en pantalla, un lote tardío del vídeo no la pisa
+            if (imagePreview.getVisibility() == View.VISIBLE) return;
+            showFrame(frame);
+        });
+    }
+
     // Procesamiento para fotos de la galería o capturas (imagen estática)
     private void runOCRkOnBitmap(Bitmap bitmap) {
         InputImage image = InputImage.fromBitmap(bitmap, 0);
@@ -366,58 +584,64 @@ public class Camara extends BaseActivity {
                 .addOnSuccessListener(visionText -> {
                     graphicOverlay.clear();
                     graphicOverlay.setImageSourceInfo(bitmap.getWidth(), bitmap.getHeight(), false);
-                    StringBuilder fullText = new StringBuilder();
 
                     if (visionText.getTextBlocks().isEmpty()) {
                         Toast.makeText(Camara.this, "No se encontró texto", Toast.LENGTH_SHORT).show();
                         return;
                     }
 
-                    for (Text.TextBlock block : visionText.getTextBlocks()) {
-                        String originalText = block.getText();
-
-                        // Llamada al traductor
-                        ocrHelper.translateText(
-                                originalText,
-                                currentSourceCode,
-                                currentTargetCode,
-                                getCurrentUser(),
-                                new OCR_Helper.TranslationCallback() {
-                                    @Override
-                                    public void onSuccess(String translatedText) {
-                                        runOnUiThread(() -> {
-                                            graphicOverlay.add(block, translatedText);
-                                            fullText.append(translatedText).append("\n");
-
-                                            if (fullText.length() > 0) {
-                                                tvTranslatedResult.setVisibility(View.VISIBLE);
-                                                tvTranslatedResult.setText(fullText.toString().trim());
-                                            }
-                                        });
-                                    }
-
-                                    @Override
-                                    public void onFailure(Exception e) {
-                                        // Si falla, mostramos original
-                                        runOnUiThread(() -> {
-                                            graphicOverlay.add(block, originalText);
-                                            fullText.append(originalText).append("\n");
-
-                                            if (fullText.length() > 0) {
-                                                tvTranslatedResult.setVisibility(View.VISIBLE);
-                                                tvTranslatedResult.setText(fullText.toString().trim());
-                                            }
-                                        });
-                                    }
-                                }
-                        );
+                    List<TextBlockTracker.Detection> detections = toDetections(visionText.getTextBlocks(), 0, 0);
+                    List<String> originalTexts = new ArrayList<>(detections.size());
+                    for (TextBlockTracker.Detection detection : detections) {
+                        originalTexts.add(detection.text);
                     }
+
+                    // Llamada al traductor (una sola petición para toda la foto)
+                    ocrHelper.translateBatch(
+                            originalTexts,
+                            currentSourceCode,
+                            currentTargetCode,
+                            getCurrentUser(),
+                            new OCR_Helper.BatchTranslationCallback() {
+                                @Override
+                                public void onSuccess(List<String> translatedTexts) {
+                                    OcrFrame frame = OcrFrame.ofTexts(bitmap.getWidth(), bitmap.getHeight(),
+                                            detections, translatedTexts);
+                                    runOnUiThread(() -> showFrame(frame));
+                                }
+
+                                @Override
+                                public void onFailure(Exception e) {
+                                    // Si falla, mostramos original
+                                    OcrFrame frame = OcrFrame.ofTexts(bitmap.getWidth(), bitmap.getHeight(),
+                                            detections, originalTexts);
+                                    runOnUiThread(() -> showFrame(frame));
+                                }
+                            }
+                    );
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(this, "Error OCR", Toast.LENGTH_SHORT).show()
                 );
     }
 
+    // Pinta un frame ya montado: overlay y resultado completo de una vez (hilo principal)
+    private void showFrame(OcrFrame frame) {
+        if (graphicOverlay == null) return;
+        long start = System.nanoTime();
+
+        // Se sustituyen en bloque para que el overlay no parpadee
+        graphicOverlay.setFrame(frame);
+
+        if (!frame.getFullText().isEmpty()) {
+            tvTranslatedResult.setText(frame.getFullText());
+            tvTranslatedResult.setVisibility(View.VISIBLE);
+        }
+
+        renderNanos += System.nanoTime() - start;
+        renderedFrames++;
+    }
+
     // ========================================================================
     // Funciones auxiliares (Permisos, Galería, etc)
     // ========================================================================
@@ -449,6 +673,8 @@ public class Camara extends BaseActivity {
 
             cameraPreview.setVisibility(View.GONE);
             imagePreview.setVisibility(View.VISIBLE);
+            // La foto se analiza entera
+            graphicOverlay.setRegionOfInterest(null);
             imagePreview.setImageBitmap(bitmap);
 
             btnCapture.setVisibility(View.GONE);
@@ -475,6 +701,10 @@ public class Camara extends BaseActivity {
         imagePreview.setVisibility(View.GONE);
         tvTranslatedResult.setVisibility(View.GONE);
         graphicOverlay.clear();
+        graphicOverlay.setRegionOfInterest(regionOfInterest);
+        frameChangeDetector.reset();
+        blockTracker.reset();
+        liveFrame.set(null);
         btnCapture.setVisibility(View.VISIBLE);
         btnGallery.setVisibility(View.VISIBLE);
         btnRefresh.setVisibility(View.GONE);
@@ -0,0 +1,154 @@
+package com.example.snap.camara;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decide si un frame de la cámara ha cambiado lo bastante respecto al último
+ * que pasó por el OCR, mirando solo el plano de luminancia (Y).
+ *
+ * El frame se reduce a una rejilla de gridSize x gridSize celdas con la luma
+ * media de cada una (leyendo uno de cada cuatro píxeles). A cada celda
+ * se le resta la media global, así un cambio de exposición uniforme no
+ * cuenta como escena nueva. Una celda cambia si se aleja más de
+ * cellThreshold niveles de la de referencia, y el frame cambia si lo hace al
+ * menos changedCellFraction de las celdas.
+ *
+ * La referencia solo se actualiza cuando se detecta un cambio: una deriva
+ * lenta acaba sumando y disparando el OCR igualmente.
+ */
+public class FrameChangeDetector {
+
+    public static final int DEFAULT_GRID_SIZE = 16;
+    public static final int DEFAULT_CELL_THRESHOLD = 12;
+    public static final double DEFAULT_CHANGED_CELL_FRACTION = 0.08;
+
+    // Se lee uno de cada SAMPLE_STEP píxeles por eje. Unos pocos puntos sueltos
+    // por celda caen sobre los trazos del texto y un temblor de 2 px ya los cambia
+    private static final int SAMPLE_STEP = 2;
+
+    private final int gridSize;
+    private final int cellThreshold;
+    private final double changedCellFraction;
+
+    private int[] reference;
+    private int[] current;
+    private double lastScore = 1.0;
+    private long analyzedFrames = 0;
+    private long skippedFrames = 0;
+
+    public FrameChangeDetector() {
+        this(DEFAULT_GRID_SIZE, DEFAULT_CELL_THRESHOLD, DEFAULT_CHANGED_CELL_FRACTION);
+    }
+
+    /**
+     * @param gridSize            celdas por lado de la rejilla
+     * @param cellThreshold       diferencia de luma (0-255) a partir de la cual una celda cambia
+     * @param changedCellFraction fracción de celdas cambiadas (0-1) para considerar el frame nuevo
+     */
+    public FrameChangeDetector(int gridSize, int cellThreshold, double changedCellFraction) {
+        if (gridSize <= 0) {
+            throw new IllegalArgumentException("gridSize debe ser positivo");
+        }
+        this.gridSize = gridSize;
+        this.cellThreshold = cellThreshold;
+        this.changedCellFraction = changedCellFraction;
+        this.current = new int[gridSize * gridSize];
+    }
+
+    /**
+     * Compara el plano Y con la referencia. Si ha cambiado, pasa a ser la nueva
+     * referencia (se supone que el llamante hará el OCR).
+     *
+     * @param luma        plano Y (se lee con get absoluto, no se mueve su posición)
+     * @param rowStride   bytes por fila, puede ser mayor que width
+     * @param pixelStride bytes entre píxeles consecutivos (1 en YUV_420_888)
+     */
+    public synchronized boolean hasChanged(ByteBuffer luma, int width, int height, int rowStride, int pixelStride) {
+        if (width < gridSize || height < gridSize) {
+            // Frame demasiado pequeño para la rejilla: no arriesgamos a saltarlo
+            return markChanged(null);
+        }
+
+        sample(luma, width, height, rowStride, pixelStride, current);
+        if (reference == null) {
+            return markChanged(current);
+        }
+
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (Math.abs(current[i] - reference[i]) > cellThreshold) {
+                changed++;
+            }
+        }
+        lastScore = (double) changed / current.length;
+
+        if (lastScore >= changedCellFraction) {
+            return markChanged(current);
+        }
+        skippedFrames++;
+        return false;
+    }
+
+    /** Olvida la referencia: el siguiente frame se considera nuevo (p. ej. tras un fallo o cambio de idioma) */
+    public synchronized void reset() {
+        reference = null;
+    }
+
+    /** Fracción de celdas que cambiaron en la última comparación */
+    public synchronized double getLastScore() {
+        return lastScore;
+    }
+
+    private boolean markChanged(int[] signature) {
+        if (signature == null) {
+            reference = null;
+        } else {
+            // Intercambiamos los arrays para no reservar memoria en cada frame
+            int[] previous = reference;
+            reference = signature;
+            current = previous != null ? previous : new int[gridSize * gridSize];
+        }
+        lastScore = 1.0;
+        analyzedFrames++;
+        return true;
+    }
+
+    /**
+     * Luma media de cada celda menos la media global del frame
+     */
+    private void sample(ByteBuffer luma, int width, int height, int rowStride, int pixelStride, int[] out) {
+        long total = 0;
+        for (int gy = 0; gy < gridSize; gy++) {
+            int top = gy * height / gridSize;
+            int cellHeight = (gy + 1) * height / gridSize - top;
+            for (int gx = 0; gx < gridSize; gx++) {
+                int left = gx * width / gridSize;
+                int cellWidth = (gx + 1) * width / gridSize - left;
+
+                int sum = 0;
+                int count = 0;
+                for (int y = top; y < top + cellHeight; y += SAMPLE_STEP) {
+                    int rowOffset = y * rowStride;
+                    for (int x = left; x < left + cellWidth; x += SAMPLE_STEP) {
+                        sum += luma.get(rowOffset + x * pixelStride) & 0xff;
+                        count++;
+                    }
+                }
+                int mean = sum / count;
+                out[gy * gridSize + gx] = mean;
+                total += mean;
+            }
+        }
+
+        int globalMean = (int) (total / out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] -= globalMean;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FrameChangeDetector{analyzed=" + analyzedFrames + ", skipped=" + skippedFrames
+                + ", lastScore=" + String.format("%.2f", lastScore) + "}";
+    }
+}
@@ -9,8 +9,6 @@ import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.View;
 
-import com.google.mlkit.vision.text.Text;
-
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,8 +22,40 @@ public class GraphicOverlay extends View {
     private float widthScaleFactor = 1.0f;
     private float heightScaleFactor = 1.0f;
 
+    // Visor que marca la zona que se analiza (null si no se recorta)
+    private RegionOfInterest regionOfInterest;
+    private final Paint reticlePaint;
+
+    // Estilos compartidos por todos los bloques (no se crean en cada frame)
+    private final Paint rectPaint;
+    private final Paint textPaint;
+    private final Paint textBackgroundPaint;
+
     public GraphicOverlay(Context context, AttributeSet attrs) {
         super(context, attrs);
+        reticlePaint = new Paint();
+        reticlePaint.setColor(Color.WHITE);
+        reticlePaint.setStyle(Paint.Style.STROKE);
+        reticlePaint.setStrokeWidth(3.0f);
+        reticlePaint.setAlpha(160);
+
+        //estilo del borde del recuadro
+        rectPaint = new Paint();
+        rectPaint.setColor(Color.CYAN);
+        rectPaint.setStyle(Paint.Style.STROKE);
+        rectPaint.setStrokeWidth(4.0f);
+
+        //estilo del texto
+        textPaint = new Paint();
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(40.0f);
+        textPaint.setFakeBoldText(true);
+
+        // Estilo del fondo del texto (para que se lea bien)
+        textBackgroundPaint = new Paint();
+        textBackgroundPaint.setColor(Color.WHITE);
+        textBackgroundPaint.setStyle(Paint.Style.FILL);
+        textBackgroundPaint.setAlpha(200);
     }
 
     /**
@@ -39,11 +69,19 @@ public class GraphicOverlay extends View {
     }
 
     /**
-     * Agrega un bloque de texto para dibujar
+     * Sustituye todos los bloques por los del frame de una vez, sin pasar por un
+     * overlay vacío (así no parpadea al redibujar un frame que apenas cambió)
      */
-    public void add(Text.TextBlock textBlock, String translatedText) {
+    public void setFrame(OcrFrame frame) {
+        List<TextBlockGraphic> updated = new ArrayList<>(frame.getItems().size());
+        for (OcrFrame.Item item : frame.getItems()) {
+            updated.add(new TextBlockGraphic(item));
+        }
         synchronized (lock) {
-            graphics.add(new TextBlockGraphic(textBlock, translatedText));
+            imageWidth = frame.getImageWidth();
+            imageHeight = frame.getImageHeight();
+            graphics.clear();
+            graphics.addAll(updated);
         }
         postInvalidate();
     }
@@ -59,6 +97,17 @@ public class GraphicOverlay extends View {
         postInvalidate();
     }
 
+    /**
+     * Dibuja el visor de la zona analizada (null para ocultarlo)
+     */
+    public void setRegionOfInterest(RegionOfInterest regionOfInterest) {
+        synchronized (lock) {
+            this.regionOfInterest = regionOfInterest != null && !regionOfInterest.isFullFrame()
+                    ? regionOfInterest : null;
+        }
+        postInvalidate();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
@@ -70,9 +119,19 @@ public class GraphicOverlay extends View {
                 heightScaleFactor = (float) getHeight() / imageHeight;
             }
 
-            /*for (TextBlockGraphic graphic : graphics) {
+            if (regionOfInterest != null) {
+                canvas.drawRect(
+                        regionOfInterest.getLeft() * getWidth(),
+                        regionOfInterest.getTop() * getHeight(),
+                        regionOfInterest.getRight() * getWidth(),
+                        regionOfInterest.getBottom() * getHeight(),
+                        reticlePaint);
+            }
+
+            // Bloques del último OcrFrame publicado
+            for (TextBlockGraphic graphic : graphics) {
                 graphic.draw(canvas);
-            }*/
+            }
         }
     }
 
@@ -80,46 +139,21 @@ public class GraphicOverlay extends View {
      * Clase interna para definir cómo dibujar cada bloque de texto
      */
     private class TextBlockGraphic {
-        private final Text.TextBlock textBlock;
-        private final String translatedText;
-        private final Paint rectPaint;
-        private final Paint textPaint;
-        private final Paint textBackgroundPaint;
-
-        TextBlockGraphic(Text.TextBlock textBlock, String translatedText) {
-            this.textBlock = textBlock;
-            this.translatedText = translatedText;
-
-            //estilo del borde del recuadro
-            rectPaint = new Paint();
-            rectPaint.setColor(Color.CYAN);
-            rectPaint.setStyle(Paint.Style.STROKE);
-            rectPaint.setStrokeWidth(4.0f);
-
-            //estilo del texto
-            textPaint = new Paint();
-            textPaint.setColor(Color.BLACK);
-            textPaint.setTextSize(40.0f);
-            textPaint.setFakeBoldText(true);
-
-            // Estilo del fondo del texto (para que se lea bien)
-            textBackgroundPaint = new Paint();
-            textBackgroundPaint.setColor(Color.WHITE);
-            textBackgroundPaint.setStyle(Paint.Style.FILL);
-            textBackgroundPaint.setAlpha(200);
+        private final OcrFrame.Item item;
+
+        TextBlockGraphic(OcrFrame.Item item) {
+            this.item = item;
         }
 
         void draw(Canvas canvas) {
-            if (textBlock.getBoundingBox() == null) return;
-
-            // Obtener rectángulo original y escalarlo
-            Rect rect = textBlock.getBoundingBox();
+            // Escalar el recuadro (ya en coordenadas de la imagen completa)
             RectF scaledRect = new RectF(
-                    rect.left * widthScaleFactor,
-                    rect.top * heightScaleFactor,
-                    rect.right * widthScaleFactor,
-                    rect.bottom * heightScaleFactor
+                    item.left * widthScaleFactor,
+                    item.top * heightScaleFactor,
+                    item.right * widthScaleFactor,
+                    item.bottom * heightScaleFactor
             );
+            if (scaledRect.isEmpty()) return;
 
             //dibujar el recuadro alrededor del texto detectado
             canvas.drawRect(scaledRect, rectPaint);
@@ -128,8 +162,8 @@ public class GraphicOverlay extends View {
             float x = scaledRect.left;
             float y = scaledRect.bottom; // Dibujar debajo del recuadro
 
-            //si el texto a mostrar es el traducido o el original
-            String textToShow = translatedText != null ? translatedText : textBlock.getText();
+            //el traducido si ya llegó, si no el original
+            String textToShow = item.displayText;
 
             //ajustar fondo del texto
             Rect textBounds = new Rect();
@@ -148,4 +182,4 @@ public class GraphicOverlay extends View {
             canvas.drawText(textToShow, x + 10, y + textBounds.height() + 5, textPaint);
         }
     }
-}
\ No newline at end of file
+}
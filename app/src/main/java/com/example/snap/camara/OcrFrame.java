@@ -0,0 +1,132 @@
+package com.example.snap.camara;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lo que hay que pintar de un frame analizado: recuadros (en coordenadas de
+ * la imagen completa y derecha), el texto de cada uno y el texto completo.
+ *
+ * Se monta fuera del hilo principal y es inmutable, así se puede publicar a
+ * la UI de una vez y la UI solo tiene que dibujarlo.
+ */
+public final class OcrFrame {
+
+    /** Da la traducción actual de una pista del TextBlockTracker (o null) */
+    public interface TranslationLookup {
+        String getTranslation(long trackId);
+    }
+
+    public static final class Item {
+        public final long trackId;
+        public final String originalText;
+        // Traducción si la hay; si no, el original
+        public final String displayText;
+        public final boolean translated;
+        public final int left;
+        public final int top;
+        public final int right;
+        public final int bottom;
+
+        Item(long trackId, String originalText, String translation, int left, int top, int right, int bottom) {
+            this.trackId = trackId;
+            this.originalText = originalText;
+            this.translated = translation != null;
+            this.displayText = translation != null ? translation : originalText;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        Item(long trackId, String originalText, String translation, TextBlockTracker.Detection box) {
+            this(trackId, originalText, translation, box.left, box.top, box.right, box.bottom);
+        }
+
+        Item withTranslation(String translation) {
+            return new Item(trackId, originalText, translation, left, top, right, bottom);
+        }
+    }
+
+    private final int imageWidth;
+    private final int imageHeight;
+    private final List<Item> items;
+    private final String fullText;
+
+    private OcrFrame(int imageWidth, int imageHeight, List<Item> items) {
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.items = Collections.unmodifiableList(items);
+
+        StringBuilder text = new StringBuilder();
+        for (Item item : items) {
+            text.append(item.displayText).append("\n");
+        }
+        this.fullText = text.toString().trim();
+    }
+
+    /**
+     * Frame de la cámara en vivo: cada detección con su pista y la traducción que tenga ya
+     */
+    public static OcrFrame of(int imageWidth, int imageHeight, List<TextBlockTracker.Detection> detections,
+                              List<TextBlockTracker.TrackedBlock> tracked, TranslationLookup lookup) {
+        List<Item> items = new ArrayList<>(detections.size());
+        for (int i = 0; i < detections.size(); i++) {
+            TextBlockTracker.TrackedBlock block = tracked.get(i);
+            items.add(new Item(block.getId(), block.getText(), lookup.getTranslation(block.getId()),
+                    detections.get(i)));
+        }
+        return new OcrFrame(imageWidth, imageHeight, items);
+    }
+
+    /**
+     * Imagen estática: cada detección con el texto a mostrar, sin seguimiento
+     */
+    public static OcrFrame ofTexts(int imageWidth, int imageHeight, List<TextBlockTracker.Detection> detections,
+                                   List<String> texts) {
+        List<Item> items = new ArrayList<>(detections.size());
+        for (int i = 0; i < detections.size(); i++) {
+            TextBlockTracker.Detection detection = detections.get(i);
+            String text = texts.get(i);
+            items.add(new Item(-1, detection.text, text.equals(detection.text) ? null : text, detection));
+        }
+        return new OcrFrame(imageWidth, imageHeight, items);
+    }
+
+    /**
+     * El mismo frame con las traducciones que hayan llegado. Devuelve this si no
+     * cambió nada, así no se redibuja para nada.
+     */
+    public OcrFrame withTranslations(TranslationLookup lookup) {
+        List<Item> updated = null;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            String translation = item.translated || item.trackId < 0 ? null : lookup.getTranslation(item.trackId);
+            if (translation != null) {
+                if (updated == null) {
+                    updated = new ArrayList<>(items);
+                }
+                updated.set(i, item.withTranslation(translation));
+            }
+        }
+        return updated == null ? this : new OcrFrame(imageWidth, imageHeight, updated);
+    }
+
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /** Textos a mostrar unidos por saltos de línea ("" si no hay ninguno) */
+    public String getFullText() {
+        return fullText;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.snap.camara;
+
+/**
+ * Zona del frame que se manda al OCR, en fracciones (0-1) de la imagen tal
+ * como se ve en pantalla (ya rotada). Por defecto una franja central, que es
+ * donde el usuario apunta: el reconocedor no gasta tiempo en los bordes.
+ */
+public class RegionOfInterest {
+
+    /** Todo el frame, sin recorte */
+    public static final RegionOfInterest FULL_FRAME = new RegionOfInterest(0f, 0f, 1f, 1f);
+
+    /** Visor central: 80% del ancho y 40% del alto */
+    public static final RegionOfInterest CENTER_RETICLE = centered(0.8f, 0.4f);
+
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+
+    public RegionOfInterest(float left, float top, float right, float bottom) {
+        if (left < 0f || top < 0f || right > 1f || bottom > 1f || left >= right || top >= bottom) {
+            throw new IllegalArgumentException("Región no válida: " + left + "," + top + "," + right + "," + bottom);
+        }
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /** Región centrada con el ancho y alto dados (fracciones del frame) */
+    public static RegionOfInterest centered(float widthFraction, float heightFraction) {
+        float marginX = (1f - widthFraction) / 2f;
+        float marginY = (1f - heightFraction) / 2f;
+        return new RegionOfInterest(marginX, marginY, 1f - marginX, 1f - marginY);
+    }
+
+    public float getLeft() {
+        return left;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getRight() {
+        return right;
+    }
+
+    public float getBottom() {
+        return bottom;
+    }
+
+    public boolean isFullFrame() {
+        return left == 0f && top == 0f && right == 1f && bottom == 1f;
+    }
+
+    /**
+     * Recorte en coordenadas del buffer de la cámara (sin rotar).
+     *
+     * @param bufferWidth     ancho del buffer tal como llega del sensor
+     * @param bufferHeight    alto del buffer
+     * @param rotationDegrees grados (0, 90, 180, 270) que hay que girar el buffer para verlo derecho
+     */
+    public Crop cropFor(int bufferWidth, int bufferHeight, int rotationDegrees) {
+        // Fracciones del buffer según hacia dónde esté girado respecto a la pantalla
+        float x0;
+        float y0;
+        float x1;
+        float y1;
+        switch (rotationDegrees) {
+            case 90:
+                x0 = top;
+                x1 = bottom;
+                y0 = 1f - right;
+                y1 = 1f - left;
+                break;
+            case 180:
+                x0 = 1f - right;
+                x1 = 1f - left;
+                y0 = 1f - bottom;
+                y1 = 1f - top;
+                break;
+            case 270:
+                x0 = 1f - bottom;
+                x1 = 1f - top;
+                y0 = left;
+                y1 = right;
+                break;
+            default:
+                x0 = left;
+                x1 = right;
+                y0 = top;
+                y1 = bottom;
+                break;
+        }
+
+        // Coordenadas pares: en YUV 4:2:0 cada muestra de color cubre 2x2 píxeles
+        int cropLeft = even(x0 * bufferWidth);
+        int cropTop = even(y0 * bufferHeight);
+        int cropRight = Math.max(cropLeft + 2, Math.min(bufferWidth, even(x1 * bufferWidth)));
+        int cropBottom = Math.max(cropTop + 2, Math.min(bufferHeight, even(y1 * bufferHeight)));
+        return new Crop(cropLeft, cropTop, cropRight - cropLeft, cropBottom - cropTop,
+                bufferWidth, bufferHeight, rotationDegrees);
+    }
+
+    private static int even(float value) {
+        return Math.round(value / 2f) * 2;
+    }
+
+    /** Rectángulo a recortar del buffer y dónde cae una vez rotado */
+    public static class Crop {
+        public final int left;
+        public final int top;
+        public final int width;
+        public final int height;
+        // Esquina del recorte en la imagen derecha: desplazamiento de lo que devuelva el OCR
+        public final int offsetX;
+        public final int offsetY;
+        private final boolean fullFrame;
+
+        Crop(int left, int top, int width, int height, int bufferWidth, int bufferHeight, int rotationDegrees) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.fullFrame = left == 0 && top == 0 && width == bufferWidth && height == bufferHeight;
+            switch (rotationDegrees) {
+                case 90:
+                    offsetX = bufferHeight - (top + height);
+                    offsetY = left;
+                    break;
+                case 180:
+                    offsetX = bufferWidth - (left + width);
+                    offsetY = bufferHeight - (top + height);
+                    break;
+                case 270:
+                    offsetX = top;
+                    offsetY = bufferWidth - (left + width);
+                    break;
+                default:
+                    offsetX = left;
+                    offsetY = top;
+                    break;
+            }
+        }
+
+        public boolean isFullFrame() {
+            return fullFrame;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.snap.camara;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sigue los bloques de texto del OCR de un frame a otro para no retraducir lo
+ * que ya está en pantalla.
+ *
+ * Cada bloque se empareja con una pista del frame anterior por solape del
+ * recuadro (IoU) y parecido del texto (bigramas de caracteres). Las pistas
+ * tienen un id estable y guardan la traducción de su texto: solo hay que
+ * traducir los bloques nuevos o aquellos cuyo texto cambió. Una pista que no
+ * aparece en MAX_MISSED_FRAMES frames seguidos se olvida.
+ */
+public class TextBlockTracker {
+
+    // Con este solape basta un texto parecido (el OCR varía alguna letra)
+    static final double MIN_IOU = 0.3;
+    static final double MIN_TEXT_SIMILARITY = 0.5;
+    // Sin solape (el móvil se movió de golpe) solo vale el mismo texto
+    static final double SAME_TEXT_SIMILARITY = 0.9;
+    static final int MAX_MISSED_FRAMES = 5;
+
+    /** Bloque reconocido en un frame, con su recuadro en coordenadas de la imagen */
+    public static class Detection {
+        final String text;
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+
+        public Detection(String text, int left, int top, int right, int bottom) {
+            this.text = text;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+    }
+
+    /** Estado de un bloque tras emparejarlo, en el mismo orden que las detecciones */
+    public static class TrackedBlock {
+        private final long id;
+        private final String text;
+        private final String translation;
+
+        TrackedBlock(long id, String text, String translation) {
+            this.id = id;
+            this.text = text;
+            this.translation = translation;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /** Traducción del texto actual o null si aún no la hay */
+        public String getTranslation() {
+            return translation;
+        }
+
+        public boolean needsTranslation() {
+            return translation == null;
+        }
+    }
+
+    private static class Track {
+        final long id;
+        String text;
+        String normalized;
+        Map<Integer, Integer> bigrams;
+        int left;
+        int top;
+        int right;
+        int bottom;
+        String translation;
+        int missedFrames = 0;
+
+        Track(long id, Detection detection) {
+            this.id = id;
+            moveTo(detection);
+        }
+
+        void moveTo(Detection detection) {
+            String normalizedText = normalize(detection.text);
+            if (!normalizedText.equals(normalized)) {
+                // El texto cambió: la traducción anterior ya no vale
+                text = detection.text;
+                normalized = normalizedText;
+                bigrams = bigrams(normalizedText);
+                translation = null;
+            }
+            left = detection.left;
+            top = detection.top;
+            right = detection.right;
+            bottom = detection.bottom;
+            missedFrames = 0;
+        }
+    }
+
+    private final List<Track> tracks = new ArrayList<>();
+    private long nextId = 1;
+    private long blockCount = 0;
+    private long reusedCount = 0;
+
+    /**
+     * Empareja las detecciones del frame con las pistas y devuelve su estado en
+     * el mismo orden. Los que tengan needsTranslation() son los que hay que mandar.
+     */
+    public synchronized List<TrackedBlock> update(List<Detection> detections) {
+        List<double[]> candidates = new ArrayList<>();
+        List<Map<Integer, Integer>> detectionBigrams = new ArrayList<>(detections.size());
+        for (int d = 0; d < detections.size(); d++) {
+            Detection detection = detections.get(d);
+            Map<Integer, Integer> grams = bigrams(normalize(detection.text));
+            detectionBigrams.add(grams);
+            for (int t = 0; t < tracks.size(); t++) {
+                Track track = tracks.get(t);
+                double iou = iou(detection, track);
+                double similarity = similarity(grams, track.bigrams);
+                if ((iou >= MIN_IOU && similarity >= MIN_TEXT_SIMILARITY) || similarity >= SAME_TEXT_SIMILARITY) {
+                    candidates.add(new double[]{iou + similarity, d, t});
+                }
+            }
+        }
+        // Emparejamiento voraz: primero las parejas más claras
+        Collections.sort(candidates, (a, b) -> Double.compare(b[0], a[0]));
+
+        Track[] assigned = new Track[detections.size()];
+        boolean[] trackUsed = new boolean[tracks.size()];
+        for (double[] candidate : candidates) {
+            int d = (int) candidate[1];
+            int t = (int) candidate[2];
+            if (assigned[d] == null && !trackUsed[t]) {
+                assigned[d] = tracks.get(t);
+                trackUsed[t] = true;
+            }
+        }
+
+        for (int t = 0; t < trackUsed.length; t++) {
+            if (!trackUsed[t]) {
+                tracks.get(t).missedFrames++;
+            }
+        }
+        Iterator<Track> iterator = tracks.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().missedFrames > MAX_MISSED_FRAMES) {
+                iterator.remove();
+            }
+        }
+
+        List<TrackedBlock> result = new ArrayList<>(detections.size());
+        for (int d = 0; d < detections.size(); d++) {
+            Track track = assigned[d];
+            if (track == null) {
+                track = new Track(nextId++, detections.get(d));
+                tracks.add(track);
+            } else {
+                track.moveTo(detections.get(d));
+            }
+            blockCount++;
+            if (track.translation != null) {
+                reusedCount++;
+            }
+            result.add(new TrackedBlock(track.id, track.text, track.translation));
+        }
+        return result;
+    }
+
+    /**
+     * Guarda la traducción de una pista. Se descarta si mientras tanto el texto
+     * de la pista cambió o la pista se olvidó.
+     *
+     * @return true si se guardó
+     */
+    public synchronized boolean onTranslated(long id, String sourceText, String translation) {
+        Track track = find(id);
+        if (track == null || !track.normalized.equals(normalize(sourceText))) {
+            return false;
+        }
+        track.translation = translation;
+        return true;
+    }
+
+    /** Traducción actual de la pista o null si no la tiene (o ya no existe) */
+    public synchronized String getTranslation(long id) {
+        Track track = find(id);
+        return track != null ? track.translation : null;
+    }
+
+    /** Si algún bloque visible en el último frame sigue sin traducción */
+    public synchronized boolean hasUntranslated() {
+        for (Track track : tracks) {
+            if (track.missedFrames == 0 && track.translation == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Olvida todas las pistas y traducciones (p. ej. al cambiar de idioma) */
+    public synchronized void reset() {
+        tracks.clear();
+    }
+
+    private Track find(long id) {
+        for (Track track : tracks) {
+            if (track.id == id) {
+                return track;
+            }
+        }
+        return null;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    private static double iou(Detection detection, Track track) {
+        int width = Math.min(detection.right, track.right) - Math.max(detection.left, track.left);
+        int height = Math.min(detection.bottom, track.bottom) - Math.max(detection.top, track.top);
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        double intersection = (double) width * height;
+        double union = area(detection.left, detection.top, detection.right, detection.bottom)
+                + area(track.left, track.top, track.right, track.bottom) - intersection;
+        return union > 0 ? intersection / union : 0;
+    }
+
+    private static double area(int left, int top, int right, int bottom) {
+        return (double) Math.max(0, right - left) * Math.max(0, bottom - top);
+    }
+
+    /** Bigramas de caracteres con su número de apariciones */
+    private static Map<Integer, Integer> bigrams(String text) {
+        Map<Integer, Integer> grams = new HashMap<>();
+        if (text.length() == 1) {
+            grams.put((int) text.charAt(0), 1);
+        }
+        for (int i = 0; i + 1 < text.length(); i++) {
+            int gram = (text.charAt(i) << 16) | text.charAt(i + 1);
+            grams.merge(gram, 1, Integer::sum);
+        }
+        return grams;
+    }
+
+    /** Coeficiente de Dice entre dos conjuntos de bigramas (1 = mismo texto) */
+    static double similarity(Map<Integer, Integer> a, Map<Integer, Integer> b) {
+        int sizeA = 0;
+        int sizeB = 0;
+        int common = 0;
+        for (int count : a.values()) {
+            sizeA += count;
+        }
+        for (Map.Entry<Integer, Integer> entry : b.entrySet()) {
+            sizeB += entry.getValue();
+            Integer other = a.get(entry.getKey());
+            if (other != null) {
+                common += Math.min(other, entry.getValue());
+            }
+        }
+        if (sizeA + sizeB == 0) {
+            return 1.0;
+        }
+        return 2.0 * common / (sizeA + sizeB);
+    }
+
+    static double similarity(String a, String b) {
+        return similarity(bigrams(normalize(a)), bigrams(normalize(b)));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextBlockTracker{tracks=" + tracks.size() + ", blocks=" + blockCount
+                + ", reused=" + reusedCount + "}";
+    }
+}
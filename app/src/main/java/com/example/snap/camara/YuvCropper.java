@@ -0,0 +1,64 @@
+package com.example.snap.camara;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copia una región de un frame YUV_420_888 a un array NV21 (Y y luego V/U
+ * intercalados), que es lo que acepta InputImage.fromByteArray. Así el OCR
+ * solo procesa el recorte.
+ *
+ * Reutiliza el mismo array entre frames: no es seguro usarlo desde varios
+ * hilos ni pedir otro recorte mientras ML Kit sigue leyendo el anterior.
+ */
+public class YuvCropper {
+
+    private byte[] output;
+
+    /**
+     * @param yPlane        plano Y (se lee sin mover su posición)
+     * @param uPlane        plano U
+     * @param vPlane        plano V
+     * @param uvRowStride   bytes por fila en U y V
+     * @param uvPixelStride bytes entre muestras de color (1 planar, 2 semiplanar)
+     * @return array NV21 de crop.width x crop.height (el mismo mientras no cambie el tamaño)
+     */
+    public byte[] toNv21(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                         ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                         RegionOfInterest.Crop crop) {
+        int width = crop.width;
+        int height = crop.height;
+        int lumaSize = width * height;
+        int size = lumaSize + 2 * (width / 2) * (height / 2);
+        if (output == null || output.length != size) {
+            output = new byte[size];
+        }
+
+        ByteBuffer luma = yPlane.duplicate();
+        int out = 0;
+        for (int row = 0; row < height; row++) {
+            int rowStart = (crop.top + row) * yRowStride + crop.left * yPixelStride;
+            if (yPixelStride == 1) {
+                // Caso normal: la fila del recorte es contigua y se copia de golpe
+                luma.position(rowStart);
+                luma.get(output, out, width);
+                out += width;
+            } else {
+                for (int col = 0; col < width; col++) {
+                    output[out++] = luma.get(rowStart + col * yPixelStride);
+                }
+            }
+        }
+
+        int chromaLeft = crop.left / 2;
+        int chromaTop = crop.top / 2;
+        for (int row = 0; row < height / 2; row++) {
+            int rowStart = (chromaTop + row) * uvRowStride + chromaLeft * uvPixelStride;
+            for (int col = 0; col < width / 2; col++) {
+                int index = rowStart + col * uvPixelStride;
+                output[out++] = vPlane.get(index);
+                output[out++] = uPlane.get(index);
+            }
+        }
+        return output;
+    }
+}
@@ -21,6 +21,13 @@ public interface FavoriteDao {
     @Query("SELECT * FROM favorites WHERE userId = :userId ORDER BY addedDate DESC")
     LiveData<List<Favorite>> getAllFavoritesByUser(String userId);
 
+    // Lo mismo sin LiveData, para trabajos en segundo plano
+    @Query("SELECT * FROM favorites WHERE userId = :userId ORDER BY addedDate DESC")
+    List<Favorite> getFavoritesByUserSync(String userId);
+
+    @Query("SELECT DISTINCT userId FROM favorites")
+    List<String> getUserIds();
+
     // Estadísticas de idiomas solo para el usuario activo
     @Query("SELECT targetLang FROM favorites WHERE userId = :userId GROUP BY targetLang ORDER BY COUNT(*) DESC LIMIT 3")
     LiveData<List<String>> getFavoriteLanguagesByUser(String userId);
@@ -29,6 +36,10 @@ public interface FavoriteDao {
     @Query("SELECT EXISTS(SELECT 1 FROM favorites WHERE userId = :userId AND originalText = :text LIMIT 1)")
     LiveData<Boolean> isFavorite(String userId, String text);
 
+    // Sustituye una traducción provisional guardada en favoritos por la de la API
+    @Query("UPDATE favorites SET translatedText = :newTranslation WHERE userId = :userId AND originalText = :originalText AND sourceLang = :sourceLang AND targetLang = :targetLang AND translatedText = :oldTranslation")
+    int updateTranslation(String userId, String originalText, String sourceLang, String targetLang, String oldTranslation, String newTranslation);
+
     // Borrar favoritos de un usuario (por si borra su cuenta)
     @Query("DELETE FROM favorites WHERE userId = :userId")
     void deleteByUser(String userId);
@@ -0,0 +1,29 @@
+package com.example.snap.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.example.snap.data.entities.PendingTranslation;
+
+import java.util.List;
+
+@Dao
+public interface PendingTranslationDao {
+
+    @Insert
+    long insert(PendingTranslation pending);
+
+    // Las más antiguas primero
+    @Query("SELECT * FROM pending_translations ORDER BY createdAt ASC LIMIT :limit")
+    List<PendingTranslation> getOldest(int limit);
+
+    @Query("DELETE FROM pending_translations WHERE id IN (:ids)")
+    void deleteByIds(List<Long> ids);
+
+    @Query("UPDATE pending_translations SET attempts = attempts + 1 WHERE id IN (:ids)")
+    void incrementAttempts(List<Long> ids);
+
+    @Query("SELECT COUNT(*) FROM pending_translations")
+    int count();
+}
@@ -0,0 +1,39 @@
+package com.example.snap.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.snap.data.entities.TranslationCacheEntry;
+
+@Dao
+public interface TranslationCacheDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(TranslationCacheEntry entry);
+
+    @Query("SELECT * FROM translation_cache WHERE cacheKey = :cacheKey LIMIT 1")
+    TranslationCacheEntry getByKey(String cacheKey);
+
+    // Marca la entrada como usada para la política LRU
+    @Query("UPDATE translation_cache SET lastAccessedAt = :time WHERE cacheKey = :cacheKey")
+    void touch(String cacheKey, long time);
+
+    @Query("DELETE FROM translation_cache WHERE cacheKey = :cacheKey")
+    void deleteByKey(String cacheKey);
+
+    // Elimina las entradas caducadas (TTL)
+    @Query("DELETE FROM translation_cache WHERE createdAt < :cutoff")
+    int deleteCreatedBefore(long cutoff);
+
+    @Query("SELECT COUNT(*) FROM translation_cache")
+    int count();
+
+    @Query("SELECT COALESCE(SUM(sizeBytes), 0) FROM translation_cache")
+    long totalBytes();
+
+    // Borra las N entradas usadas hace más tiempo
+    @Query("DELETE FROM translation_cache WHERE cacheKey IN (SELECT cacheKey FROM translation_cache ORDER BY lastAccessedAt ASC LIMIT :count)")
+    int deleteLeastRecentlyUsed(int count);
+}
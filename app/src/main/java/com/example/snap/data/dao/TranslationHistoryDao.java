@@ -22,6 +22,21 @@ public interface TranslationHistoryDao {
     @Query("SELECT COUNT(*) FROM translation_history WHERE userId = :userId AND sourceText = :sourceText AND translatedText = :translatedText AND sourceLanguage = :sourceLang AND targetLanguage = :targetLang AND ((:currentTime - timestamp) < 2000)")
     int countRecentDuplicates(String userId, String sourceText, String translatedText, String sourceLang, String targetLang, long currentTime);
 
+    // Sustituye una traducción provisional (p. ej. de ML Kit sin conexión) por la de la API
+    @Query("UPDATE translation_history SET translatedText = :newTranslation WHERE userId = :userId AND sourceText = :sourceText AND sourceLanguage = :sourceLang AND targetLanguage = :targetLang AND translatedText = :oldTranslation")
+    int updateTranslation(String userId, String sourceText, String sourceLang, String targetLang, String oldTranslation, String newTranslation);
+
+    // Textos más traducidos desde un idioma (para precargarlos al cambiar de par)
+    @Query("SELECT sourceText FROM translation_history WHERE userId = :userId AND sourceLanguage = :sourceLang GROUP BY sourceText ORDER BY COUNT(*) DESC, MAX(timestamp) DESC LIMIT :limit")
+    List<String> getMostFrequentSourceTexts(String userId, String sourceLang, int limit);
+
+    // Frases más repetidas del usuario en cualquier idioma (una fila por texto e idioma)
+    @Query("SELECT * FROM translation_history WHERE userId = :userId GROUP BY sourceText, sourceLanguage ORDER BY COUNT(*) DESC, MAX(timestamp) DESC LIMIT :limit")
+    List<TranslationHistory> getMostFrequent(String userId, int limit);
+
+    @Query("SELECT DISTINCT userId FROM translation_history")
+    List<String> getUserIds();
+
     @Query("DELETE FROM translation_history WHERE userId = :userId")
     void deleteHistoryByUser(String userId);
 
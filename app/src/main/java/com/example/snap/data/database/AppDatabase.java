@@ -1,21 +1,29 @@
 package com.example.snap.data.database;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.snap.data.dao.FavoriteDao;
+import com.example.snap.data.dao.PendingTranslationDao;
+import com.example.snap.data.dao.TranslationCacheDao;
 import com.example.snap.data.dao.TranslationHistoryDao;
 import com.example.snap.data.dao.UserDao;
 import com.example.snap.data.entities.Favorite;
+import com.example.snap.data.entities.PendingTranslation;
+import com.example.snap.data.entities.TranslationCacheEntry;
 import com.example.snap.data.entities.TranslationHistory;
 import com.example.snap.data.entities.User;
 
 @Database(
-        entities = {User.class, TranslationHistory.class, Favorite.class},
-        // CAMBIO: Versión 3 para aplicar los cambios de User (password/email único)
-        version = 3,
+        entities = {User.class, TranslationHistory.class, Favorite.class, TranslationCacheEntry.class,
+                PendingTranslation.class},
+        // CAMBIO: Versión 5 añade la cola de traducciones pendientes (sin conexión)
+        version = 5,
         exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
@@ -23,9 +31,37 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract UserDao userDao();
     public abstract TranslationHistoryDao translationHistoryDao();
     public abstract FavoriteDao favoriteDao();
+    public abstract TranslationCacheDao translationCacheDao();
+    public abstract PendingTranslationDao pendingTranslationDao();
 
     private static volatile AppDatabase INSTANCE;
 
+    // Solo crea la tabla nueva, así no se pierden usuarios, historial ni favoritos
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `translation_cache` ("
+                    + "`cacheKey` TEXT NOT NULL, `sourceLang` TEXT, `targetLang` TEXT, "
+                    + "`sourceText` TEXT, `translatedText` TEXT, `sizeBytes` INTEGER NOT NULL, "
+                    + "`createdAt` INTEGER NOT NULL, `lastAccessedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`cacheKey`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_translation_cache_lastAccessedAt` "
+                    + "ON `translation_cache` (`lastAccessedAt`)");
+        }
+    };
+
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `pending_translations` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `userId` TEXT, "
+                    + "`sourceText` TEXT, `sourceLang` TEXT, `targetLang` TEXT, `provisionalText` TEXT, "
+                    + "`createdAt` INTEGER NOT NULL, `attempts` INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_pending_translations_createdAt` "
+                    + "ON `pending_translations` (`createdAt`)");
+        }
+    };
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -35,6 +71,7 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "translation_db"
                             )
+                            .addMigrations(MIGRATION_3_4, MIGRATION_4_5)
                             // Esto evitará el crash borrando los datos viejos
                             .fallbackToDestructiveMigration()
                             .build();
@@ -0,0 +1,61 @@
+package com.example.snap.data.entities;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Traducción pendiente de hacer (o rehacer) con la API cuando vuelva la red.
+ */
+@Entity(tableName = "pending_translations", indices = {@Index(value = {"createdAt"})})
+public class PendingTranslation {
+    @PrimaryKey(autoGenerate = true)
+    private long id = 0;
+
+    private String userId; // null si no hay que guardar historial
+    private String sourceText;
+    private String sourceLang;
+    private String targetLang;
+    private String provisionalText; // Resultado de ML Kit mostrado mientras tanto (puede ser null)
+    private long createdAt;
+    private int attempts;
+
+    // Constructores
+    public PendingTranslation() {}
+
+    public PendingTranslation(String userId, String sourceText, String sourceLang, String targetLang,
+                              String provisionalText) {
+        this.userId = userId;
+        this.sourceText = sourceText;
+        this.sourceLang = sourceLang;
+        this.targetLang = targetLang;
+        this.provisionalText = provisionalText;
+        this.createdAt = System.currentTimeMillis();
+        this.attempts = 0;
+    }
+
+    // Getters y Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getSourceText() { return sourceText; }
+    public void setSourceText(String sourceText) { this.sourceText = sourceText; }
+
+    public String getSourceLang() { return sourceLang; }
+    public void setSourceLang(String sourceLang) { this.sourceLang = sourceLang; }
+
+    public String getTargetLang() { return targetLang; }
+    public void setTargetLang(String targetLang) { this.targetLang = targetLang; }
+
+    public String getProvisionalText() { return provisionalText; }
+    public void setProvisionalText(String provisionalText) { this.provisionalText = provisionalText; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+}
@@ -0,0 +1,62 @@
+package com.example.snap.data.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "translation_cache", indices = {@Index(value = {"lastAccessedAt"})})
+public class TranslationCacheEntry {
+    @PrimaryKey
+    @NonNull
+    private String cacheKey = ""; // Hash de (origen, destino, texto normalizado)
+
+    private String sourceLang;
+    private String targetLang;
+    private String sourceText;
+    private String translatedText;
+    private int sizeBytes;
+    private long createdAt;
+    private long lastAccessedAt;
+
+    // Constructores
+    public TranslationCacheEntry() {}
+
+    public TranslationCacheEntry(@NonNull String cacheKey, String sourceLang, String targetLang,
+                                 String sourceText, String translatedText, int sizeBytes) {
+        this.cacheKey = cacheKey;
+        this.sourceLang = sourceLang;
+        this.targetLang = targetLang;
+        this.sourceText = sourceText;
+        this.translatedText = translatedText;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessedAt = this.createdAt;
+    }
+
+    // Getters y Setters
+    @NonNull
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(@NonNull String cacheKey) { this.cacheKey = cacheKey; }
+
+    public String getSourceLang() { return sourceLang; }
+    public void setSourceLang(String sourceLang) { this.sourceLang = sourceLang; }
+
+    public String getTargetLang() { return targetLang; }
+    public void setTargetLang(String targetLang) { this.targetLang = targetLang; }
+
+    public String getSourceText() { return sourceText; }
+    public void setSourceText(String sourceText) { this.sourceText = sourceText; }
+
+    public String getTranslatedText() { return translatedText; }
+    public void setTranslatedText(String translatedText) { this.translatedText = translatedText; }
+
+    public int getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(int sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public long getLastAccessedAt() { return lastAccessedAt; }
+    public void setLastAccessedAt(long lastAccessedAt) { this.lastAccessedAt = lastAccessedAt; }
+}
@@ -5,21 +5,21 @@ import androidx.lifecycle.LiveData;
 import com.example.snap.data.database.AppDatabase;
 import com.example.snap.data.dao.FavoriteDao;
 import com.example.snap.data.entities.Favorite;
+import com.example.snap.services.TranslationScheduler;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class FavoriteRepository {
 
     private FavoriteDao favoriteDao;
-    private ExecutorService executorService;
+    private Executor executorService;
 
     public FavoriteRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         favoriteDao = database.favoriteDao();
-        // Usamos un pool de hilos para operaciones de base de datos
-        executorService = Executors.newSingleThreadExecutor();
+        // Las operaciones de BD van en orden, en el planificador compartido
+        executorService = TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE);
     }
 
     // Insertar un favorito en segundo plano
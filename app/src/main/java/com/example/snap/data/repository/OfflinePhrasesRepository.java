@@ -0,0 +1,81 @@
+package com.example.snap.data.repository;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.snap.SettingsActivity;
+import com.example.snap.data.dao.FavoriteDao;
+import com.example.snap.data.dao.TranslationHistoryDao;
+import com.example.snap.data.database.AppDatabase;
+import com.example.snap.data.entities.Favorite;
+import com.example.snap.data.entities.TranslationHistory;
+import com.example.snap.services.FavoritesPrefetcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Datos para FavoritesPrefetcher: favoritos e historial de Room, idiomas por
+ * defecto de Ajustes y la caché persistente donde se dejan las traducciones.
+ */
+public class OfflinePhrasesRepository implements FavoritesPrefetcher.Store {
+
+    private Application application;
+    private FavoriteDao favoriteDao;
+    private TranslationHistoryDao historyDao;
+    private TranslationCacheRepository cacheRepository;
+
+    public OfflinePhrasesRepository(Application application) {
+        this.application = application;
+        AppDatabase database = AppDatabase.getDatabase(application);
+        favoriteDao = database.favoriteDao();
+        historyDao = database.translationHistoryDao();
+        cacheRepository = new TranslationCacheRepository(application);
+    }
+
+    @Override
+    public List<String> getUserIds() {
+        Set<String> userIds = new LinkedHashSet<>(favoriteDao.getUserIds());
+        userIds.addAll(historyDao.getUserIds());
+        userIds.remove(null);
+        return new ArrayList<>(userIds);
+    }
+
+    @Override
+    public Set<String> getDefaultLanguages(String userId) {
+        SharedPreferences prefs = application.getSharedPreferences(
+                SettingsActivity.PREFS_NAME + "_" + userId, Context.MODE_PRIVATE);
+        Set<String> languages = new LinkedHashSet<>();
+        languages.add(prefs.getString(SettingsActivity.KEY_DEFAULT_TARGET_LANG, "en"));
+        languages.add(prefs.getString(SettingsActivity.KEY_DEFAULT_SOURCE_LANG, "es"));
+        return languages;
+    }
+
+    @Override
+    public List<FavoritesPrefetcher.Phrase> loadPhrases(String userId, int historyLimit) {
+        List<FavoritesPrefetcher.Phrase> phrases = new ArrayList<>();
+        for (Favorite favorite : favoriteDao.getFavoritesByUserSync(userId)) {
+            phrases.add(new FavoritesPrefetcher.Phrase(favorite.getOriginalText(), favorite.getSourceLang(),
+                    favorite.getTargetLang(), favorite.getTranslatedText()));
+        }
+        if (historyLimit > 0) {
+            for (TranslationHistory history : historyDao.getMostFrequent(userId, historyLimit)) {
+                phrases.add(new FavoritesPrefetcher.Phrase(history.getSourceText(), history.getSourceLanguage()));
+            }
+        }
+        return phrases;
+    }
+
+    @Override
+    public boolean isCached(String sourceLang, String targetLang, String text) {
+        return cacheRepository.contains(sourceLang, targetLang, text);
+    }
+
+    @Override
+    public void store(String sourceLang, String targetLang, String text, String translatedText) {
+        cacheRepository.store(sourceLang, targetLang, text, translatedText);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.snap.data.repository;
+
+import android.app.Application;
+
+import com.example.snap.data.dao.FavoriteDao;
+import com.example.snap.data.dao.PendingTranslationDao;
+import com.example.snap.data.dao.TranslationHistoryDao;
+import com.example.snap.data.database.AppDatabase;
+import com.example.snap.data.entities.PendingTranslation;
+import com.example.snap.data.entities.TranslationHistory;
+import com.example.snap.services.OfflineReplayer;
+import com.example.snap.services.TranslationScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Cola persistente (tabla pending_translations) de traducciones hechas sin
+ * conexión. OfflineReplayer la vacía al volver la red y aquí se actualizan
+ * historial, favoritos y caché con el resultado de la API.
+ */
+public class PendingTranslationRepository implements OfflineReplayer.Store {
+
+    private PendingTranslationDao dao;
+    private TranslationHistoryDao historyDao;
+    private FavoriteDao favoriteDao;
+    private TranslationCacheRepository cacheRepository;
+    private Executor executorService;
+
+    public PendingTranslationRepository(Application application) {
+        AppDatabase database = AppDatabase.getDatabase(application);
+        dao = database.pendingTranslationDao();
+        historyDao = database.translationHistoryDao();
+        favoriteDao = database.favoriteDao();
+        cacheRepository = new TranslationCacheRepository(application);
+        executorService = TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE);
+    }
+
+    /**
+     * Encola una traducción para pedirla a la API más tarde.
+     *
+     * @param userId          usuario cuyo historial hay que actualizar, o null si no se guarda
+     * @param provisionalText lo que se mostró mientras tanto (ML Kit), o null si nada
+     * @param onQueued        se ejecuta en el hilo de la BD una vez guardada (puede ser null)
+     */
+    public void enqueue(String userId, String text, String sourceLang, String targetLang, String provisionalText,
+            Runnable onQueued) {
+        executorService.execute(() -> {
+            dao.insert(new PendingTranslation(userId, text, sourceLang, targetLang, provisionalText));
+            if (onQueued != null) {
+                onQueued.run();
+            }
+        });
+    }
+
+    @Override
+    public List<OfflineReplayer.PendingItem> loadPending(int limit) {
+        List<OfflineReplayer.PendingItem> items = new ArrayList<>();
+        for (PendingTranslation pending : dao.getOldest(limit)) {
+            items.add(new OfflineReplayer.PendingItem(pending.getId(), pending.getUserId(),
+                    pending.getSourceText(), pending.getSourceLang(), pending.getTargetLang(),
+                    pending.getProvisionalText(), pending.getAttempts()));
+        }
+        return items;
+    }
+
+    @Override
+    public void onTranslated(OfflineReplayer.PendingItem item, String translatedText) {
+        cacheRepository.store(item.sourceLang, item.targetLang, item.text, translatedText);
+        if (item.userId == null) {
+            return;
+        }
+
+        if (item.provisionalText != null) {
+            // Se guardó la de ML Kit: la cambiamos por la de la API
+            historyDao.updateTranslation(item.userId, item.text, item.sourceLang, item.targetLang,
+                    item.provisionalText, translatedText);
+            favoriteDao.updateTranslation(item.userId, item.text, item.sourceLang, item.targetLang,
+                    item.provisionalText, translatedText);
+        } else {
+            // No hubo traducción: entra al historial ahora
+            historyDao.insert(new TranslationHistory(item.userId, item.text, translatedText,
+                    item.sourceLang, item.targetLang, "TEXT"));
+        }
+    }
+
+    @Override
+    public void remove(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            dao.deleteByIds(ids);
+        }
+    }
+
+    @Override
+    public void recordFailure(List<Long> ids) {
+        dao.incrementAttempts(ids);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.snap.data.repository;
+
+import android.app.Application;
+
+import com.example.snap.data.dao.TranslationCacheDao;
+import com.example.snap.data.database.AppDatabase;
+import com.example.snap.data.entities.TranslationCacheEntry;
+import com.example.snap.services.TranslationCache;
+import com.example.snap.services.TranslationScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caché persistente de traducciones (tabla translation_cache).
+ * Sobrevive a reinicios de la app y permite responder sin red a lo ya traducido.
+ */
+public class TranslationCacheRepository {
+
+    // Las traducciones caducan a los 30 días
+    private static final long TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final int MAX_ROWS = 5000;
+    private static final long MAX_BYTES = 2 * 1024 * 1024;
+    // Cada cuántas escrituras revisamos los límites
+    private static final int EVICTION_INTERVAL = 25;
+    // Cuántas filas borramos por pasada al superar un límite
+    private static final int EVICTION_BATCH = 100;
+
+    // Compartido entre instancias: la primera escritura del proceso ya dispara limpieza
+    private static final AtomicInteger writesSinceEviction = new AtomicInteger(EVICTION_INTERVAL);
+
+    private TranslationCacheDao dao;
+    private Executor executorService;
+    // Las búsquedas están en el camino de una traducción pedida por el usuario
+    private Executor lookupExecutor;
+
+    public interface LookupCallback {
+        /** translatedText es null si no hay entrada válida */
+        void onResult(String translatedText);
+    }
+
+    public TranslationCacheRepository(Application application) {
+        AppDatabase database = AppDatabase.getDatabase(application);
+        dao = database.translationCacheDao();
+        executorService = TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE);
+        lookupExecutor = TranslationScheduler.getInstance().executor(TranslationScheduler.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Busca una traducción en segundo plano. El callback se ejecuta en el hilo de la BD.
+     */
+    public void lookup(String sourceLang, String targetLang, String text, LookupCallback callback) {
+        lookupExecutor.execute(() -> {
+            String key = hashKey(sourceLang, targetLang, text);
+            TranslationCacheEntry entry = dao.getByKey(key);
+            long now = System.currentTimeMillis();
+
+            if (entry == null) {
+                callback.onResult(null);
+            } else if (now - entry.getCreatedAt() > TTL_MILLIS) {
+                dao.deleteByKey(key);
+                callback.onResult(null);
+            } else {
+                dao.touch(key, now);
+                callback.onResult(entry.getTranslatedText());
+            }
+        });
+    }
+
+    /**
+     * Indica si hay una entrada válida. Bloqueante: solo desde un hilo de fondo.
+     */
+    public boolean contains(String sourceLang, String targetLang, String text) {
+        TranslationCacheEntry entry = dao.getByKey(hashKey(sourceLang, targetLang, text));
+        return entry != null && System.currentTimeMillis() - entry.getCreatedAt() <= TTL_MILLIS;
+    }
+
+    public void store(String sourceLang, String targetLang, String text, String translatedText) {
+        if (text == null || translatedText == null) {
+            return;
+        }
+
+        executorService.execute(() -> {
+            String normalized = TranslationCache.normalize(text);
+            int sizeBytes = normalized.getBytes(StandardCharsets.UTF_8).length
+                    + translatedText.getBytes(StandardCharsets.UTF_8).length;
+
+            dao.insert(new TranslationCacheEntry(hashKey(sourceLang, targetLang, text),
+                    sourceLang, targetLang, normalized, translatedText, sizeBytes));
+
+            if (writesSinceEviction.incrementAndGet() >= EVICTION_INTERVAL) {
+                writesSinceEviction.set(0);
+                evict();
+            }
+        });
+    }
+
+    /**
+     * Borra lo caducado y, si aún se superan los límites de filas o bytes,
+     * las entradas menos usadas recientemente.
+     */
+    private void evict() {
+        dao.deleteCreatedBefore(System.currentTimeMillis() - TTL_MILLIS);
+
+        while (dao.count() > MAX_ROWS || dao.totalBytes() > MAX_BYTES) {
+            if (dao.deleteLeastRecentlyUsed(EVICTION_BATCH) == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * SHA-256 de (origen, destino, texto normalizado) en hexadecimal
+     */
+    public static String hashKey(String sourceLang, String targetLang, String text) {
+        String key = TranslationCache.keyFor(sourceLang, targetLang, text);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 siempre está disponible en Android, pero por si acaso usamos la clave tal cual
+            return key;
+        }
+    }
+}
@@ -5,18 +5,22 @@ import androidx.lifecycle.LiveData;
 import com.example.snap.data.database.AppDatabase;
 import com.example.snap.data.dao.TranslationHistoryDao;
 import com.example.snap.data.entities.TranslationHistory;
+import com.example.snap.services.TranslationScheduler;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class TranslationHistoryRepository {
     private TranslationHistoryDao dao;
-    private ExecutorService executorService;
+    private Executor executorService;
+
+    public interface TextsCallback {
+        void onResult(List<String> texts);
+    }
 
     public TranslationHistoryRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         dao = database.translationHistoryDao();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE);
     }
 
     public LiveData<List<TranslationHistory>> getHistoryByUserId(String userId) {
@@ -42,6 +46,13 @@ public class TranslationHistoryRepository {
         });
     }
 
+    /**
+     * Textos más repetidos del usuario desde sourceLang. El callback se ejecuta en el hilo de la BD.
+     */
+    public void getMostFrequentSourceTexts(String userId, String sourceLang, int limit, TextsCallback callback) {
+        executorService.execute(() -> callback.onResult(dao.getMostFrequentSourceTexts(userId, sourceLang, limit)));
+    }
+
     public void delete(TranslationHistory history) {
         executorService.execute(() -> dao.delete(history));
     }
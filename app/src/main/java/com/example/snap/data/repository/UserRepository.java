@@ -5,17 +5,17 @@ import androidx.lifecycle.LiveData;
 import com.example.snap.data.database.AppDatabase;
 import com.example.snap.data.dao.UserDao;
 import com.example.snap.data.entities.User;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.example.snap.services.TranslationScheduler;
+import java.util.concurrent.Executor;
 
 public class UserRepository {
     private UserDao userDao;
-    private ExecutorService executorService;
+    private Executor executorService;
 
     public UserRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         userDao = database.userDao();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = TranslationScheduler.getInstance().serialExecutor(TranslationScheduler.Priority.STORAGE);
     }
 
     public void register(User user) {
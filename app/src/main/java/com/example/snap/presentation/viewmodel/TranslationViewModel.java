@@ -6,14 +6,36 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
+import com.example.snap.SnapLinguaApplication;
 import com.example.snap.data.entities.Favorite;
 import com.example.snap.data.entities.TranslationHistory;
 import com.example.snap.data.entities.User;
 import com.example.snap.data.repository.FavoriteRepository;
+import com.example.snap.data.repository.PendingTranslationRepository;
+import com.example.snap.data.repository.TranslationCacheRepository;
 import com.example.snap.data.repository.TranslationHistoryRepository;
 import com.example.snap.data.repository.UserRepository;
+import com.example.snap.services.ApiClient;
+import com.example.snap.services.CachedTranslationEngine;
+import com.example.snap.services.CompositeTranslationEngine;
+import com.example.snap.services.ConnectivityMonitor;
+import com.example.snap.services.ConnectivitySource;
+import com.example.snap.services.LatestRequest;
+import com.example.snap.services.MLKitTranslationEngine;
 import com.example.snap.services.NetworkTranslationService;
-
+import com.example.snap.services.OfflineReplayer;
+import com.example.snap.services.SourceLanguageDetector;
+import com.example.snap.services.TranslationCache;
+import com.example.snap.services.TranslationEngine;
+import com.example.snap.services.TranslationHandle;
+import com.example.snap.services.TranslationPrefetcher;
+import com.example.snap.services.TranslationRouter;
+import com.example.snap.services.TranslationScheduler;
+
+import com.example.snap.utils.LanguageHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TranslationViewModel extends AndroidViewModel {
@@ -21,17 +43,56 @@ public class TranslationViewModel extends AndroidViewModel {
     private TranslationHistoryRepository historyRepository;
     private FavoriteRepository favoriteRepository;
     private UserRepository userRepository;
+    private TranslationCacheRepository cacheRepository;
+    private PendingTranslationRepository pendingRepository;
+    private OfflineReplayer offlineReplayer;
+    private ConnectivitySource connectivity;
 
     private NetworkTranslationService networkService;
+    // API + ML Kit con enrutado y caché: todas las traducciones pasan por aquí
+    private TranslationEngine engine;
+    // Resuelve el origen "auto" en el dispositivo antes de traducir
+    private SourceLanguageDetector languageDetector;
+    // Precarga de frases rápidas e historial frecuente al cambiar de idioma
+    private TranslationPrefetcher prefetcher;
     private MutableLiveData<String> currentTranslation;
 
+    // Cuántos textos del historial se precargan además de las frases rápidas
+    private static final int PREFETCH_HISTORY_LIMIT = 10;
+
+    // Solo cuenta la última petición de cada pantalla; las anteriores se cancelan
+    private final LatestRequest textRequests = new LatestRequest();
+    private final LatestRequest frameRequests = new LatestRequest();
+
     public TranslationViewModel(Application application) {
         super(application);
         historyRepository = new TranslationHistoryRepository(application);
         favoriteRepository = new FavoriteRepository(application);
         userRepository = new UserRepository(application);
+        cacheRepository = new TranslationCacheRepository(application);
+        pendingRepository = new PendingTranslationRepository(application);
+        offlineReplayer = ((SnapLinguaApplication) application).getOfflineReplayer();
+        connectivity = ConnectivityMonitor.getInstance(application);
 
         networkService = new NetworkTranslationService(application);
+        engine = new CachedTranslationEngine(
+                new CompositeTranslationEngine(networkService, MLKitTranslationEngine.getInstance(),
+                        TranslationRouter.getInstance()),
+                TranslationCache.getInstance(), new CachedTranslationEngine.PersistentCache() {
+                    @Override
+                    public void lookup(String sourceLang, String targetLang, String text, LookupCallback callback) {
+                        cacheRepository.lookup(sourceLang, targetLang, text, callback::onResult);
+                    }
+
+                    @Override
+                    public void store(String sourceLang, String targetLang, String text, String translatedText) {
+                        cacheRepository.store(sourceLang, targetLang, text, translatedText);
+                    }
+                });
+        // La precarga va directa a la API, como la de favoritos: lo que diera ML Kit
+        // acabaría en las cachés como si fuera de ella
+        prefetcher = new TranslationPrefetcher(networkService, TranslationCache.getInstance());
+        languageDetector = SourceLanguageDetector.getInstance();
         currentTranslation = new MutableLiveData<>();
     }
 
@@ -77,23 +138,229 @@ public class TranslationViewModel extends AndroidViewModel {
     }
 
     public void translateText(String text, String sourceLang, String targetLang, String userId) {
+        TranslationHandle handle = new TranslationHandle();
+        textRequests.replace(handle);
         showLoading();
-        networkService.translateText(text, sourceLang, targetLang, new NetworkTranslationService.TranslationCallback() {
-            @Override
-            public void onSuccess(String translatedText) {
-                currentTranslation.postValue(translatedText);
 
-                // Solo intentamos guardar si hay un usuario logueado
-                if (userId != null) {
-                    saveToHistory(userId, text, translatedText, sourceLang, targetLang, "TEXT");
-                }
+        // 0. Con "Detectar idioma" se identifica en el dispositivo; así cachés,
+        // enrutado e historial trabajan con el idioma real
+        languageDetector.resolve(text, sourceLang, detectedLang -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (SourceLanguageDetector.isAuto(sourceLang) && detectedLang.equals(targetLang)) {
+                // Ya está en el idioma de destino
+                currentTranslation.postValue(text);
+                return;
             }
+            translateResolved(handle, text, detectedLang, targetLang, userId);
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                currentTranslation.postValue("Error: " + error);
+    private void translateResolved(TranslationHandle handle, String text, String sourceLang, String targetLang,
+            String userId) {
+        // Caché en memoria, Room y, si no está, la red. Los textos largos llegan por
+        // partes: se van mostrando según se completan
+        TranslationHandle engineHandle = engine.translateStreaming(text, sourceLang, targetLang,
+                TranslationScheduler.Priority.INTERACTIVE, new TranslationEngine.StreamingCallback() {
+                    @Override
+                    public void onPartial(String translatedSoFar) {
+                        if (!handle.isCancelled()) {
+                            currentTranslation.postValue(translatedSoFar);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(String translatedText) {
+                        onSuccess(translatedText, false);
+                    }
+
+                    @Override
+                    public void onSuccess(String translatedText, boolean fromApi) {
+                        // Lo de ML Kit se muestra, pero las cachés no lo guardan: se encola para
+                        // repetirlo con la API (sin red, con la API caída o si cayó a medias)
+                        if (!fromApi) {
+                            enqueueForReplay(text, sourceLang, targetLang, userId, translatedText);
+                        }
+                        if (!handle.isCancelled()) {
+                            onTranslationReady(text, translatedText, sourceLang, targetLang, userId);
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        boolean offline = connectivity.getState() == TranslationRouter.Connectivity.OFFLINE;
+                        if (offline || NetworkTranslationService.isRetryableLater(error)) {
+                            enqueueForReplay(text, sourceLang, targetLang, userId, null);
+                            if (!handle.isCancelled()) {
+                                currentTranslation.postValue(offline
+                                        ? "Error: Sin conexión. Se traducirá al recuperar la red"
+                                        : "Error: Servicio no disponible. Se traducirá más tarde");
+                            }
+                            return;
+                        }
+                        if (!handle.isCancelled()) {
+                            currentTranslation.postValue("Error: " + error);
+                        }
+                    }
+                });
+        handle.onCancel(engineHandle::cancel);
+    }
+
+    /**
+     * Guarda la petición para repetirla con la API. Solo se pasa el usuario si
+     * guarda historial: es donde irá el resultado (o donde se cambiará el
+     * provisional de ML Kit).
+     *
+     * @param provisionalText lo que se mostró mientras tanto, o null si nada
+     */
+    private void enqueueForReplay(String text, String sourceLang, String targetLang, String userId,
+            String provisionalText) {
+        String historyUserId = userId != null && isHistoryEnabled(userId) ? userId : null;
+        pendingRepository.enqueue(historyUserId, text, sourceLang, targetLang, provisionalText, () -> {
+            // Con red (API caída, corte breve) no hay cambio de red que lo dispare
+            if (offlineReplayer != null && connectivity.getState() == TranslationRouter.Connectivity.ONLINE) {
+                offlineReplayer.replay();
+            }
+        });
+    }
+
+    private void onTranslationReady(String text, String translatedText, String sourceLang, String targetLang,
+            String userId) {
+        currentTranslation.postValue(translatedText);
+
+        // Solo intentamos guardar si hay un usuario logueado
+        if (userId != null) {
+            saveToHistory(userId, text, translatedText, sourceLang, targetLang, "TEXT");
+        }
+    }
+
+    /**
+     * Traduce varios bloques en una sola ronda de red (usado por la cámara).
+     * No toca currentTranslation para no pisar la pantalla de texto.
+     * Un lote nuevo cancela el del frame anterior si aún no había terminado.
+     */
+    public TranslationHandle translateBatch(List<String> texts, String requestedSourceLang, String targetLang,
+            String userId, TranslationEngine.BatchCallback callback) {
+        TranslationHandle handle = new TranslationHandle();
+        frameRequests.replace(handle);
+
+        // Un frame suele estar en un solo idioma: basta con identificar el bloque más largo,
+        // que además cambia poco entre frames y acierta en la caché del detector
+        languageDetector.resolve(longest(texts), requestedSourceLang, sourceLang -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (SourceLanguageDetector.isAuto(requestedSourceLang) && sourceLang.equals(targetLang)) {
+                callback.onSuccess(new ArrayList<>(texts));
+                return;
             }
+            TranslationHandle batchHandle = translateBatchResolved(texts, sourceLang, targetLang, userId, callback);
+            handle.onCancel(batchHandle::cancel);
         });
+        return handle;
+    }
+
+    private TranslationHandle translateBatchResolved(List<String> texts, String sourceLang, String targetLang,
+            String userId, TranslationEngine.BatchCallback callback) {
+        return engine.translateBatch(texts, sourceLang, targetLang,
+                TranslationScheduler.Priority.CAMERA, new TranslationEngine.BatchCallback() {
+                    @Override
+                    public void onSuccess(List<String> translatedTexts) {
+                        if (userId != null) {
+                            for (int i = 0; i < texts.size(); i++) {
+                                String translated = translatedTexts.get(i);
+                                if (!translated.isEmpty()) {
+                                    saveToHistory(userId, texts.get(i), translated, sourceLang, targetLang,
+                                            "CAMERA");
+                                }
+                            }
+                        }
+                        callback.onSuccess(translatedTexts);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+                });
+    }
+
+    private static String longest(List<String> texts) {
+        String longest = "";
+        for (String text : texts) {
+            if (text != null && text.length() > longest.length()) {
+                longest = text;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Traducción suelta sin tocar currentTranslation ni el historial (p. ej. la
+     * pantalla de voz, que pinta el resultado ella misma). Cancela la anterior.
+     */
+    public TranslationHandle translate(String text, String sourceLang, String targetLang,
+            TranslationEngine.Callback callback) {
+        TranslationHandle handle = new TranslationHandle();
+        textRequests.replace(handle);
+        languageDetector.resolve(text, sourceLang, detectedLang -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            TranslationHandle engineHandle = engine.translate(text, detectedLang, targetLang,
+                    TranslationScheduler.Priority.INTERACTIVE, callback);
+            handle.onCancel(engineHandle::cancel);
+        });
+        return handle;
+    }
+
+    /**
+     * Al cambiar de par, precarga en segundo plano las frases rápidas del idioma
+     * origen y lo que el usuario más traduce desde él, para que el siguiente
+     * toque se responda desde la caché en memoria. Sin conexión no se hace nada:
+     * la precarga solo usa la API.
+     */
+    public void prefetchForLanguages(String sourceLang, String targetLang, String userId) {
+        // Con "Detectar idioma" no se sabe de qué idioma precargar
+        if (connectivity.getState() == TranslationRouter.Connectivity.OFFLINE
+                || SourceLanguageDetector.isAuto(sourceLang)) {
+            prefetcher.cancel();
+            return;
+        }
+
+        List<String> texts = new ArrayList<>(Arrays.asList(LanguageHelper.getQuickPhrases(sourceLang)));
+        if (userId == null) {
+            prefetch(texts, sourceLang, targetLang);
+            return;
+        }
+        historyRepository.getMostFrequentSourceTexts(userId, sourceLang, PREFETCH_HISTORY_LIMIT, frequent -> {
+            texts.addAll(frequent);
+            prefetch(texts, sourceLang, targetLang);
+        });
+    }
+
+    private void prefetch(List<String> texts, String sourceLang, String targetLang) {
+        // También a Room, para que sirva tras reiniciar la app
+        prefetcher.prefetch(texts, sourceLang, targetLang,
+                (text, translatedText) -> cacheRepository.store(sourceLang, targetLang, text, translatedText));
+    }
+
+    /**
+     * Indica si queda presupuesto de API para traducir un frame de cámara de
+     * unos estimatedChars caracteres. Si no, mejor ni hacer el OCR.
+     */
+    public boolean hasCameraTranslationCapacity(int estimatedChars) {
+        return ApiClient.getRateLimiter().hasCapacity(TranslationScheduler.Priority.CAMERA, estimatedChars);
+    }
+
+    /**
+     * Cancela las traducciones en curso (al salir de la pantalla o limpiar el texto)
+     */
+    public void cancelPendingTranslations() {
+        textRequests.cancel();
+        frameRequests.cancel();
+        prefetcher.cancel();
     }
 
     private void saveToHistory(String userId, String sourceText, String translatedText,
@@ -104,10 +371,7 @@ public class TranslationViewModel extends AndroidViewModel {
         }
 
         // Verificar ajuste "Guardar historial"
-        android.content.SharedPreferences prefs = getApplication().getSharedPreferences(
-                com.example.snap.SettingsActivity.PREFS_NAME + "_" + userId, android.content.Context.MODE_PRIVATE);
-
-        if (!prefs.getBoolean(com.example.snap.SettingsActivity.KEY_SAVE_HISTORY, true)) {
+        if (!isHistoryEnabled(userId)) {
             android.util.Log.d("TranslationViewModel", "Guardado de historial desactivado por usuario");
             return;
         }
@@ -123,6 +387,12 @@ public class TranslationViewModel extends AndroidViewModel {
         historyRepository.insert(history);
     }
 
+    private boolean isHistoryEnabled(String userId) {
+        android.content.SharedPreferences prefs = getApplication().getSharedPreferences(
+                com.example.snap.SettingsActivity.PREFS_NAME + "_" + userId, android.content.Context.MODE_PRIVATE);
+        return prefs.getBoolean(com.example.snap.SettingsActivity.KEY_SAVE_HISTORY, true);
+    }
+
     public void addToFavorites(String userId, String original, String translated, String sLang, String tLang,
             boolean isExp) {
         // También es recomendable validar aquí si el userId es nulo según tu lógica de
@@ -184,6 +454,19 @@ public class TranslationViewModel extends AndroidViewModel {
         }
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelPendingTranslations();
+        // Resumen de costes de red (conexiones nuevas vs reutilizadas, TLS, primer byte)
+        android.util.Log.d("TranslationViewModel", "Red: " + ApiClient.getTimingStats());
+        android.util.Log.d("TranslationViewModel", "Colas: " + TranslationScheduler.getInstance());
+        android.util.Log.d("TranslationViewModel", "Presupuesto: " + ApiClient.getRateLimiter());
+        android.util.Log.d("TranslationViewModel", "Enrutado: " + TranslationRouter.getInstance());
+        android.util.Log.d("TranslationViewModel", "Precarga: " + prefetcher);
+        android.util.Log.d("TranslationViewModel", "Detección de idioma: " + languageDetector);
+    }
+
     private void showLoading() {
         currentTranslation.setValue("Traduciendo...");
     }
@@ -1,19 +1,110 @@
 package com.example.snap.services;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Cliente HTTP único para todo el proceso. Todas las pantallas comparten
+ * el pool de conexiones, así el coste de TCP + TLS se paga una sola vez.
+ */
 public class ApiClient {
     private static final String BASE_URL = "https://translate.googleapis.com/";
-    private static Retrofit retrofit = null;
 
-    public static TranslationApiService getApiService() {
-        if (retrofit == null) {
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
+    // Tiempos pensados para traducción interactiva: fallar pronto antes que colgar la UI
+    private static final long CONNECT_TIMEOUT_SECONDS = 5;
+    private static final long READ_TIMEOUT_SECONDS = 10;
+    private static final long WRITE_TIMEOUT_SECONDS = 10;
+    private static final long CALL_TIMEOUT_SECONDS = 15;
+
+    // Conexiones abiertas que se reutilizan entre pantallas
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // Ping de HTTP/2 para que la conexión no se cierre entre traducciones
+    private static final long PING_INTERVAL_SECONDS = 30;
+
+    // Fallos seguidos que abren el circuito y tiempo hasta volver a probar la API
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_MILLIS = 30_000;
+
+    // Presupuesto de la API para toda la app (sustituye al retardo fijo de la cámara)
+    private static final double RATE_REQUESTS_PER_SECOND = 4;
+    private static final int RATE_REQUEST_BURST = 8;
+    private static final double RATE_CHARS_PER_SECOND = 5000;
+    private static final int RATE_CHAR_BURST = 10_000;
+
+    private static OkHttpClient httpClient = null;
+    private static TranslationApiService apiService = null;
+    private static CircuitBreaker circuitBreaker = null;
+    private static RateLimiter rateLimiter = null;
+
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            // OkHttp añade "Accept-Encoding: gzip" y descomprime la respuesta de forma transparente
+            httpClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .callTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .pingInterval(PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                    .retryOnConnectionFailure(true)
+                    .eventListenerFactory(NetworkTimingListener.FACTORY)
                     .build();
         }
+        return httpClient;
+    }
+
+    public static synchronized TranslationApiService getApiService() {
+        if (apiService == null) {
+            // El proxy de Retrofit se crea una sola vez y se comparte
+            apiService = createApiService(BASE_URL);
+        }
+        return apiService;
+    }
+
+    /**
+     * Proxy con el mismo cliente compartido pero contra otra URL base
+     * (p. ej. el servidor local de las pruebas de carga).
+     */
+    static TranslationApiService createApiService(String baseUrl) {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(getHttpClient())
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
         return retrofit.create(TranslationApiService.class);
     }
-}
\ No newline at end of file
+
+    /**
+     * Circuit breaker compartido: si la API falla en una pantalla, las demás
+     * tampoco la esperan.
+     */
+    public static synchronized CircuitBreaker getCircuitBreaker() {
+        if (circuitBreaker == null) {
+            circuitBreaker = new CircuitBreaker(CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_MILLIS);
+        }
+        return circuitBreaker;
+    }
+
+    public static synchronized RateLimiter getRateLimiter() {
+        if (rateLimiter == null) {
+            rateLimiter = new RateLimiter(RATE_REQUESTS_PER_SECOND, RATE_REQUEST_BURST,
+                    RATE_CHARS_PER_SECOND, RATE_CHAR_BURST);
+        }
+        return rateLimiter;
+    }
+
+    /**
+     * Tiempos acumulados de DNS, conexión, TLS y primera respuesta de todas las llamadas
+     */
+    public static NetworkTimingListener.Stats getTimingStats() {
+        return NetworkTimingListener.getStats();
+    }
+}
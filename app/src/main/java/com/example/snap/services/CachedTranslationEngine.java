@@ -0,0 +1,225 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Única capa de caché de las traducciones: responde desde la TranslationCache
+ * en memoria y, si falla, desde la caché persistente (Room en la app) antes
+ * de llamar al motor envuelto.
+ *
+ * Solo se guarda lo que viene de la API: lo de ML Kit es de peor calidad y no
+ * debe servirse después como si fuera de ella.
+ */
+public class CachedTranslationEngine implements TranslationEngine {
+
+    /** Segundo nivel, más lento pero que sobrevive a reinicios */
+    public interface PersistentCache {
+        interface LookupCallback {
+            /** translatedText es null si no hay entrada válida */
+            void onResult(String translatedText);
+        }
+
+        /** Busca en segundo plano; el callback puede llegar en cualquier hilo */
+        void lookup(String sourceLang, String targetLang, String text, LookupCallback callback);
+
+        void store(String sourceLang, String targetLang, String text, String translatedText);
+    }
+
+    private final TranslationEngine delegate;
+    private final TranslationCache cache;
+    private final PersistentCache persistent;
+
+    public CachedTranslationEngine(TranslationEngine delegate, TranslationCache cache) {
+        this(delegate, cache, null);
+    }
+
+    /**
+     * @param persistent puede ser null (solo memoria)
+     */
+    public CachedTranslationEngine(TranslationEngine delegate, TranslationCache cache, PersistentCache persistent) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.persistent = persistent;
+    }
+
+    @Override
+    public String getName() {
+        return "cache+" + delegate.getName();
+    }
+
+    @Override
+    public boolean supports(String sourceLang, String targetLang) {
+        return delegate.supports(sourceLang, targetLang);
+    }
+
+    @Override
+    public boolean isReady(String sourceLang, String targetLang) {
+        return delegate.isReady(sourceLang, targetLang);
+    }
+
+    @Override
+    public TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+            Callback callback) {
+        String cached = cache.get(sourceLang, targetLang, text);
+        if (cached != null) {
+            callback.onSuccess(cached, true);
+            return TranslationHandle.completed();
+        }
+        Callback storing = storing(text, sourceLang, targetLang, callback);
+        return lookupThen(text, sourceLang, targetLang, callback,
+                () -> delegate.translate(text, sourceLang, targetLang, priority, storing));
+    }
+
+    @Override
+    public TranslationHandle translateStreaming(String text, String sourceLang, String targetLang,
+            Priority priority, StreamingCallback callback) {
+        String cached = cache.get(sourceLang, targetLang, text);
+        if (cached != null) {
+            callback.onSuccess(cached, true);
+            return TranslationHandle.completed();
+        }
+
+        Callback storing = storing(text, sourceLang, targetLang, callback);
+        return lookupThen(text, sourceLang, targetLang, callback,
+                () -> delegate.translateStreaming(text, sourceLang, targetLang, priority, new StreamingCallback() {
+                    @Override
+                    public void onPartial(String translatedSoFar) {
+                        callback.onPartial(translatedSoFar);
+                    }
+
+                    @Override
+                    public void onSuccess(String translatedText) {
+                        storing.onSuccess(translatedText);
+                    }
+
+                    @Override
+                    public void onSuccess(String translatedText, boolean fromApi) {
+                        storing.onSuccess(translatedText, fromApi);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        storing.onError(error);
+                    }
+                }));
+    }
+
+    /**
+     * Solo se pide al motor lo que no está en memoria; el resultado se
+     * recompone en el orden de entrada. Los lotes (frames de la cámara) no
+     * pasan por la caché persistente.
+     */
+    @Override
+    public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+            Priority priority, BatchCallback callback) {
+        String[] results = new String[texts.size()];
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            results[i] = text == null || text.trim().isEmpty() ? "" : cache.get(sourceLang, targetLang, text);
+            if (results[i] == null) {
+                missingIndexes.add(i);
+                missing.add(text);
+            }
+        }
+        if (missing.isEmpty()) {
+            callback.onSuccess(toList(results), true);
+            return TranslationHandle.completed();
+        }
+
+        return delegate.translateBatch(missing, sourceLang, targetLang, priority, new BatchCallback() {
+            @Override
+            public void onSuccess(List<String> translatedTexts) {
+                // Sin saber de dónde viene, no se guarda
+                onSuccess(translatedTexts, false);
+            }
+
+            @Override
+            public void onSuccess(List<String> translatedTexts, boolean fromApi) {
+                for (int i = 0; i < missing.size(); i++) {
+                    String translated = translatedTexts.get(i);
+                    results[missingIndexes.get(i)] = translated;
+                    if (fromApi && translated != null && !translated.isEmpty()) {
+                        cache.put(sourceLang, targetLang, missing.get(i), translated);
+                    }
+                }
+                // Lo que salió de memoria es de la API; el lote es de la API solo si lo pedido también
+                callback.onSuccess(toList(results), fromApi);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    private interface Start {
+        TranslationHandle start();
+    }
+
+    /**
+     * Consulta la caché persistente y, si no está, arranca el motor. El handle
+     * devuelto cancela lo que esté en curso en ese momento.
+     */
+    private TranslationHandle lookupThen(String text, String sourceLang, String targetLang, Callback callback,
+            Start start) {
+        if (persistent == null || text == null || text.trim().isEmpty()) {
+            return start.start();
+        }
+
+        TranslationHandle handle = new TranslationHandle();
+        persistent.lookup(sourceLang, targetLang, text, stored -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (stored != null) {
+                // Solo se persiste lo de la API; se sube a memoria sin volver a escribirlo en disco
+                cache.put(sourceLang, targetLang, text, stored);
+                callback.onSuccess(stored, true);
+                return;
+            }
+            TranslationHandle engineHandle = start.start();
+            handle.onCancel(engineHandle::cancel);
+        });
+        return handle;
+    }
+
+    private Callback storing(String text, String sourceLang, String targetLang, Callback callback) {
+        return new Callback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                // Sin saber de dónde viene, no se guarda
+                onSuccess(translatedText, false);
+            }
+
+            @Override
+            public void onSuccess(String translatedText, boolean fromApi) {
+                if (fromApi) {
+                    cache.put(sourceLang, targetLang, text, translatedText);
+                    if (persistent != null) {
+                        persistent.store(sourceLang, targetLang, text, translatedText);
+                    }
+                }
+                callback.onSuccess(translatedText, fromApi);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        };
+    }
+
+    private static List<String> toList(String[] results) {
+        List<String> list = new ArrayList<>(results.length);
+        for (String result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+}
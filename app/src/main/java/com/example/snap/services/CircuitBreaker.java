@@ -0,0 +1,107 @@
+package com.example.snap.services;
+
+/**
+ * Circuit breaker para la API de traducción.
+ * Tras varios fallos seguidos se abre y las peticiones fallan al momento (la
+ * cámara cae directamente a ML Kit). Pasado un tiempo deja pasar una sola
+ * petición de prueba: si va bien se cierra, si falla vuelve a abrirse.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private long probeStartedAt = 0;
+    private boolean probeInFlight = false;
+    private long rejectedCount = 0;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this(failureThreshold, openDurationMillis, Clock.SYSTEM);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true si la petición puede ir a la red. En semiabierto solo se
+     * concede una prueba a la vez.
+     */
+    public synchronized boolean allowRequest() {
+        long now = clock.nowMillis();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAt < openDurationMillis) {
+                    rejectedCount++;
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return startProbe(now);
+            default:
+                // Si la prueba anterior se perdió (p. ej. se canceló), se permite otra
+                if (probeInFlight && now - probeStartedAt < openDurationMillis) {
+                    rejectedCount++;
+                    return false;
+                }
+                return startProbe(now);
+        }
+    }
+
+    private boolean startProbe(long now) {
+        probeInFlight = true;
+        probeStartedAt = now;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * La petición no llegó a la API (p. ej. se descartó en la cola): ni éxito
+     * ni fallo, pero si era la prueba del semiabierto se permite otra.
+     */
+    public synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.nowMillis();
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Peticiones rechazadas sin llegar a la red */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{state=" + state + ", failures=" + consecutiveFailures
+                + ", rejected=" + rejectedCount + "}";
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.snap.services;
+
+/**
+ * Fuente de tiempo en milisegundos (monótona). Se inyecta para poder
+ * simular el paso del tiempo en los tests.
+ */
+public interface Clock {
+
+    Clock SYSTEM = () -> System.nanoTime() / 1_000_000L;
+
+    long nowMillis();
+}
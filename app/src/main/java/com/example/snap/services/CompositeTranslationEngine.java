@@ -0,0 +1,226 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.List;
+
+/**
+ * Combina un motor remoto (la API) y uno local (ML Kit):
+ * 1. TranslationRouter elige, según latencia y conectividad, por cuál empezar.
+ * 2. Si el elegido falla, se prueba el otro cuando puede traducir el par.
+ * 3. Con el modelo local listo, si el remoto tarda más de su p90 se lanza el
+ *    local en paralelo y gana la primera respuesta (HedgedRequest).
+ * El respaldo y la cobertura son solo para lo que espera el usuario
+ * (INTERACTIVE y CAMERA); la precarga y el almacenamiento van únicamente al
+ * motor elegido, sin duplicar trabajo.
+ *
+ * El resultado se entrega con onSuccess(texto, fromApi) para que quien guarde
+ * en caché sepa si vino de la API o de ML Kit.
+ */
+public class CompositeTranslationEngine implements TranslationEngine {
+
+    // Nunca lanzar el respaldo antes de esto, aunque la API vaya muy rápida
+    private static final long MIN_HEDGE_DELAY_MS = 150;
+
+    private final TranslationEngine remote;
+    private final TranslationEngine onDevice;
+    private final TranslationRouter router;
+
+    // Espera antes de lanzar el motor local en paralelo; -1 = usar el p90 observado de la API
+    private volatile long hedgeThresholdMillis = -1;
+
+    public CompositeTranslationEngine(TranslationEngine remote, TranslationEngine onDevice,
+            TranslationRouter router) {
+        this.remote = remote;
+        this.onDevice = onDevice;
+        this.router = router;
+    }
+
+    /**
+     * Fija cuánto esperar al motor remoto antes de lanzar el local en paralelo.
+     * Con -1 se usa el p90 reciente de la API.
+     */
+    public void setHedgeThresholdMillis(long millis) {
+        this.hedgeThresholdMillis = millis;
+    }
+
+    private long hedgeDelay() {
+        long threshold = hedgeThresholdMillis;
+        if (threshold >= 0) {
+            return threshold;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, router.getApiLatencyPercentile(0.9));
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName() + "|" + onDevice.getName();
+    }
+
+    @Override
+    public boolean supports(String sourceLang, String targetLang) {
+        return remote.supports(sourceLang, targetLang) || onDevice.supports(sourceLang, targetLang);
+    }
+
+    @Override
+    public boolean isReady(String sourceLang, String targetLang) {
+        return remote.isReady(sourceLang, targetLang) || onDevice.isReady(sourceLang, targetLang);
+    }
+
+    private TranslationRouter.Route route(String sourceLang, String targetLang) {
+        return router.choose(onDevice.supports(sourceLang, targetLang), onDevice.isReady(sourceLang, targetLang));
+    }
+
+    @Override
+    public TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+            Callback callback) {
+        HedgedRequest.Attempt<Result<String>> remoteAttempt =
+                cb -> remote.translate(text, sourceLang, targetLang, priority, toCallback(cb, true));
+        HedgedRequest.Attempt<Result<String>> onDeviceAttempt =
+                cb -> onDevice.translate(text, sourceLang, targetLang, priority, toCallback(cb, false));
+        return run(sourceLang, targetLang, priority, remoteAttempt, onDeviceAttempt, fromCallback(callback));
+    }
+
+    @Override
+    public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+            Priority priority, BatchCallback callback) {
+        HedgedRequest.Attempt<Result<List<String>>> remoteAttempt =
+                cb -> remote.translateBatch(texts, sourceLang, targetLang, priority, toBatchCallback(cb, true));
+        HedgedRequest.Attempt<Result<List<String>>> onDeviceAttempt =
+                cb -> onDevice.translateBatch(texts, sourceLang, targetLang, priority, toBatchCallback(cb, false));
+        return run(sourceLang, targetLang, priority, remoteAttempt, onDeviceAttempt,
+                new HedgedRequest.Callback<Result<List<String>>>() {
+                    @Override
+                    public void onSuccess(Result<List<String>> result) {
+                        callback.onSuccess(result.value, result.fromApi);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+                });
+    }
+
+    /**
+     * Los parciales solo llegan del motor remoto (el local traduce de una vez),
+     * así que aquí no se cubre con el local: solo se usa como respaldo.
+     */
+    @Override
+    public TranslationHandle translateStreaming(String text, String sourceLang, String targetLang,
+            Priority priority, StreamingCallback callback) {
+        HedgedRequest.Attempt<Result<String>> onDeviceAttempt =
+                cb -> onDevice.translate(text, sourceLang, targetLang, priority, toCallback(cb, false));
+        HedgedRequest.Attempt<Result<String>> remoteAttempt = cb -> remote.translateStreaming(text, sourceLang,
+                targetLang, priority, toStreamingCallback(cb, callback));
+
+        if (route(sourceLang, targetLang) == TranslationRouter.Route.ON_DEVICE) {
+            if (!isUserFacing(priority)) {
+                return onDeviceAttempt.start(fromCallback(callback));
+            }
+            return HedgedRequest.withFallback(onDeviceAttempt, remoteAttempt, fromCallback(callback));
+        }
+        if (!isUserFacing(priority) || !onDevice.supports(sourceLang, targetLang)) {
+            return remoteAttempt.start(fromCallback(callback));
+        }
+        return HedgedRequest.withFallback(remoteAttempt, onDeviceAttempt, fromCallback(callback));
+    }
+
+    /** Alguien espera el resultado: merece respaldo y cobertura */
+    private static boolean isUserFacing(Priority priority) {
+        return priority == Priority.INTERACTIVE || priority == Priority.CAMERA;
+    }
+
+    private <T> TranslationHandle run(String sourceLang, String targetLang, Priority priority,
+            HedgedRequest.Attempt<T> remoteAttempt, HedgedRequest.Attempt<T> onDeviceAttempt,
+            HedgedRequest.Callback<T> callback) {
+        boolean onDeviceFirst = route(sourceLang, targetLang) == TranslationRouter.Route.ON_DEVICE;
+        if (!isUserFacing(priority)) {
+            // Solo el motor elegido: la precarga no debe gastar ML Kit ni API por duplicado
+            return (onDeviceFirst ? onDeviceAttempt : remoteAttempt).start(callback);
+        }
+        if (onDeviceFirst) {
+            return HedgedRequest.withFallback(onDeviceAttempt, remoteAttempt, callback);
+        }
+        if (onDevice.isReady(sourceLang, targetLang)) {
+            return HedgedRequest.start(remoteAttempt, onDeviceAttempt, hedgeDelay(), callback);
+        }
+        if (onDevice.supports(sourceLang, targetLang)) {
+            return HedgedRequest.withFallback(remoteAttempt, onDeviceAttempt, callback);
+        }
+        return remoteAttempt.start(callback);
+    }
+
+    /** Resultado de un intento junto con el motor que lo dio */
+    private static final class Result<T> {
+        final T value;
+        final boolean fromApi;
+
+        Result(T value, boolean fromApi) {
+            this.value = value;
+            this.fromApi = fromApi;
+        }
+    }
+
+    private static Callback toCallback(HedgedRequest.Callback<Result<String>> cb, boolean fromApi) {
+        return new Callback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                cb.onSuccess(new Result<>(translatedText, fromApi));
+            }
+
+            @Override
+            public void onError(String error) {
+                cb.onError(error);
+            }
+        };
+    }
+
+    private static BatchCallback toBatchCallback(HedgedRequest.Callback<Result<List<String>>> cb, boolean fromApi) {
+        return new BatchCallback() {
+            @Override
+            public void onSuccess(List<String> translatedTexts) {
+                cb.onSuccess(new Result<>(translatedTexts, fromApi));
+            }
+
+            @Override
+            public void onError(String error) {
+                cb.onError(error);
+            }
+        };
+    }
+
+    private static StreamingCallback toStreamingCallback(HedgedRequest.Callback<Result<String>> cb,
+            StreamingCallback partials) {
+        return new StreamingCallback() {
+            @Override
+            public void onPartial(String translatedSoFar) {
+                partials.onPartial(translatedSoFar);
+            }
+
+            @Override
+            public void onSuccess(String translatedText) {
+                cb.onSuccess(new Result<>(translatedText, true));
+            }
+
+            @Override
+            public void onError(String error) {
+                cb.onError(error);
+            }
+        };
+    }
+
+    private static HedgedRequest.Callback<Result<String>> fromCallback(Callback callback) {
+        return new HedgedRequest.Callback<Result<String>>() {
+            @Override
+            public void onSuccess(Result<String> result) {
+                callback.onSuccess(result.value, result.fromApi);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        };
+    }
+}
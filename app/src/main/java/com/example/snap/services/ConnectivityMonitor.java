@@ -0,0 +1,94 @@
+package com.example.snap.services;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sigue el estado de la red por defecto y se lo pasa al TranslationRouter
+ * (y a quien se registre como listener).
+ */
+public class ConnectivityMonitor implements ConnectivitySource {
+
+    // Por debajo de este ancho de banda de bajada tratamos la red como limitada
+    private static final int CONSTRAINED_DOWNSTREAM_KBPS = 1000;
+
+    private static volatile ConnectivityMonitor INSTANCE;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile TranslationRouter.Connectivity state = TranslationRouter.Connectivity.ONLINE;
+
+    public static ConnectivityMonitor getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ConnectivityMonitor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ConnectivityMonitor(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ConnectivityMonitor(Context context) {
+        ConnectivityManager manager = context.getSystemService(ConnectivityManager.class);
+        if (manager == null) {
+            return;
+        }
+
+        update(classify(manager.getNetworkCapabilities(manager.getActiveNetwork())));
+        manager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                update(classify(capabilities));
+            }
+
+            @Override
+            public void onLost(Network network) {
+                update(TranslationRouter.Connectivity.OFFLINE);
+            }
+        });
+    }
+
+    private static TranslationRouter.Connectivity classify(NetworkCapabilities capabilities) {
+        if (capabilities == null
+                || !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+            return TranslationRouter.Connectivity.OFFLINE;
+        }
+        // Sin validar suele ser un portal cautivo; poco ancho de banda, una red muy lenta
+        if (!capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+                || capabilities.getLinkDownstreamBandwidthKbps() < CONSTRAINED_DOWNSTREAM_KBPS) {
+            return TranslationRouter.Connectivity.CONSTRAINED;
+        }
+        return TranslationRouter.Connectivity.ONLINE;
+    }
+
+    private void update(TranslationRouter.Connectivity newState) {
+        if (newState == state) {
+            return;
+        }
+        state = newState;
+        TranslationRouter.getInstance().onConnectivityChanged(newState);
+        for (Listener listener : listeners) {
+            listener.onConnectivityChanged(newState);
+        }
+    }
+
+    @Override
+    public TranslationRouter.Connectivity getState() {
+        return state;
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
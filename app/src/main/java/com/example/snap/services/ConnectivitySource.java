@@ -0,0 +1,18 @@
+package com.example.snap.services;
+
+/**
+ * Origen del estado de la red. En la app es ConnectivityMonitor; en los
+ * tests, uno falso que se cambia a mano.
+ */
+public interface ConnectivitySource {
+
+    interface Listener {
+        void onConnectivityChanged(TranslationRouter.Connectivity connectivity);
+    }
+
+    TranslationRouter.Connectivity getState();
+
+    void addListener(Listener listener);
+
+    void removeListener(Listener listener);
+}
@@ -0,0 +1,242 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Mantiene traducidos en la caché persistente los favoritos de cada usuario
+ * (y, si se quiere, lo que más traduce según el historial) a sus idiomas por
+ * defecto de Ajustes, para tenerlos disponibles sin conexión.
+ *
+ * Se ejecuta en segundo plano al arrancar y al volver la red (solo con red
+ * sin restricciones), como mucho una vez cada MIN_INTERVAL_MS. Cada pasada
+ * tiene un presupuesto de textos y caracteres; lo que ya está en caché no
+ * cuenta ni se pide.
+ */
+public class FavoritesPrefetcher implements ConnectivitySource.Listener {
+
+    // Como mucho una pasada cada 6 horas
+    static final long MIN_INTERVAL_MS = 6 * 60 * 60 * 1000L;
+
+    /** Límites de una pasada */
+    public static class Budget {
+        public static final Budget DEFAULT = new Budget(100, 5000, 20);
+
+        // Textos y caracteres a pedir a la API como máximo
+        public final int maxTexts;
+        public final int maxChars;
+        // Frases del historial por usuario además de los favoritos (0 = solo favoritos)
+        public final int historyLimit;
+
+        public Budget(int maxTexts, int maxChars, int historyLimit) {
+            this.maxTexts = maxTexts;
+            this.maxChars = maxChars;
+            this.historyLimit = historyLimit;
+        }
+    }
+
+    /** Un texto guardado por el usuario, con el idioma en que está escrito */
+    public static class Phrase {
+        public final String text;
+        public final String sourceLang;
+        // Traducción que ya tenemos (la del favorito), o null
+        public final String knownTargetLang;
+        public final String knownTranslation;
+
+        public Phrase(String text, String sourceLang) {
+            this(text, sourceLang, null, null);
+        }
+
+        public Phrase(String text, String sourceLang, String knownTargetLang, String knownTranslation) {
+            this.text = text;
+            this.sourceLang = sourceLang;
+            this.knownTargetLang = knownTargetLang;
+            this.knownTranslation = knownTranslation;
+        }
+    }
+
+    /**
+     * Acceso a favoritos, historial, ajustes y caché (Room en la app). Se
+     * llama siempre desde el executor, nunca desde el hilo principal.
+     */
+    public interface Store {
+        List<String> getUserIds();
+
+        /** Idiomas por defecto del usuario en Ajustes */
+        Set<String> getDefaultLanguages(String userId);
+
+        /** Favoritos primero y luego hasta historyLimit frases frecuentes */
+        List<Phrase> loadPhrases(String userId, int historyLimit);
+
+        boolean isCached(String sourceLang, String targetLang, String text);
+
+        void store(String sourceLang, String targetLang, String text, String translatedText);
+    }
+
+    private final Store store;
+    private final TranslationEngine api;
+    private final ConnectivitySource connectivity;
+    private final Executor executor;
+    private final Clock clock;
+    private volatile Budget budget = Budget.DEFAULT;
+
+    private boolean running = false;
+    private long lastRunAt = -1;
+    private long prefetchedCount = 0;
+    private long skippedCount = 0;
+
+    public FavoritesPrefetcher(Store store, TranslationEngine api, ConnectivitySource connectivity,
+            Executor executor) {
+        this(store, api, connectivity, executor, Clock.SYSTEM);
+    }
+
+    FavoritesPrefetcher(Store store, TranslationEngine api, ConnectivitySource connectivity, Executor executor,
+            Clock clock) {
+        this.store = store;
+        this.api = api;
+        this.connectivity = connectivity;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    public void start() {
+        connectivity.addListener(this);
+        run();
+    }
+
+    public void stop() {
+        connectivity.removeListener(this);
+    }
+
+    @Override
+    public void onConnectivityChanged(TranslationRouter.Connectivity state) {
+        run();
+    }
+
+    /** Lanza una pasada si hay red sin restricciones y no se hizo hace poco */
+    public void run() {
+        if (connectivity.getState() != TranslationRouter.Connectivity.ONLINE) {
+            return;
+        }
+        synchronized (this) {
+            long now = clock.nowMillis();
+            if (running || (lastRunAt >= 0 && now - lastRunAt < MIN_INTERVAL_MS)) {
+                return;
+            }
+            running = true;
+            lastRunAt = now;
+        }
+        executor.execute(this::collect);
+    }
+
+    /** Reúne lo que falta en caché, agrupado por par de idiomas, hasta agotar el presupuesto */
+    private void collect() {
+        Budget limits = budget;
+        Map<String, List<String>> byPair = new LinkedHashMap<>();
+        int texts = 0;
+        int chars = 0;
+        int skipped = 0;
+
+        outer:
+        for (String userId : store.getUserIds()) {
+            Set<String> targets = store.getDefaultLanguages(userId);
+            for (Phrase phrase : store.loadPhrases(userId, limits.historyLimit)) {
+                String text = TranslationCache.normalize(phrase.text);
+                if (text.isEmpty()) {
+                    continue;
+                }
+                for (String targetLang : targets) {
+                    if (targetLang.equals(phrase.sourceLang)) {
+                        continue;
+                    }
+                    List<String> pending = byPair.computeIfAbsent(phrase.sourceLang + "|" + targetLang,
+                            key -> new ArrayList<>());
+                    if (pending.contains(text)) {
+                        continue;
+                    }
+                    if (store.isCached(phrase.sourceLang, targetLang, text)) {
+                        skipped++;
+                        continue;
+                    }
+                    // El favorito ya trae su traducción: se guarda sin gastar presupuesto
+                    if (targetLang.equals(phrase.knownTargetLang) && phrase.knownTranslation != null) {
+                        store.store(phrase.sourceLang, targetLang, text, phrase.knownTranslation);
+                        continue;
+                    }
+                    if (texts + 1 > limits.maxTexts || chars + text.length() > limits.maxChars) {
+                        break outer;
+                    }
+                    pending.add(text);
+                    texts++;
+                    chars += text.length();
+                }
+            }
+        }
+
+        synchronized (this) {
+            skippedCount += skipped;
+        }
+        List<Map.Entry<String, List<String>>> batches = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : byPair.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                batches.add(entry);
+            }
+        }
+        nextBatch(batches, 0);
+    }
+
+    /** Un lote por par de idiomas, uno detrás de otro */
+    private void nextBatch(List<Map.Entry<String, List<String>>> batches, int index) {
+        if (index >= batches.size()
+                || connectivity.getState() != TranslationRouter.Connectivity.ONLINE) {
+            synchronized (this) {
+                running = false;
+            }
+            return;
+        }
+
+        String[] pair = batches.get(index).getKey().split("\\|");
+        List<String> texts = batches.get(index).getValue();
+        api.translateBatch(texts, pair[0], pair[1], Priority.PREFETCH, new TranslationEngine.BatchCallback() {
+            @Override
+            public void onSuccess(List<String> translatedTexts) {
+                executor.execute(() -> {
+                    int stored = 0;
+                    for (int i = 0; i < texts.size(); i++) {
+                        String translated = translatedTexts.get(i);
+                        if (translated != null && !translated.isEmpty()) {
+                            store.store(pair[0], pair[1], texts.get(i), translated);
+                            stored++;
+                        }
+                    }
+                    synchronized (FavoritesPrefetcher.this) {
+                        prefetchedCount += stored;
+                    }
+                    nextBatch(batches, index + 1);
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                // Lo que falte se intentará en la próxima pasada
+                executor.execute(() -> nextBatch(batches, index + 1));
+            }
+        });
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FavoritesPrefetcher{prefetched=" + prefetchedCount + ", alreadyCached=" + skippedCount
+                + ", running=" + running + "}";
+    }
+}
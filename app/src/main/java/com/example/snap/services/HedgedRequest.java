@@ -0,0 +1,154 @@
+package com.example.snap.services;
+
+/**
+ * Petición con cobertura: lanza el intento principal y, si no ha respondido
+ * tras hedgeAfterMillis, lanza el de respaldo en paralelo. Gana el primer
+ * éxito y el otro se cancela. Si el principal falla antes de tiempo, el
+ * respaldo se lanza al momento (el fallback de siempre).
+ *
+ * Solo se duplica el trabajo en la cola lenta, no en cada petición.
+ */
+public class HedgedRequest<T> {
+
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        void onError(String error);
+    }
+
+    /** Un intento (API, ML Kit...). Devuelve un handle para poder cancelarlo. */
+    public interface Attempt<T> {
+        TranslationHandle start(Callback<T> callback);
+    }
+
+    private final Attempt<T> backup;
+    private final Callback<T> callback;
+    private final TranslationHandle handle = new TranslationHandle();
+    private final TranslationHandle primaryHandle = new TranslationHandle();
+    private final TranslationHandle backupHandle = new TranslationHandle();
+
+    private boolean done = false;
+    private boolean backupStarted = false;
+    private boolean primaryFailed = false;
+    private boolean backupFailed = false;
+    private String primaryError;
+
+    /**
+     * @param hedgeAfterMillis espera antes de lanzar el respaldo (p. ej. el p90 del principal);
+     *                         si es negativo, el respaldo solo se usa cuando el principal falla
+     * @return handle que cancela ambos intentos
+     */
+    public static <T> TranslationHandle start(Attempt<T> primary, Attempt<T> backup, long hedgeAfterMillis,
+            Callback<T> callback) {
+        HedgedRequest<T> request = new HedgedRequest<>(backup, callback);
+        request.begin(primary, hedgeAfterMillis);
+        return request.handle;
+    }
+
+    /** Sin cobertura: el respaldo solo se lanza si el principal falla */
+    public static <T> TranslationHandle withFallback(Attempt<T> primary, Attempt<T> backup, Callback<T> callback) {
+        return start(primary, backup, -1, callback);
+    }
+
+    private HedgedRequest(Attempt<T> backup, Callback<T> callback) {
+        this.backup = backup;
+        this.callback = callback;
+    }
+
+    private void begin(Attempt<T> primary, long hedgeAfterMillis) {
+        handle.onCancel(() -> {
+            synchronized (this) {
+                done = true;
+            }
+            primaryHandle.cancel();
+            backupHandle.cancel();
+        });
+
+        TranslationHandle attempt = primary.start(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                finish(result, backupHandle);
+            }
+
+            @Override
+            public void onError(String error) {
+                onPrimaryError(error);
+            }
+        });
+        // Si ya perdió (o se canceló todo) mientras arrancaba, se cancela al momento
+        primaryHandle.onCancel(attempt::cancel);
+
+        if (hedgeAfterMillis >= 0) {
+            TranslationScheduler.getInstance().executeDelayed(this::startBackup, hedgeAfterMillis);
+        }
+    }
+
+    private void startBackup() {
+        synchronized (this) {
+            if (done || backupStarted) {
+                return;
+            }
+            backupStarted = true;
+        }
+
+        TranslationHandle attempt = backup.start(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                finish(result, primaryHandle);
+            }
+
+            @Override
+            public void onError(String error) {
+                onBackupError(error);
+            }
+        });
+        backupHandle.onCancel(attempt::cancel);
+    }
+
+    private void onPrimaryError(String error) {
+        boolean fail;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            primaryFailed = true;
+            primaryError = error;
+            fail = backupFailed;
+            done = fail;
+        }
+        if (fail) {
+            callback.onError(error);
+        } else {
+            // Sin esperar al umbral: el respaldo es ahora la única opción
+            startBackup();
+        }
+    }
+
+    private void onBackupError(String error) {
+        String reported;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            backupFailed = true;
+            if (!primaryFailed) {
+                // Aún puede responder el principal
+                return;
+            }
+            done = true;
+            reported = primaryError;
+        }
+        callback.onError(reported != null ? reported : error);
+    }
+
+    private void finish(T result, TranslationHandle loser) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+        }
+        loser.cancel();
+        callback.onSuccess(result);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.snap.services;
+
+/**
+ * Modo "la última gana": cada petición nueva cancela la anterior, así un
+ * resultado tardío nunca pisa al más reciente en pantalla.
+ */
+public class LatestRequest {
+
+    private TranslationHandle current;
+
+    public synchronized void replace(TranslationHandle handle) {
+        if (current != null && current != handle) {
+            current.cancel();
+        }
+        current = handle;
+    }
+
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.snap.services;
+
+import android.util.Log;
+
+import com.google.mlkit.nl.languageid.LanguageIdentification;
+import com.google.mlkit.nl.languageid.LanguageIdentificationOptions;
+import com.google.mlkit.nl.languageid.LanguageIdentifier;
+
+/**
+ * Identificación de idioma en el dispositivo con ML Kit Language ID. El
+ * modelo va incluido en la app, no hay descarga ni red.
+ */
+public class MLKitLanguageDetector implements SourceLanguageDetector.Backend {
+
+    private static final String TAG = "MLKitLanguageDetector";
+
+    // Por debajo de esta confianza ML Kit responde "und" (indeterminado)
+    private static final float CONFIDENCE_THRESHOLD = 0.5f;
+    private static final String UNDETERMINED = "und";
+
+    private static volatile MLKitLanguageDetector INSTANCE;
+
+    private final LanguageIdentifier identifier;
+
+    public static MLKitLanguageDetector getInstance() {
+        if (INSTANCE == null) {
+            synchronized (MLKitLanguageDetector.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MLKitLanguageDetector();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private MLKitLanguageDetector() {
+        identifier = LanguageIdentification.getClient(new LanguageIdentificationOptions.Builder()
+                .setConfidenceThreshold(CONFIDENCE_THRESHOLD)
+                .build());
+    }
+
+    @Override
+    public void identify(String text, SourceLanguageDetector.Callback callback) {
+        // Runnable::run: el resultado se entrega en el hilo de ML Kit, no en el principal
+        identifier.identifyLanguage(text)
+                .addOnSuccessListener(Runnable::run, languageTag -> {
+                    if (languageTag == null || UNDETERMINED.equals(languageTag)) {
+                        callback.onDetected(null);
+                    } else {
+                        // "zh-Latn" -> "zh": la app solo maneja códigos de dos letras
+                        int dash = languageTag.indexOf('-');
+                        callback.onDetected(dash > 0 ? languageTag.substring(0, dash) : languageTag);
+                    }
+                })
+                .addOnFailureListener(Runnable::run, e -> {
+                    Log.w(TAG, "No se pudo identificar el idioma", e);
+                    callback.onDetected(null);
+                });
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.snap.services;
+
+import android.util.Log;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+import com.google.mlkit.common.model.DownloadConditions;
+import com.google.mlkit.common.model.RemoteModelManager;
+import com.google.mlkit.nl.translate.TranslateLanguage;
+import com.google.mlkit.nl.translate.TranslateRemoteModel;
+import com.google.mlkit.nl.translate.Translation;
+import com.google.mlkit.nl.translate.Translator;
+import com.google.mlkit.nl.translate.TranslatorOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de traducción en el dispositivo con ML Kit. Compartido por todas las
+ * pantallas: un único Translator por par de idiomas y un único registro de
+ * modelos descargados.
+ */
+public class MLKitTranslationEngine implements TranslationEngine {
+
+    private static final String TAG = "MLKitTranslationEngine";
+
+    // Idiomas de la app que ML Kit sabe traducir
+    private static final Map<String, String> SUPPORTED = new HashMap<>();
+    static {
+        SUPPORTED.put("es", TranslateLanguage.SPANISH);
+        SUPPORTED.put("en", TranslateLanguage.ENGLISH);
+        SUPPORTED.put("it", TranslateLanguage.ITALIAN);
+        SUPPORTED.put("pt", TranslateLanguage.PORTUGUESE);
+        SUPPORTED.put("de", TranslateLanguage.GERMAN);
+        SUPPORTED.put("fr", TranslateLanguage.FRENCH);
+        SUPPORTED.put("zh", TranslateLanguage.CHINESE);
+        SUPPORTED.put("ja", TranslateLanguage.JAPANESE);
+    }
+
+    private static volatile MLKitTranslationEngine INSTANCE;
+
+    // Caché para no recrear el cliente de traducción en cada petición
+    private final Map<String, Translator> translatorCache = new ConcurrentHashMap<>();
+
+    // Idiomas (códigos ML Kit) cuyo modelo ya está en el dispositivo
+    private final Set<String> downloadedModels = ConcurrentHashMap.newKeySet();
+
+    private final TranslationRouter router = TranslationRouter.getInstance();
+
+    public static MLKitTranslationEngine getInstance() {
+        if (INSTANCE == null) {
+            synchronized (MLKitTranslationEngine.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MLKitTranslationEngine();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private MLKitTranslationEngine() {
+        RemoteModelManager.getInstance().getDownloadedModels(TranslateRemoteModel.class)
+                .addOnSuccessListener(models -> {
+                    for (TranslateRemoteModel model : models) {
+                        downloadedModels.add(model.getLanguage());
+                    }
+                });
+    }
+
+    @Override
+    public String getName() {
+        return "mlkit";
+    }
+
+    @Override
+    public boolean supports(String sourceLang, String targetLang) {
+        return SUPPORTED.containsKey(sourceLang) && SUPPORTED.containsKey(targetLang);
+    }
+
+    @Override
+    public boolean isReady(String sourceLang, String targetLang) {
+        return supports(sourceLang, targetLang)
+                && downloadedModels.contains(SUPPORTED.get(sourceLang))
+                && downloadedModels.contains(SUPPORTED.get(targetLang));
+    }
+
+    /**
+     * Si falta el modelo se descarga primero. Lo que pide el usuario
+     * (INTERACTIVE) lo descarga con cualquier red; el resto solo con Wi-Fi
+     * para no gastar datos.
+     */
+    @Override
+    public TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+            Callback callback) {
+        TranslationHandle handle = new TranslationHandle();
+        if (!supports(sourceLang, targetLang)) {
+            callback.onError("Par de idiomas no soportado por ML Kit");
+            return handle;
+        }
+
+        Translator translator = translatorCache.computeIfAbsent(sourceLang + "-" + targetLang,
+                key -> Translation.getClient(new TranslatorOptions.Builder()
+                        .setSourceLanguage(SUPPORTED.get(sourceLang))
+                        .setTargetLanguage(SUPPORTED.get(targetLang))
+                        .build()));
+
+        DownloadConditions.Builder conditions = new DownloadConditions.Builder();
+        if (priority != Priority.INTERACTIVE) {
+            conditions.requireWifi();
+        }
+
+        translator.downloadModelIfNeeded(conditions.build())
+                .addOnSuccessListener(unused -> {
+                    downloadedModels.add(SUPPORTED.get(sourceLang));
+                    downloadedModels.add(SUPPORTED.get(targetLang));
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+
+                    long start = System.nanoTime();
+                    translator.translate(text)
+                            .addOnSuccessListener(translated -> {
+                                router.recordOnDeviceResult((System.nanoTime() - start) / 1_000_000);
+                                if (!handle.isCancelled()) {
+                                    callback.onSuccess(translated);
+                                }
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.w(TAG, "Fallo traducción ML Kit");
+                                if (!handle.isCancelled()) {
+                                    callback.onError("Error ML Kit: " + e.getMessage());
+                                }
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Modelo no descargado o error ML Kit.");
+                    if (!handle.isCancelled()) {
+                        callback.onError("Modelo ML Kit no disponible: " + e.getMessage());
+                    }
+                });
+        return handle;
+    }
+
+    /** Bloque a bloque en paralelo; falla entero si falla uno */
+    @Override
+    public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+            Priority priority, BatchCallback callback) {
+        TranslationHandle handle = new TranslationHandle();
+        if (texts == null || texts.isEmpty()) {
+            callback.onSuccess(new ArrayList<>());
+            return handle;
+        }
+
+        String[] results = new String[texts.size()];
+        int[] pending = { texts.size() };
+        boolean[] failed = { false };
+
+        for (int i = 0; i < texts.size(); i++) {
+            final int index = i;
+            TranslationHandle single = translate(texts.get(i), sourceLang, targetLang, priority, new Callback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    synchronized (results) {
+                        results[index] = translatedText;
+                        if (--pending[0] > 0 || failed[0]) {
+                            return;
+                        }
+                    }
+                    callback.onSuccess(new ArrayList<>(Arrays.asList(results)));
+                }
+
+                @Override
+                public void onError(String error) {
+                    synchronized (results) {
+                        if (failed[0]) {
+                            return;
+                        }
+                        failed[0] = true;
+                    }
+                    callback.onError(error);
+                }
+            });
+            handle.onCancel(single::cancel);
+        }
+        return handle;
+    }
+
+    /**
+     * Cierra los traductores para liberar memoria; se recrean al volver a usarse
+     */
+    public void close() {
+        for (Translator translator : translatorCache.values()) {
+            translator.close();
+        }
+        translatorCache.clear();
+    }
+}
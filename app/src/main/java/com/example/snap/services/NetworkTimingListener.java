@@ -0,0 +1,155 @@
+package com.example.snap.services;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Mide cada llamada HTTP (DNS, conexión, TLS, primer byte y total) y acumula
+ * los tiempos en unas estadísticas compartidas. Sirve para ver cuánto cuesta
+ * abrir conexiones y cuántas se reutilizan entre pantallas.
+ */
+public class NetworkTimingListener extends EventListener {
+
+    public static final EventListener.Factory FACTORY = call -> new NetworkTimingListener();
+
+    private static final Stats STATS = new Stats();
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long ttfbNanos;
+    // Si no hubo connectStart, la conexión salió del pool
+    private boolean newConnection = false;
+
+    public static Stats getStats() {
+        return STATS;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        dnsNanos += System.nanoTime() - dnsStart;
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        newConnection = true;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos += System.nanoTime() - secureConnectStart;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol, IOException ioe) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        if (ttfbNanos == 0) {
+            ttfbNanos = System.nanoTime() - callStart;
+        }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        STATS.record(System.nanoTime() - callStart, dnsNanos, connectNanos, tlsNanos, ttfbNanos, newConnection, false);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        STATS.record(System.nanoTime() - callStart, dnsNanos, connectNanos, tlsNanos, ttfbNanos, newConnection, true);
+    }
+
+    /**
+     * Totales de todas las llamadas del proceso
+     */
+    public static class Stats {
+        private long calls;
+        private long failures;
+        private long newConnections;
+        private long reusedConnections;
+        private long totalCallNanos;
+        private long totalDnsNanos;
+        private long totalConnectNanos;
+        private long totalTlsNanos;
+        private long totalTtfbNanos;
+
+        synchronized void record(long callNanos, long dnsNanos, long connectNanos, long tlsNanos,
+                long ttfbNanos, boolean newConnection, boolean failed) {
+            calls++;
+            if (failed) failures++;
+            if (newConnection) newConnections++; else reusedConnections++;
+            totalCallNanos += callNanos;
+            totalDnsNanos += dnsNanos;
+            totalConnectNanos += connectNanos;
+            totalTlsNanos += tlsNanos;
+            totalTtfbNanos += ttfbNanos;
+        }
+
+        public synchronized long getCalls() { return calls; }
+        public synchronized long getFailures() { return failures; }
+        public synchronized long getNewConnections() { return newConnections; }
+        public synchronized long getReusedConnections() { return reusedConnections; }
+
+        /** Media de ms por llamada completa */
+        public synchronized double getAverageCallMillis() { return average(totalCallNanos, calls); }
+        /** Media de ms de DNS + TCP + TLS por conexión nueva */
+        public synchronized double getAverageConnectMillis() { return average(totalConnectNanos + totalDnsNanos, newConnections); }
+        public synchronized double getAverageTlsMillis() { return average(totalTlsNanos, newConnections); }
+        public synchronized double getAverageTtfbMillis() { return average(totalTtfbNanos, calls); }
+
+        private static double average(long totalNanos, long count) {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        public synchronized void reset() {
+            calls = failures = newConnections = reusedConnections = 0;
+            totalCallNanos = totalDnsNanos = totalConnectNanos = totalTlsNanos = totalTtfbNanos = 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(java.util.Locale.US,
+                    "calls=%d failures=%d new=%d reused=%d call=%.1fms connect=%.1fms tls=%.1fms ttfb=%.1fms",
+                    calls, failures, newConnections, reusedConnections, getAverageCallMillis(),
+                    getAverageConnectMillis(), getAverageTlsMillis(), getAverageTtfbMillis());
+        }
+    }
+}
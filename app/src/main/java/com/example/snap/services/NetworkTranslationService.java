@@ -2,34 +2,127 @@ package com.example.snap.services;
 
 import android.content.Context;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.snap.services.TranslationScheduler.Priority;
 
 import retrofit2.Call;
-import retrofit2.Callback;
 import retrofit2.Response;
 
-public class NetworkTranslationService {
+/**
+ * Motor de traducción contra la API HTTP (translate_a/single).
+ */
+public class NetworkTranslationService implements TranslationEngine {
+    // Máximo de caracteres que empaquetamos en una sola petición GET.
+    // La URL codificada crece mucho con acentos o CJK, así que dejamos margen.
+    private static final int MAX_BATCH_CHARS = 1800;
+    // Google conserva los saltos de línea, los usamos para separar segmentos
+    private static final String SEGMENT_SEPARATOR = "\n";
+
+    // Reintentos ante errores transitorios (red, 429, 5xx) con espera exponencial
+    private static final int MAX_RETRIES = 2;
+    private static final long RETRY_BASE_DELAY_MS = 250;
+    private static final long RETRY_MAX_DELAY_MS = 2000;
+
+    // Los textos largos se parten por frases y se traducen varios trozos a la vez
+    private static final int MAX_CHUNK_CHARS = 1000;
+    private static final int MAX_PARALLEL_CHUNKS = 3;
+
+    // A partir de este tamaño (ya codificado) el texto viaja en el cuerpo de un POST.
+    // Las URL de más de ~2 KB empiezan a dar problemas en proxies y en el propio servidor.
+    static final int MAX_GET_QUERY_BYTES = 2000;
+
+    // La tarea caducó o se descartó en la cola del planificador (p. ej. un frame viejo)
+    static final String DISCARDED_ERROR = "Petición descartada";
+
+    static final String RATE_LIMITED_ERROR = "Límite de peticiones alcanzado";
+
+    static final String CIRCUIT_OPEN_ERROR = "Servicio de traducción no disponible";
+
+    // Prefijo de los fallos de conexión; le sigue el detalle de la excepción
+    static final String NETWORK_ERROR = "Error de red";
+
     private Context context;
-    private ExecutorService executorService;
+    private TranslationScheduler scheduler;
     private TranslationApiService apiService;
+    private SingleFlight singleFlight;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
+    private TranslationRouter router;
 
     public NetworkTranslationService(Context context) {
+        this(context, ApiClient.getApiService(), ApiClient.getCircuitBreaker(), ApiClient.getRateLimiter());
+    }
+
+    // Para tests: permite apuntar a un servidor local y controlar el circuito y el presupuesto
+    NetworkTranslationService(Context context, TranslationApiService apiService, CircuitBreaker circuitBreaker,
+            RateLimiter rateLimiter) {
         this.context = context;
-        this.executorService = Executors.newSingleThreadExecutor();
-        this.apiService = ApiClient.getApiService();
+        this.scheduler = TranslationScheduler.getInstance();
+        this.apiService = apiService;
+        this.singleFlight = SingleFlight.getInstance();
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.router = TranslationRouter.getInstance();
     }
 
-    public interface TranslationCallback {
-        void onSuccess(String translatedText);
+    // Se mantienen como alias de los callbacks de TranslationEngine
+    public interface TranslationCallback extends TranslationEngine.Callback {
+    }
+
+    public interface BatchTranslationCallback extends TranslationEngine.BatchCallback {
+    }
+
+    public interface StreamingTranslationCallback extends TranslationEngine.StreamingCallback {
+    }
+
+    /**
+     * Fallos que no dependen del texto (sin red, API caída, sin presupuesto):
+     * la misma petición puede salir bien más tarde.
+     */
+    public static boolean isRetryableLater(String error) {
+        return error != null && (error.startsWith(NETWORK_ERROR)
+                || CIRCUIT_OPEN_ERROR.equals(error)
+                || RATE_LIMITED_ERROR.equals(error));
+    }
+
+    @Override
+    public String getName() {
+        return "api";
+    }
+
+    // La API acepta cualquier par de códigos ISO
+    @Override
+    public boolean supports(String sourceLang, String targetLang) {
+        return true;
+    }
 
-        void onError(String error);
+    @Override
+    public TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+            TranslationEngine.Callback callback) {
+        return translateText(text, sourceLang, targetLang, priority, callback);
     }
 
-    public void translateText(String text, String sourceLang, String targetLang,
-            TranslationCallback callback) {
+    /**
+     * @return handle para cancelar la petición si deja de interesar
+     */
+    public TranslationHandle translateText(String text, String sourceLang, String targetLang,
+            TranslationEngine.Callback callback) {
+        return translateText(text, sourceLang, targetLang, Priority.INTERACTIVE, callback);
+    }
+
+    public TranslationHandle translateText(String text, String sourceLang, String targetLang,
+            Priority priority, TranslationEngine.Callback callback) {
 
-        executorService.execute(() -> {
+        TranslationHandle handle = new TranslationHandle();
+        scheduler.execute(priority, () -> {
+            if (handle.isCancelled()) {
+                return;
+            }
             try {
                 // Validar entrada
                 if (text == null || text.trim().isEmpty()) {
@@ -37,52 +130,606 @@ public class NetworkTranslationService {
                     return;
                 }
 
-                // Call<ResponseBody> call = apiService.translate("gtx", sourceLang, targetLang,
-                // "t", text);
-                Call<okhttp3.ResponseBody> call = apiService.translate("gtx", sourceLang, targetLang, "t", text);
-
-                call.enqueue(new Callback<okhttp3.ResponseBody>() {
-                    @Override
-                    public void onResponse(Call<okhttp3.ResponseBody> call, Response<okhttp3.ResponseBody> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            try {
-                                String jsonResponse = response.body().string();
-                                org.json.JSONArray jsonArray = new org.json.JSONArray(jsonResponse);
-                                // Google Translate devuelve array de arrays: [[["Translated", "Original", ...],
-                                // ...], ...]
-                                if (jsonArray.length() > 0) {
-                                    org.json.JSONArray sentences = jsonArray.getJSONArray(0);
-                                    StringBuilder translatedBuilder = new StringBuilder();
-
-                                    for (int i = 0; i < sentences.length(); i++) {
-                                        org.json.JSONArray sentence = sentences.getJSONArray(i);
-                                        if (sentence.length() > 0) {
-                                            translatedBuilder.append(sentence.getString(0));
-                                        }
-                                    }
-
-                                    String result = translatedBuilder.toString();
-                                    callback.onSuccess(result);
-                                } else {
-                                    callback.onError("Respuesta vacía");
-                                }
-                            } catch (Exception e) {
-                                callback.onError("Error parsing: " + e.getMessage());
-                            }
-                        } else {
-                            callback.onError("Error API: " + response.code());
+                requestTranslation(text, sourceLang, targetLang, priority, handle, callback);
+
+            } catch (Exception e) {
+                callback.onError("Error: " + e.getMessage());
+            }
+        }, () -> callback.onError(DISCARDED_ERROR));
+        return handle;
+    }
+
+    /**
+     * Igual que translateText, pero un texto largo se parte en trozos por frases
+     * que se traducen en paralelo (como mucho MAX_PARALLEL_CHUNKS a la vez).
+     * El resultado se entrega en orden trozo a trozo, así la primera frase
+     * aparece sin esperar a la última.
+     */
+    public TranslationHandle translateStreaming(String text, String sourceLang, String targetLang,
+            TranslationEngine.StreamingCallback callback) {
+        return translateStreaming(text, sourceLang, targetLang, Priority.INTERACTIVE, callback);
+    }
+
+    @Override
+    public TranslationHandle translateStreaming(String text, String sourceLang, String targetLang,
+            Priority priority, TranslationEngine.StreamingCallback callback) {
+
+        if (text == null || text.trim().length() <= MAX_CHUNK_CHARS) {
+            return translateText(text, sourceLang, targetLang, priority, new TranslationCallback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    callback.onSuccess(translatedText);
+                }
+
+                @Override
+                public void onError(String error) {
+                    callback.onError(error);
+                }
+            });
+        }
+
+        TranslationHandle handle = new TranslationHandle();
+        scheduler.execute(priority, () -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            List<TextChunker.Chunk> chunks = TextChunker.split(text, MAX_CHUNK_CHARS);
+            new ChunkedTranslation(chunks, sourceLang, targetLang, priority, handle, callback).start();
+        }, () -> callback.onError(DISCARDED_ERROR));
+        return handle;
+    }
+
+    /**
+     * Traduce varios segmentos (p. ej. los bloques de un frame de OCR) usando el
+     * menor número posible de peticiones: se agrupan separados por salto de línea
+     * y el resultado se vuelve a partir por segmento.
+     *
+     * @return handle para cancelar el lote (p. ej. cuando llega un frame más nuevo)
+     */
+    public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+            TranslationEngine.BatchCallback callback) {
+        return translateBatch(texts, sourceLang, targetLang, Priority.CAMERA, callback);
+    }
+
+    @Override
+    public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+            Priority priority, TranslationEngine.BatchCallback callback) {
+
+        TranslationHandle handle = new TranslationHandle();
+        scheduler.execute(priority, () -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (texts == null || texts.isEmpty()) {
+                callback.onSuccess(new ArrayList<>());
+                return;
+            }
+
+            // Un segmento no puede contener el separador, así que aplanamos sus líneas
+            List<String> segments = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                segments.add(text == null ? "" : text.replaceAll("\\s*\\n\\s*", " ").trim());
+            }
+
+            List<List<Integer>> groups = packSegments(segments);
+            BatchResult result = new BatchResult(segments.size(), groups.size(), handle, callback);
+            result.start();
+
+            for (List<Integer> group : groups) {
+                translateGroup(segments, group, sourceLang, targetLang, priority, handle, result);
+            }
+        }, () -> callback.onError(DISCARDED_ERROR));
+        return handle;
+    }
+
+    /**
+     * Agrupa los índices de los segmentos no vacíos en lotes de hasta
+     * MAX_BATCH_CHARS. Un segmento más largo que el límite viaja solo.
+     */
+    private List<List<Integer>> packSegments(List<String> segments) {
+        List<List<Integer>> groups = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentLength = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            int length = segments.get(i).length();
+            if (length == 0) {
+                continue;
+            }
+
+            int added = current.isEmpty() ? length : length + SEGMENT_SEPARATOR.length();
+            if (!current.isEmpty() && currentLength + added > MAX_BATCH_CHARS) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentLength = 0;
+                added = length;
+            }
+            current.add(i);
+            currentLength += added;
+        }
+
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private void translateGroup(List<String> segments, List<Integer> group, String sourceLang,
+            String targetLang, Priority priority, TranslationHandle handle, BatchResult result) {
+
+        StringBuilder joined = new StringBuilder();
+        for (int index : group) {
+            if (joined.length() > 0) {
+                joined.append(SEGMENT_SEPARATOR);
+            }
+            joined.append(segments.get(index));
+        }
+
+        requestTranslation(joined.toString(), sourceLang, targetLang, priority, handle, new TranslationCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                List<String> pieces = splitSegments(translatedText);
+
+                if (pieces.size() == group.size()) {
+                    for (int i = 0; i < group.size(); i++) {
+                        int index = group.get(i);
+                        result.set(index, pieces.get(i));
+                    }
+                    result.groupDone();
+                } else {
+                    // La API fusionó o partió líneas: traducimos ese lote segmento a segmento
+                    translateIndividually(segments, group, sourceLang, targetLang, priority, handle, result);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                result.fail(error);
+            }
+        });
+    }
+
+    private void translateIndividually(List<String> segments, List<Integer> group, String sourceLang,
+            String targetLang, Priority priority, TranslationHandle handle, BatchResult result) {
+
+        int[] pending = { group.size() };
+        for (int index : group) {
+            requestTranslation(segments.get(index), sourceLang, targetLang, priority, handle,
+                    new TranslationCallback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    result.set(index, translatedText.trim());
+                    synchronized (pending) {
+                        if (--pending[0] == 0) {
+                            result.groupDone();
                         }
                     }
+                }
+
+                @Override
+                public void onError(String error) {
+                    result.fail(error);
+                }
+            });
+        }
+    }
+
+    private List<String> splitSegments(String translatedText) {
+        List<String> pieces = new ArrayList<>(Arrays.asList(translatedText.split(SEGMENT_SEPARATOR, -1)));
+        // Google suele añadir o quitar el salto final, lo ignoramos
+        while (!pieces.isEmpty() && pieces.get(pieces.size() - 1).trim().isEmpty()) {
+            pieces.remove(pieces.size() - 1);
+        }
+        for (int i = 0; i < pieces.size(); i++) {
+            pieces.set(i, pieces.get(i).trim());
+        }
+        return pieces;
+    }
+
+    /**
+     * Pide una traducción a la API. Si ya hay una petición idéntica en vuelo
+     * (mismo texto e idiomas), nos enganchamos a ella en lugar de lanzar otra.
+     * Al cancelar el handle nos desenganchamos, y si nadie más la espera la
+     * llamada HTTP se cancela también.
+     */
+    private void requestTranslation(String text, String sourceLang, String targetLang, Priority priority,
+            TranslationHandle handle, TranslationEngine.Callback callback) {
+
+        // Una vez cancelado el handle, el resultado ya no le llega a nadie
+        TranslationCallback guarded = new TranslationCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                if (!handle.isCancelled()) {
+                    callback.onSuccess(translatedText);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!handle.isCancelled()) {
+                    callback.onError(error);
+                }
+            }
+        };
+
+        String key = SingleFlight.keyFor(sourceLang, targetLang, text);
+        SingleFlight.Flight flight = singleFlight.join(key, guarded);
+        handle.onCancel(() -> singleFlight.leave(key, guarded));
+        if (flight == null) {
+            return;
+        }
+
+        // Con el circuito abierto no esperamos a la red: el llamante cae a ML Kit al momento
+        if (!circuitBreaker.allowRequest()) {
+            singleFlight.fail(flight, CIRCUIT_OPEN_ERROR);
+            return;
+        }
+
+        sendAttempt(flight, text, sourceLang, targetLang, priority, 0);
+    }
+
+    /**
+     * Un intento HTTP. Los errores transitorios se reintentan con espera
+     * exponencial mientras el circuito siga cerrado y alguien espere el resultado.
+     */
+    private void sendAttempt(SingleFlight.Flight flight, String text, String sourceLang, String targetLang,
+            Priority priority, int attempt) {
+
+        // Sin presupuesto, la cámara y la precarga se descartan; el texto siempre pasa
+        if (!rateLimiter.tryAcquire(priority, text.length())) {
+            singleFlight.fail(flight, RATE_LIMITED_ERROR);
+            return;
+        }
+
+        Call<okhttp3.ResponseBody> call = sendRequest(text, sourceLang, targetLang, priority, new AttemptCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                circuitBreaker.recordSuccess();
+                singleFlight.complete(flight, translatedText);
+            }
+
+            @Override
+            public void onFailure(String error, boolean transientError, boolean apiAnswered,
+                    long retryAfterMillis) {
+                if (!transientError) {
+                    // 4xx o respuesta inesperada: reintentar no cambiaría nada. Si la API
+                    // respondió está viva (como cuenta el router); si ni llegó, la prueba
+                    // del circuito semiabierto queda libre para otra petición
+                    if (apiAnswered) {
+                        circuitBreaker.recordSuccess();
+                    } else {
+                        circuitBreaker.releaseProbe();
+                    }
+                    singleFlight.fail(flight, error);
+                    return;
+                }
+
+                circuitBreaker.recordFailure();
+                long delay = retryDelay(attempt, retryAfterMillis);
+                if (attempt >= MAX_RETRIES || delay < 0 || !singleFlight.isActive(flight)
+                        || !circuitBreaker.allowRequest()) {
+                    singleFlight.fail(flight, error);
+                    return;
+                }
+
+                scheduler.executeDelayed(
+                        () -> sendAttempt(flight, text, sourceLang, targetLang, priority, attempt + 1), delay);
+            }
+        });
+        singleFlight.attach(flight, call);
+    }
+
+    /**
+     * Espera antes del siguiente intento: exponencial con jitter, o lo que pida
+     * Retry-After. Devuelve -1 si el servidor pide esperar más de lo razonable.
+     */
+    private static long retryDelay(int attempt, long retryAfterMillis) {
+        if (retryAfterMillis >= 0) {
+            return retryAfterMillis <= RETRY_MAX_DELAY_MS ? retryAfterMillis : -1;
+        }
+        long delay = Math.min(RETRY_MAX_DELAY_MS, RETRY_BASE_DELAY_MS << attempt);
+        // Jitter para que varios clientes no reintenten a la vez
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * GET si el texto cabe con holgura en la URL, POST si no.
+     */
+    static boolean shouldUsePost(String text) {
+        return encodedLength(text) > MAX_GET_QUERY_BYTES;
+    }
+
+    /**
+     * Longitud del texto una vez codificado para la URL, sin llegar a codificarlo:
+     * ASCII sin reservar ocupa 1 byte, el resto 3 por cada byte UTF-8.
+     */
+    static int encodedLength(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~') {
+                length += 1;
+            } else if (c < 0x80) {
+                length += 3;
+            } else if (c < 0x800) {
+                length += 6;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 12;
+                i++;
+            } else {
+                length += 9;
+            }
+            if (length > MAX_GET_QUERY_BYTES) {
+                // No hace falta seguir contando
+                return length;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    // Segundos de Retry-After en milisegundos, o -1 si no viene
+    private static long parseRetryAfter(String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Resultado de un único intento HTTP */
+    private interface AttemptCallback {
+        void onSuccess(String translatedText);
+
+        /**
+         * @param apiAnswered la API llegó a responder (error HTTP o cuerpo inválido)
+         * @param retryAfterMillis espera pedida por el servidor, o -1
+         */
+        void onFailure(String error, boolean transientError, boolean apiAnswered, long retryAfterMillis);
+    }
+
+    /**
+     * Lanza una petición a translate_a/single y entrega el texto traducido completo.
+     * Si la llamada se cancela no se avisa: ya nadie espera el resultado.
+     *
+     * @return la llamada en curso, para poder cancelarla
+     */
+    private Call<okhttp3.ResponseBody> sendRequest(String text, String sourceLang, String targetLang,
+            Priority priority, AttemptCallback callback) {
+
+        Call<okhttp3.ResponseBody> call = shouldUsePost(text)
+                ? apiService.translatePost("gtx", sourceLang, targetLang, "t", text)
+                : apiService.translate("gtx", sourceLang, targetLang, "t", text);
 
-                    @Override
-                    public void onFailure(Call<okhttp3.ResponseBody> call, Throwable t) {
-                        callback.onError("Error de red: " + t.getMessage());
+        // La prioridad solo decide el orden en que salen a la red (el Dispatcher de
+        // OkHttp es FIFO): el hilo del planificador encola la llamada en OkHttp y
+        // queda libre. Así una API lenta no bloquea los hilos que comparten Room y la cámara
+        scheduler.execute(priority, () -> {
+            if (call.isCanceled()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            call.enqueue(new retrofit2.Callback<okhttp3.ResponseBody>() {
+                @Override
+                public void onResponse(Call<okhttp3.ResponseBody> call, Response<okhttp3.ResponseBody> response) {
+                    // Un 4xx es culpa de la petición, no de la API: cuenta como respuesta válida
+                    router.recordApiResult((System.nanoTime() - start) / 1_000_000,
+                            !isTransient(response.code()));
+                    handleResponse(call, response, callback);
+                }
+
+                @Override
+                public void onFailure(Call<okhttp3.ResponseBody> call, Throwable t) {
+                    if (call.isCanceled()) {
+                        return;
                     }
-                });
+                    router.recordApiResult((System.nanoTime() - start) / 1_000_000, false);
+                    // Timeouts y cortes de red suelen ser pasajeros
+                    callback.onFailure(NETWORK_ERROR + ": " + t.getMessage(), t instanceof IOException, false, -1);
+                }
+            });
+        }, () -> callback.onFailure(DISCARDED_ERROR, false, false, -1));
+        return call;
+    }
 
+    private void handleResponse(Call<okhttp3.ResponseBody> call, Response<okhttp3.ResponseBody> response,
+            AttemptCallback callback) {
+
+        if (response.isSuccessful() && response.body() != null) {
+            String result;
+            // Leemos el cuerpo en streaming: solo [0][i][0], sin construir el árbol JSON
+            try (okhttp3.ResponseBody body = response.body()) {
+                result = TranslateResponseParser.parseStreaming(body.charStream());
             } catch (Exception e) {
-                callback.onError("Error: " + e.getMessage());
+                if (call.isCanceled()) {
+                    return;
+                }
+                callback.onFailure("Error parsing: " + e.getMessage(), false, true, -1);
+                return;
             }
-        });
+
+            if (result != null) {
+                callback.onSuccess(result);
+            } else {
+                callback.onFailure("Respuesta vacía", false, true, -1);
+            }
+        } else {
+            if (response.body() != null) {
+                response.body().close();
+            } else if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            callback.onFailure("Error API: " + response.code(), isTransient(response.code()), true,
+                    parseRetryAfter(response.headers().get("Retry-After")));
+        }
+    }
+
+    /**
+     * Traducción de un texto largo por trozos. Lanza hasta MAX_PARALLEL_CHUNKS
+     * peticiones; cada vez que termina una se lanza el siguiente trozo. Los
+     * resultados se emiten en orden aunque lleguen desordenados.
+     */
+    private class ChunkedTranslation {
+        private final List<TextChunker.Chunk> chunks;
+        private final String[] translations;
+        private final String sourceLang;
+        private final String targetLang;
+        private final Priority priority;
+        private final TranslationHandle handle;
+        private final TranslationEngine.StreamingCallback callback;
+        private final StringBuilder emitted = new StringBuilder();
+        private int nextToLaunch = 0;
+        private int nextToEmit = 0;
+        private boolean failed = false;
+
+        ChunkedTranslation(List<TextChunker.Chunk> chunks, String sourceLang, String targetLang,
+                Priority priority, TranslationHandle handle, TranslationEngine.StreamingCallback callback) {
+            this.chunks = chunks;
+            this.translations = new String[chunks.size()];
+            this.sourceLang = sourceLang;
+            this.targetLang = targetLang;
+            this.priority = priority;
+            this.handle = handle;
+            this.callback = callback;
+        }
+
+        void start() {
+            for (int i = 0; i < MAX_PARALLEL_CHUNKS; i++) {
+                launchNext();
+            }
+        }
+
+        private void launchNext() {
+            int index;
+            synchronized (this) {
+                if (failed || handle.isCancelled() || nextToLaunch >= chunks.size()) {
+                    return;
+                }
+                index = nextToLaunch++;
+            }
+
+            requestTranslation(chunks.get(index).text, sourceLang, targetLang, priority, handle,
+                    new TranslationCallback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    onChunkDone(index, translatedText.trim());
+                }
+
+                @Override
+                public void onError(String error) {
+                    synchronized (ChunkedTranslation.this) {
+                        if (failed) {
+                            return;
+                        }
+                        failed = true;
+                    }
+                    callback.onError(error);
+                }
+            });
+        }
+
+        private void onChunkDone(int index, String translatedText) {
+            // Se avisa dentro del lock para que los parciales no se adelanten entre hilos
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                translations[index] = translatedText;
+                String partial = null;
+                // Solo avanzamos mientras no haya huecos delante
+                while (nextToEmit < chunks.size() && translations[nextToEmit] != null) {
+                    if (nextToEmit > 0) {
+                        emitted.append(chunks.get(nextToEmit - 1).separator);
+                    }
+                    emitted.append(translations[nextToEmit]);
+                    nextToEmit++;
+                    partial = emitted.toString();
+                }
+
+                if (nextToEmit == chunks.size()) {
+                    if (!handle.isCancelled()) {
+                        callback.onSuccess(partial);
+                    }
+                    return;
+                }
+                if (partial != null && !handle.isCancelled()) {
+                    callback.onPartial(partial);
+                }
+            }
+            launchNext();
+        }
+    }
+
+    /**
+     * Acumula los resultados de un lote y avisa una sola vez al terminar o al primer error.
+     */
+    private static class BatchResult {
+        private final String[] translations;
+        private final TranslationHandle handle;
+        private final TranslationEngine.BatchCallback callback;
+        private int pendingGroups;
+        private boolean finished = false;
+
+        BatchResult(int size, int groups, TranslationHandle handle, TranslationEngine.BatchCallback callback) {
+            this.translations = new String[size];
+            Arrays.fill(translations, "");
+            this.pendingGroups = groups;
+            this.handle = handle;
+            this.callback = callback;
+        }
+
+        /** Si todo salió de la caché no hay grupos pendientes y terminamos ya */
+        void start() {
+            synchronized (this) {
+                if (pendingGroups > 0) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        synchronized void set(int index, String translation) {
+            translations[index] = translation;
+        }
+
+        void groupDone() {
+            synchronized (this) {
+                if (finished || --pendingGroups > 0) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        void fail(String error) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            if (!handle.isCancelled()) {
+                callback.onError(error);
+            }
+        }
+
+        private void finish() {
+            List<String> result;
+            synchronized (this) {
+                finished = true;
+                result = new ArrayList<>(Arrays.asList(translations));
+            }
+            if (!handle.isCancelled()) {
+                callback.onSuccess(result);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,223 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Reenvía a la API las traducciones que quedaron en cola sin conexión (o con
+ * solo el resultado provisional de ML Kit) en cuanto vuelve la red.
+ *
+ * Va por lotes: toma las pendientes más antiguas del mismo par de idiomas,
+ * quita los textos repetidos y las manda en un único translateBatch. Al
+ * terminar un lote sigue con el siguiente hasta vaciar la cola.
+ */
+public class OfflineReplayer implements ConnectivitySource.Listener {
+
+    // Pendientes que se leen por lote (NetworkTranslationService los agrupa luego por tamaño)
+    static final int BATCH_SIZE = 40;
+    // Tras tantos fallos se descarta la petición
+    static final int MAX_ATTEMPTS = 5;
+    // Si un lote falla con red, se vuelve a probar pasado este tiempo
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    /** Una traducción en cola */
+    public static class PendingItem {
+        public final long id;
+        public final String userId;
+        public final String text;
+        public final String sourceLang;
+        public final String targetLang;
+        // Resultado de ML Kit mostrado mientras tanto, o null si no hubo
+        public final String provisionalText;
+        public final int attempts;
+
+        public PendingItem(long id, String userId, String text, String sourceLang, String targetLang,
+                String provisionalText, int attempts) {
+            this.id = id;
+            this.userId = userId;
+            this.text = text;
+            this.sourceLang = sourceLang;
+            this.targetLang = targetLang;
+            this.provisionalText = provisionalText;
+            this.attempts = attempts;
+        }
+    }
+
+    /**
+     * Almacén de la cola (Room en la app). Se llama siempre desde el executor
+     * del replayer, nunca desde el hilo principal.
+     */
+    public interface Store {
+        /** Las pendientes más antiguas primero */
+        List<PendingItem> loadPending(int limit);
+
+        /** Guarda el resultado de la API (historial, favoritos, caché) */
+        void onTranslated(PendingItem item, String translatedText);
+
+        void remove(List<Long> ids);
+
+        void recordFailure(List<Long> ids);
+    }
+
+    private final Store store;
+    private final TranslationEngine api;
+    private final ConnectivitySource connectivity;
+    private final Executor executor;
+
+    private boolean running = false;
+    private boolean requested = false;
+
+    public OfflineReplayer(Store store, TranslationEngine api, ConnectivitySource connectivity, Executor executor) {
+        this.store = store;
+        this.api = api;
+        this.connectivity = connectivity;
+        this.executor = executor;
+    }
+
+    /** Empieza a escuchar la red y, si ya hay conexión, vacía la cola */
+    public void start() {
+        connectivity.addListener(this);
+        if (connectivity.getState() == TranslationRouter.Connectivity.ONLINE) {
+            replay();
+        }
+    }
+
+    public void stop() {
+        connectivity.removeListener(this);
+    }
+
+    @Override
+    public void onConnectivityChanged(TranslationRouter.Connectivity state) {
+        if (state == TranslationRouter.Connectivity.ONLINE) {
+            replay();
+        }
+    }
+
+    /** Pide vaciar la cola; si ya se está vaciando, se repasa al terminar */
+    public void replay() {
+        synchronized (this) {
+            requested = true;
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        executor.execute(this::nextBatch);
+    }
+
+    private void nextBatch() {
+        synchronized (this) {
+            requested = false;
+        }
+        if (connectivity.getState() == TranslationRouter.Connectivity.OFFLINE) {
+            finish();
+            return;
+        }
+
+        List<PendingItem> pending = store.loadPending(BATCH_SIZE);
+        if (pending.isEmpty()) {
+            finish();
+            return;
+        }
+
+        // Un lote = un par de idiomas, el de la pendiente más antigua
+        PendingItem oldest = pending.get(0);
+        Map<String, List<PendingItem>> byText = new LinkedHashMap<>();
+        for (PendingItem item : pending) {
+            if (item.sourceLang.equals(oldest.sourceLang) && item.targetLang.equals(oldest.targetLang)) {
+                byText.computeIfAbsent(TranslationCache.normalize(item.text), key -> new ArrayList<>()).add(item);
+            }
+        }
+        // El texto normalizado solo sirve para no repetir; a la API va el original
+        List<String> keys = new ArrayList<>(byText.keySet());
+        List<String> texts = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            texts.add(byText.get(key).get(0).text);
+        }
+
+        api.translateBatch(texts, oldest.sourceLang, oldest.targetLang, Priority.PREFETCH,
+                new TranslationEngine.BatchCallback() {
+                    @Override
+                    public void onSuccess(List<String> translatedTexts) {
+                        executor.execute(() -> {
+                            List<Long> done = new ArrayList<>();
+                            List<PendingItem> empty = new ArrayList<>();
+                            for (int i = 0; i < keys.size(); i++) {
+                                String translated = translatedTexts.get(i);
+                                for (PendingItem item : byText.get(keys.get(i))) {
+                                    if (translated == null || translated.isEmpty()) {
+                                        empty.add(item);
+                                    } else {
+                                        store.onTranslated(item, translated);
+                                        done.add(item.id);
+                                    }
+                                }
+                            }
+                            store.remove(done);
+                            onFailed(empty);
+                            nextBatch();
+                        });
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        executor.execute(() -> {
+                            // Si ni siquiera salió a la red, no cuenta como intento
+                            if (!isLocalRefusal(error)) {
+                                List<PendingItem> failed = new ArrayList<>();
+                                for (List<PendingItem> items : byText.values()) {
+                                    failed.addAll(items);
+                                }
+                                onFailed(failed);
+                            }
+                            finish();
+                            // Con red, el fallo suele ser pasajero (límite de peticiones, 5xx)
+                            if (connectivity.getState() == TranslationRouter.Connectivity.ONLINE) {
+                                TranslationScheduler.getInstance().executeDelayed(OfflineReplayer.this::replay,
+                                        RETRY_DELAY_MS);
+                            }
+                        });
+                    }
+                });
+    }
+
+    /** Rechazos del propio cliente (límite de peticiones, cola llena, circuito abierto) */
+    static boolean isLocalRefusal(String error) {
+        return NetworkTranslationService.RATE_LIMITED_ERROR.equals(error)
+                || NetworkTranslationService.DISCARDED_ERROR.equals(error)
+                || NetworkTranslationService.CIRCUIT_OPEN_ERROR.equals(error);
+    }
+
+    private void onFailed(List<PendingItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Long> retry = new ArrayList<>();
+        List<Long> drop = new ArrayList<>();
+        for (PendingItem item : items) {
+            (item.attempts + 1 >= MAX_ATTEMPTS ? drop : retry).add(item.id);
+        }
+        if (!retry.isEmpty()) {
+            store.recordFailure(retry);
+        }
+        if (!drop.isEmpty()) {
+            store.remove(drop);
+        }
+    }
+
+    private void finish() {
+        boolean again;
+        synchronized (this) {
+            again = requested;
+            running = again;
+        }
+        if (again) {
+            executor.execute(this::nextBatch);
+        }
+    }
+}
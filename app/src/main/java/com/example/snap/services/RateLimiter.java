@@ -0,0 +1,131 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Presupuesto de peticiones y caracteres por segundo hacia la API, compartido
+ * por todas las pantallas (token bucket).
+ *
+ * Cada prioridad solo puede gastar mientras quede por encima de su reserva:
+ * INTERACTIVE no tiene reserva (e incluso puede endeudarse), la cámara deja
+ * un 30 % libre y la precarga un 60 %. Así, cuando el presupuesto se agota,
+ * lo primero que se deja de hacer es la cámara y la precarga, no lo que ha
+ * pedido el usuario.
+ */
+public class RateLimiter {
+
+    private final TokenBucket requests;
+    private final TokenBucket chars;
+    private final Map<Priority, long[]> counters = new EnumMap<>(Priority.class);
+
+    public RateLimiter(double requestsPerSecond, int requestBurst, double charsPerSecond, int charBurst) {
+        this(requestsPerSecond, requestBurst, charsPerSecond, charBurst, Clock.SYSTEM);
+    }
+
+    public RateLimiter(double requestsPerSecond, int requestBurst, double charsPerSecond, int charBurst,
+            Clock clock) {
+        this.requests = new TokenBucket(requestBurst, requestsPerSecond, clock);
+        this.chars = new TokenBucket(charBurst, charsPerSecond, clock);
+        for (Priority priority : Priority.values()) {
+            // [concedidas, rechazadas]
+            counters.put(priority, new long[2]);
+        }
+    }
+
+    /**
+     * Consulta sin consumir: sirve para no hacer OCR de un frame cuya
+     * traducción se rechazaría de todos modos.
+     */
+    public synchronized boolean hasCapacity(Priority priority, int charCount) {
+        double reserve = reserveFraction(priority);
+        return requests.canTake(1, reserve) && chars.canTake(cappedChars(charCount), reserve);
+    }
+
+    /**
+     * Consume una petición de charCount caracteres si la prioridad tiene
+     * presupuesto. INTERACTIVE siempre pasa.
+     */
+    public synchronized boolean tryAcquire(Priority priority, int charCount) {
+        int cost = cappedChars(charCount);
+        if (priority != Priority.INTERACTIVE && !hasCapacity(priority, charCount)) {
+            counters.get(priority)[1]++;
+            return false;
+        }
+        requests.take(1);
+        chars.take(cost);
+        counters.get(priority)[0]++;
+        return true;
+    }
+
+    // Un texto más largo que la ráfaga entera no podría pasar nunca
+    private int cappedChars(int charCount) {
+        return Math.min(charCount, chars.capacity);
+    }
+
+    private static double reserveFraction(Priority priority) {
+        switch (priority) {
+            case INTERACTIVE:
+                return 0;
+            case PREFETCH:
+                return 0.6;
+            default:
+                return 0.3;
+        }
+    }
+
+    public synchronized long getGrantedCount(Priority priority) {
+        return counters.get(priority)[0];
+    }
+
+    public synchronized long getShedCount(Priority priority) {
+        return counters.get(priority)[1];
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("RateLimiter{requests=")
+                .append(Math.round(requests.available())).append('/').append(requests.capacity)
+                .append(", chars=").append(Math.round(chars.available())).append('/').append(chars.capacity);
+        for (Priority priority : Priority.values()) {
+            long[] count = counters.get(priority);
+            builder.append(", ").append(priority).append("=").append(count[0]).append("/-").append(count[1]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private static class TokenBucket {
+        final int capacity;
+        final double refillPerMilli;
+        final Clock clock;
+        double tokens;
+        long lastRefill;
+
+        TokenBucket(int capacity, double refillPerSecond, Clock clock) {
+            this.capacity = capacity;
+            this.refillPerMilli = refillPerSecond / 1000.0;
+            this.clock = clock;
+            this.tokens = capacity;
+            this.lastRefill = clock.nowMillis();
+        }
+
+        double available() {
+            long now = clock.nowMillis();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMilli);
+            lastRefill = now;
+            return tokens;
+        }
+
+        boolean canTake(int amount, double reserveFraction) {
+            return available() - amount >= capacity * reserveFraction;
+        }
+
+        // Puede quedar en negativo (deuda de INTERACTIVE); se recupera al rellenar
+        void take(int amount) {
+            available();
+            tokens = Math.max(tokens - amount, -capacity);
+        }
+    }
+}
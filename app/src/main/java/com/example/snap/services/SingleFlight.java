@@ -0,0 +1,141 @@
+package com.example.snap.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+
+/**
+ * Agrupa peticiones idénticas que están en vuelo a la vez.
+ * La primera lanza la llamada; las siguientes con la misma clave se enganchan
+ * a ella y reciben el mismo resultado o error.
+ */
+public class SingleFlight {
+
+    private static volatile SingleFlight INSTANCE;
+
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    private long coalescedCount = 0;
+
+    /**
+     * Una llamada de red y todos los que esperan su resultado.
+     * Se usa como token para completar justo esa llamada y no otra posterior
+     * con la misma clave.
+     */
+    public static class Flight {
+        private final String key;
+        private final List<NetworkTranslationService.TranslationCallback> waiting = new ArrayList<>();
+        private Call<?> call;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+    }
+
+    public static SingleFlight getInstance() {
+        if (INSTANCE == null) {
+            synchronized (SingleFlight.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SingleFlight();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public static String keyFor(String sourceLang, String targetLang, String text) {
+        return sourceLang + "|" + targetLang + "|" + text;
+    }
+
+    /**
+     * Registra el callback para la clave.
+     *
+     * @return la nueva Flight si no había ninguna petición en vuelo y el llamante
+     * debe lanzarla, o null si se enganchó a una existente
+     */
+    public synchronized Flight join(String key, NetworkTranslationService.TranslationCallback callback) {
+        Flight flight = inFlight.get(key);
+        if (flight != null) {
+            flight.waiting.add(callback);
+            coalescedCount++;
+            return null;
+        }
+
+        flight = new Flight(key);
+        flight.waiting.add(callback);
+        inFlight.put(key, flight);
+        return flight;
+    }
+
+    /**
+     * Asocia la llamada de red para poder cancelarla.
+     * Si ya nadie la espera, se cancela en el acto.
+     */
+    public void attach(Flight flight, Call<?> call) {
+        synchronized (this) {
+            if (inFlight.get(flight.key) == flight) {
+                flight.call = call;
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    /**
+     * Desengancha un callback. Si era el último, la llamada se cancela.
+     */
+    public void leave(String key, NetworkTranslationService.TranslationCallback callback) {
+        Call<?> toCancel = null;
+        synchronized (this) {
+            Flight flight = inFlight.get(key);
+            if (flight == null || !flight.waiting.remove(callback)) {
+                return;
+            }
+            if (flight.waiting.isEmpty()) {
+                inFlight.remove(key);
+                toCancel = flight.call;
+            }
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+    }
+
+    /** true mientras alguien siga esperando el resultado de esta llamada */
+    public synchronized boolean isActive(Flight flight) {
+        return inFlight.get(flight.key) == flight;
+    }
+
+    public void complete(Flight flight, String translatedText) {
+        for (NetworkTranslationService.TranslationCallback callback : remove(flight)) {
+            callback.onSuccess(translatedText);
+        }
+    }
+
+    public void fail(Flight flight, String error) {
+        for (NetworkTranslationService.TranslationCallback callback : remove(flight)) {
+            callback.onError(error);
+        }
+    }
+
+    // Los callbacks se ejecutan fuera del lock para no bloquear otras peticiones
+    private synchronized List<NetworkTranslationService.TranslationCallback> remove(Flight flight) {
+        if (inFlight.get(flight.key) == flight) {
+            inFlight.remove(flight.key);
+        }
+        List<NetworkTranslationService.TranslationCallback> waiting = new ArrayList<>(flight.waiting);
+        flight.waiting.clear();
+        return waiting;
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /** Peticiones que se ahorraron al engancharse a otra en vuelo */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.snap.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resuelve el idioma de origen "auto" identificando el idioma en el propio
+ * dispositivo (ML Kit Language ID), sin ida y vuelta a la API.
+ *
+ * Los resultados se guardan por hash del texto normalizado, así un mismo
+ * bloque de la cámara se identifica una sola vez aunque aparezca en muchos
+ * frames. Se mide la latencia de cada identificación porque va en el camino
+ * de la cámara.
+ */
+public class SourceLanguageDetector {
+
+    /** Código de idioma de origen que pide la detección automática */
+    public static final String AUTO = "auto";
+
+    private static final int MAX_CACHED = 500;
+    // Con unas frases basta para identificar el idioma; más solo añade latencia
+    private static final int MAX_IDENTIFY_CHARS = 300;
+    // Muestras de latencia que se guardan para los percentiles
+    private static final int LATENCY_WINDOW = 200;
+
+    /** Identificador de idioma real (ML Kit en la app, uno falso en los tests) */
+    public interface Backend {
+        /** Devuelve el código ISO 639-1 o null si no se puede determinar */
+        void identify(String text, Callback callback);
+    }
+
+    public interface Callback {
+        /** languageCode es null si no se pudo determinar */
+        void onDetected(String languageCode);
+    }
+
+    private static volatile SourceLanguageDetector INSTANCE;
+
+    private final Backend backend;
+    private final Clock clock;
+
+    // Hash del texto -> código detectado ("" si no se pudo determinar)
+    private final LinkedHashMap<Long, String> cache = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private final ArrayDeque<Long> latencies = new ArrayDeque<>();
+    private long hitCount = 0;
+    private long detectionCount = 0;
+    private long undeterminedCount = 0;
+
+    public static SourceLanguageDetector getInstance() {
+        if (INSTANCE == null) {
+            synchronized (SourceLanguageDetector.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SourceLanguageDetector(MLKitLanguageDetector.getInstance(), Clock.SYSTEM);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    SourceLanguageDetector(Backend backend, Clock clock) {
+        this.backend = backend;
+        this.clock = clock;
+    }
+
+    public static boolean isAuto(String languageCode) {
+        return AUTO.equals(languageCode);
+    }
+
+    /**
+     * Si sourceLang es "auto" identifica el idioma del texto; si no, lo devuelve
+     * tal cual al momento. Si no se puede determinar se devuelve "auto" (la API
+     * lo acepta y ML Kit lo descarta al enrutar).
+     */
+    public void resolve(String text, String sourceLang, Callback callback) {
+        if (!isAuto(sourceLang)) {
+            callback.onDetected(sourceLang);
+            return;
+        }
+        detect(text, languageCode -> callback.onDetected(languageCode != null ? languageCode : AUTO));
+    }
+
+    /** Identifica el idioma del texto; el callback puede llegar en otro hilo */
+    public void detect(String text, Callback callback) {
+        String normalized = TranslationCache.normalize(text);
+        if (normalized.isEmpty()) {
+            callback.onDetected(null);
+            return;
+        }
+
+        long key = hash(normalized);
+        synchronized (this) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                hitCount++;
+                callback.onDetected(cached.isEmpty() ? null : cached);
+                return;
+            }
+        }
+
+        long start = clock.nowMillis();
+        String sample = normalized.length() > MAX_IDENTIFY_CHARS
+                ? normalized.substring(0, MAX_IDENTIFY_CHARS) : normalized;
+        backend.identify(sample, languageCode -> {
+            synchronized (this) {
+                cache.put(key, languageCode != null ? languageCode : "");
+                detectionCount++;
+                if (languageCode == null) {
+                    undeterminedCount++;
+                }
+                latencies.addLast(clock.nowMillis() - start);
+                if (latencies.size() > LATENCY_WINDOW) {
+                    latencies.pollFirst();
+                }
+            }
+            callback.onDetected(languageCode);
+        });
+    }
+
+    /**
+     * Latencia de identificación (sin contar aciertos de caché) en el percentil dado, 0 si aún no hay muestras
+     */
+    public synchronized long getLatencyPercentile(double fraction) {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        long[] values = new long[latencies.size()];
+        int i = 0;
+        for (long latency : latencies) {
+            values[i++] = latency;
+        }
+        Arrays.sort(values);
+        return values[(int) Math.min(values.length - 1, Math.floor(fraction * values.length))];
+    }
+
+    /** FNV-1a de 64 bits: clave compacta para textos largos de la cámara */
+    static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SourceLanguageDetector{detections=" + detectionCount + ", cacheHits=" + hitCount
+                + ", undetermined=" + undeterminedCount + ", p50=" + getLatencyPercentile(0.5) + "ms"
+                + ", p95=" + getLatencyPercentile(0.95) + "ms}";
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.snap.services;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parte un texto largo en trozos de tamaño acotado cortando por frases,
+ * para poder traducirlos en paralelo y mostrarlos según van llegando.
+ */
+public final class TextChunker {
+
+    /** Un trozo a traducir y el espacio que lo separaba del siguiente */
+    public static class Chunk {
+        public final String text;
+        public final String separator;
+
+        Chunk(String text, String separator) {
+            this.text = text;
+            this.separator = separator;
+        }
+    }
+
+    private TextChunker() {}
+
+    public static List<Chunk> split(String text, int maxChars) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return chunks;
+        }
+
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+        sentences.setText(text);
+
+        StringBuilder current = new StringBuilder();
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = text.substring(start, end);
+
+            if (current.length() > 0 && current.length() + sentence.trim().length() > maxChars) {
+                addChunk(chunks, current.toString());
+                current.setLength(0);
+            }
+
+            // Una frase más larga que el límite se corta por palabras (o a lo bruto si no hay espacios)
+            while (sentence.trim().length() > maxChars) {
+                int cut = lastWhitespace(sentence, maxChars);
+                int next = cut;
+                if (cut <= 0) {
+                    cut = maxChars;
+                    next = maxChars;
+                } else {
+                    // El espacio (o los saltos de línea) se quedan como separador del trozo
+                    while (next < sentence.length() && Character.isWhitespace(sentence.charAt(next))) {
+                        next++;
+                    }
+                }
+                addChunk(chunks, sentence.substring(0, next));
+                sentence = sentence.substring(next);
+            }
+            current.append(sentence);
+        }
+
+        if (current.length() > 0) {
+            addChunk(chunks, current.toString());
+        }
+        return chunks;
+    }
+
+    private static int lastWhitespace(String text, int from) {
+        for (int i = Math.min(from, text.length() - 1); i >= 0; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Separa el texto del espacio final; los saltos de línea se conservan tal cual
+    private static void addChunk(List<Chunk> chunks, String raw) {
+        int end = raw.length();
+        while (end > 0 && Character.isWhitespace(raw.charAt(end - 1))) {
+            end--;
+        }
+        String trailing = raw.substring(end);
+        String body = raw.substring(0, end).trim();
+        if (body.isEmpty()) {
+            return;
+        }
+
+        // Sin espacio detrás (corte dentro de una palabra o texto CJK) no se añade ninguno
+        String separator = trailing.contains("\n") ? trailing.replaceAll("[^\\n]", "")
+                : trailing.isEmpty() ? "" : " ";
+        chunks.add(new Chunk(body, separator));
+    }
+}
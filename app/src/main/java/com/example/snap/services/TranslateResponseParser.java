@@ -0,0 +1,92 @@
+package com.example.snap.services;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Parsers de la respuesta de translate_a/single.
+ * Google devuelve array de arrays: [[["Translated", "Original", ...], ...], ...]
+ * y solo nos interesa el elemento [0][i][0] de cada frase.
+ */
+public final class TranslateResponseParser {
+
+    private TranslateResponseParser() {}
+
+    /**
+     * Lee el cuerpo en streaming y concatena solo [0][i][0]; el resto del
+     * payload (idioma detectado, alternativas...) ni siquiera se lee.
+     *
+     * @return el texto traducido, o null si la respuesta viene vacía
+     */
+    public static String parseStreaming(Reader body) throws IOException {
+        try {
+            return readSentences(new JsonReader(body));
+        } catch (IllegalStateException e) {
+            // Gson avisa así de una estructura distinta a la esperada
+            throw new IOException("Respuesta inesperada: " + e.getMessage(), e);
+        }
+    }
+
+    private static String readSentences(JsonReader reader) throws IOException {
+        reader.beginArray();
+        if (!reader.hasNext()) {
+            return null;
+        }
+
+        StringBuilder translatedBuilder = new StringBuilder();
+        reader.beginArray(); // [0]: lista de frases
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray(); // [0][i]: una frase
+            if (reader.hasNext()) {
+                if (reader.peek() == JsonToken.STRING) {
+                    translatedBuilder.append(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+        }
+        reader.endArray();
+
+        return translatedBuilder.toString();
+    }
+
+    /**
+     * Versión con árbol completo de org.json (la implementación original).
+     * Se conserva como referencia para los tests de paridad.
+     *
+     * @return el texto traducido, o null si la respuesta viene vacía
+     */
+    public static String parseTree(String json) throws JSONException {
+        JSONArray jsonArray = new JSONArray(json);
+        if (jsonArray.length() == 0) {
+            return null;
+        }
+
+        JSONArray sentences = jsonArray.getJSONArray(0);
+        StringBuilder translatedBuilder = new StringBuilder();
+
+        for (int i = 0; i < sentences.length(); i++) {
+            JSONArray sentence = sentences.getJSONArray(i);
+            if (sentence.length() > 0) {
+                translatedBuilder.append(sentence.getString(0));
+            }
+        }
+
+        return translatedBuilder.toString();
+    }
+}
@@ -2,7 +2,10 @@ package com.example.snap.services;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.http.Field;
+import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.POST;
 import retrofit2.http.Query;
 
 public interface TranslationApiService {
@@ -13,4 +16,17 @@ public interface TranslationApiService {
             @Query("tl") String targetLang,
             @Query("dt") String dt,
             @Query("q") String text);
-}
\ No newline at end of file
+
+    /**
+     * Misma petición con el texto en el cuerpo (form-urlencoded).
+     * Para textos largos: no choca con el límite de longitud de la URL.
+     */
+    @FormUrlEncoded
+    @POST("translate_a/single")
+    Call<ResponseBody> translatePost(
+            @Query("client") String client,
+            @Query("sl") String sourceLang,
+            @Query("tl") String targetLang,
+            @Query("dt") String dt,
+            @Field("q") String text);
+}
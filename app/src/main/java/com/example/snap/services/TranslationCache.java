@@ -0,0 +1,130 @@
+package com.example.snap.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché LRU en memoria de traducciones, compartida por todo el proceso.
+ * La clave es (idioma origen, idioma destino, texto normalizado) y el tamaño
+ * se limita tanto por número de entradas como por caracteres totales.
+ */
+public class TranslationCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 500;
+    private static final int DEFAULT_MAX_CHARS = 200_000;
+
+    private static volatile TranslationCache INSTANCE;
+
+    private final int maxEntries;
+    private final int maxChars;
+
+    // accessOrder = true: el último leído pasa al final, el primero es el menos usado
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int totalChars = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public TranslationCache(int maxEntries, int maxChars) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+
+    public static TranslationCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (TranslationCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TranslationCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARS);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Normaliza el texto para que "Hola  mundo " y "Hola mundo" compartan entrada
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    public static String keyFor(String sourceLang, String targetLang, String text) {
+        return sourceLang + "|" + targetLang + "|" + normalize(text);
+    }
+
+    /**
+     * Devuelve la traducción guardada o null si no está en caché
+     */
+    public synchronized String get(String sourceLang, String targetLang, String text) {
+        String value = entries.get(keyFor(sourceLang, targetLang, text));
+        if (value != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Indica si hay entrada sin contar acierto/fallo ni alterar el orden LRU
+     */
+    public synchronized boolean contains(String sourceLang, String targetLang, String text) {
+        return entries.containsKey(keyFor(sourceLang, targetLang, text));
+    }
+
+    public synchronized void put(String sourceLang, String targetLang, String text, String translatedText) {
+        if (translatedText == null) {
+            return;
+        }
+
+        String key = keyFor(sourceLang, targetLang, text);
+        int size = key.length() + translatedText.length();
+        // Una entrada más grande que toda la caché no se guarda
+        if (size > maxChars) {
+            return;
+        }
+
+        String previous = entries.put(key, translatedText);
+        if (previous != null) {
+            totalChars -= key.length() + previous.length();
+        }
+        totalChars += size;
+
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalChars > maxChars) && iterator.hasNext()) {
+            Map.Entry<String, String> eldest = iterator.next();
+            totalChars -= eldest.getKey().length() + eldest.getValue().length();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalChars = 0;
+    }
+
+    // --- Estadísticas ---
+
+    public synchronized long getHitCount() { return hitCount; }
+
+    public synchronized long getMissCount() { return missCount; }
+
+    public synchronized long getEvictionCount() { return evictionCount; }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized int getTotalChars() { return totalChars; }
+
+    @Override
+    public synchronized String toString() {
+        return "TranslationCache{entries=" + entries.size() + ", chars=" + totalChars
+                + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+    }
+}
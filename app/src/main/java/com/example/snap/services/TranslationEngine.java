@@ -0,0 +1,76 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.List;
+
+/**
+ * Motor de traducción asíncrono. Lo implementan la API HTTP
+ * (NetworkTranslationService), ML Kit (MLKitTranslationEngine), la caché
+ * (CachedTranslationEngine) y el enrutado entre ambos
+ * (CompositeTranslationEngine). Todas las pantallas traducen a través de él.
+ *
+ * Los callbacks pueden llegar en cualquier hilo.
+ */
+public interface TranslationEngine {
+
+    interface Callback {
+        void onSuccess(String translatedText);
+
+        void onError(String error);
+
+        /**
+         * Como onSuccess, diciendo si la traducción viene de la API. Solo esas
+         * se guardan en las cachés; lo de ML Kit se muestra pero no se guarda.
+         */
+        default void onSuccess(String translatedText, boolean fromApi) {
+            onSuccess(translatedText);
+        }
+    }
+
+    interface BatchCallback {
+        /** Las traducciones llegan en el mismo orden que los textos de entrada */
+        void onSuccess(List<String> translatedTexts);
+
+        void onError(String error);
+
+        /** Como onSuccess, diciendo si el lote viene de la API */
+        default void onSuccess(List<String> translatedTexts, boolean fromApi) {
+            onSuccess(translatedTexts);
+        }
+    }
+
+    interface StreamingCallback extends Callback {
+        /** Traducción de las partes ya completadas, en orden y sin huecos */
+        void onPartial(String translatedSoFar);
+    }
+
+    /** Nombre corto para logs y benchmarks */
+    String getName();
+
+    /** El motor puede traducir este par de idiomas */
+    boolean supports(String sourceLang, String targetLang);
+
+    /** Puede traducir ya, sin descargas previas (p. ej. modelo de ML Kit presente) */
+    default boolean isReady(String sourceLang, String targetLang) {
+        return supports(sourceLang, targetLang);
+    }
+
+    /**
+     * @return handle para cancelar la traducción si deja de interesar
+     */
+    TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+            Callback callback);
+
+    TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang, Priority priority,
+            BatchCallback callback);
+
+    /**
+     * Como translate, pero un motor que trocee textos largos puede ir entregando
+     * partes. Por defecto no hay parciales.
+     */
+    default TranslationHandle translateStreaming(String text, String sourceLang, String targetLang,
+            Priority priority, StreamingCallback callback) {
+        return translate(text, sourceLang, targetLang, priority, callback);
+    }
+}
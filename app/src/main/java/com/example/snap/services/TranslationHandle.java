@@ -0,0 +1,52 @@
+package com.example.snap.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Referencia a una traducción en curso que el llamante puede cancelar.
+ * Al cancelar, el callback ya no se invoca y se liberan las llamadas de red
+ * que nadie más esté esperando.
+ */
+public class TranslationHandle {
+
+    private final List<Runnable> cancelActions = new ArrayList<>();
+    private boolean cancelled = false;
+
+    /** Handle de una petición que terminó sin llegar a la red (p. ej. acierto de caché) */
+    public static TranslationHandle completed() {
+        return new TranslationHandle();
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registra qué hacer al cancelar. Si ya está cancelado se ejecuta al momento.
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                cancelActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    public void cancel() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            actions = new ArrayList<>(cancelActions);
+            cancelActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+}
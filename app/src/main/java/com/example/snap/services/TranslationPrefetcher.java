@@ -0,0 +1,130 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Precarga especulativa: al cambiar de idioma traduce en segundo plano los
+ * textos que probablemente se pidan (frases rápidas, lo más repetido del
+ * historial) y los deja en la TranslationCache en memoria, así el toque en
+ * un chip se responde sin ir a la red.
+ *
+ * Va con prioridad PREFETCH, en un único lote, y una precarga nueva cancela
+ * la anterior (ya no interesa el par de idiomas de antes). El motor debe ser
+ * el de la API (NetworkTranslationService), no el compuesto con ML Kit: todo
+ * lo que se precarga acaba en caché.
+ */
+public class TranslationPrefetcher {
+
+    // Tope de textos por precarga para no gastar presupuesto de API en especulación
+    static final int MAX_TEXTS = 20;
+
+    /** Recibe cada traducción precargada (p. ej. para guardarla también en Room) */
+    public interface Listener {
+        void onPrefetched(String text, String translatedText);
+    }
+
+    private final TranslationEngine engine;
+    private final TranslationCache cache;
+    private final LatestRequest current = new LatestRequest();
+
+    private long requestedCount = 0;
+    private long alreadyCachedCount = 0;
+    private long prefetchedCount = 0;
+    private long failedBatches = 0;
+
+    public TranslationPrefetcher(TranslationEngine engine, TranslationCache cache) {
+        this.engine = engine;
+        this.cache = cache;
+    }
+
+    /**
+     * Precarga los textos que falten en caché para el par dado.
+     *
+     * @param listener puede ser null
+     * @return handle del lote, o uno ya completado si no hacía falta pedir nada
+     */
+    public TranslationHandle prefetch(Collection<String> texts, String sourceLang, String targetLang,
+            Listener listener) {
+        if (sourceLang.equals(targetLang)) {
+            current.cancel();
+            return TranslationHandle.completed();
+        }
+
+        Set<String> unique = new LinkedHashSet<>();
+        for (String text : texts) {
+            String normalized = TranslationCache.normalize(text);
+            if (!normalized.isEmpty()) {
+                unique.add(normalized);
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        synchronized (this) {
+            for (String text : unique) {
+                if (missing.size() == MAX_TEXTS) {
+                    break;
+                }
+                requestedCount++;
+                if (cache.contains(sourceLang, targetLang, text)) {
+                    alreadyCachedCount++;
+                } else {
+                    missing.add(text);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            current.cancel();
+            return TranslationHandle.completed();
+        }
+
+        TranslationHandle handle = new TranslationHandle();
+        current.replace(handle);
+        TranslationHandle batchHandle = engine.translateBatch(missing, sourceLang, targetLang, Priority.PREFETCH,
+                new TranslationEngine.BatchCallback() {
+                    @Override
+                    public void onSuccess(List<String> translatedTexts) {
+                        int stored = 0;
+                        for (int i = 0; i < missing.size(); i++) {
+                            String translated = translatedTexts.get(i);
+                            if (translated == null || translated.isEmpty()) {
+                                continue;
+                            }
+                            cache.put(sourceLang, targetLang, missing.get(i), translated);
+                            if (listener != null) {
+                                listener.onPrefetched(missing.get(i), translated);
+                            }
+                            stored++;
+                        }
+                        synchronized (TranslationPrefetcher.this) {
+                            prefetchedCount += stored;
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        synchronized (TranslationPrefetcher.this) {
+                            failedBatches++;
+                        }
+                    }
+                });
+        handle.onCancel(batchHandle::cancel);
+        return handle;
+    }
+
+    /** Cancela la precarga en curso, si la hay */
+    public void cancel() {
+        current.cancel();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TranslationPrefetcher{requested=" + requestedCount + ", alreadyCached=" + alreadyCachedCount
+                + ", prefetched=" + prefetchedCount + ", failedBatches=" + failedBatches + "}";
+    }
+}
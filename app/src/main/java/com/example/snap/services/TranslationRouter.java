@@ -0,0 +1,251 @@
+package com.example.snap.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decide, petición a petición, si traducir con la API o con ML Kit en el
+ * dispositivo, buscando la menor latencia esperada.
+ *
+ * La API se estima con sus percentiles recientes y su tasa de fallos (un fallo
+ * cuesta el timeout más la traducción local de respaldo); ML Kit con su propia
+ * mediana, o con el coste de descargar el modelo si aún no lo está. La API
+ * tiene preferencia por calidad salvo que ML Kit sea claramente más rápido.
+ */
+public class TranslationRouter {
+
+    public enum Route {
+        API,
+        ON_DEVICE
+    }
+
+    public enum Connectivity {
+        ONLINE,
+        // Red sin validar o con poco ancho de banda
+        CONSTRAINED,
+        OFFLINE
+    }
+
+    // Ventana de muestras de latencia
+    private static final int WINDOW_SIZE = 50;
+    private static final long WINDOW_MAX_AGE_MS = 60_000;
+
+    // Estimaciones cuando aún no hay muestras
+    private static final long DEFAULT_API_MS = 400;
+    private static final long DEFAULT_ON_DEVICE_MS = 150;
+    private static final long MODEL_DOWNLOAD_MS = 15_000;
+    // Con red limitada la API suele tardar bastante más
+    private static final double CONSTRAINED_PENALTY = 2.0;
+    // ML Kit solo gana si es al menos esto más rápido (la API traduce mejor)
+    private static final long API_PREFERENCE_MS = 300;
+    // Si hace tanto que no usamos la API, la probamos para refrescar sus estadísticas
+    private static final long PROBE_INTERVAL_MS = 30_000;
+
+    private static final int DECISION_LOG_SIZE = 20;
+
+    private static volatile TranslationRouter INSTANCE;
+
+    private final Clock clock;
+    private final ArrayDeque<Sample> apiSamples = new ArrayDeque<>();
+    private final ArrayDeque<Sample> onDeviceSamples = new ArrayDeque<>();
+    private final ArrayDeque<Decision> decisions = new ArrayDeque<>();
+    private Connectivity connectivity = Connectivity.ONLINE;
+    private long lastApiSampleAt = 0;
+    private long apiRoutes = 0;
+    private long onDeviceRoutes = 0;
+
+    private static class Sample {
+        final long at;
+        final long latencyMs;
+        final boolean success;
+
+        Sample(long at, long latencyMs, boolean success) {
+            this.at = at;
+            this.latencyMs = latencyMs;
+            this.success = success;
+        }
+    }
+
+    /** Una decisión de enrutado y por qué se tomó */
+    public static class Decision {
+        public final long at;
+        public final Route route;
+        public final String reason;
+        public final long apiExpectedMs;
+        public final long onDeviceExpectedMs;
+
+        Decision(long at, Route route, String reason, long apiExpectedMs, long onDeviceExpectedMs) {
+            this.at = at;
+            this.route = route;
+            this.reason = reason;
+            this.apiExpectedMs = apiExpectedMs;
+            this.onDeviceExpectedMs = onDeviceExpectedMs;
+        }
+
+        @Override
+        public String toString() {
+            return route + " (" + reason + ", api=" + apiExpectedMs + "ms, local=" + onDeviceExpectedMs + "ms)";
+        }
+    }
+
+    public static TranslationRouter getInstance() {
+        if (INSTANCE == null) {
+            synchronized (TranslationRouter.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TranslationRouter(Clock.SYSTEM);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public TranslationRouter(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param onDeviceSupported el par de idiomas existe en ML Kit
+     * @param onDeviceReady     el modelo ya está descargado
+     */
+    public synchronized Route choose(boolean onDeviceSupported, boolean onDeviceReady) {
+        long now = clock.nowMillis();
+        prune(now);
+
+        long onDeviceExpected = onDeviceReady
+                ? percentile(onDeviceSamples, 0.5, DEFAULT_ON_DEVICE_MS)
+                : MODEL_DOWNLOAD_MS;
+        long apiExpected = expectedApiLatency(onDeviceExpected);
+
+        if (!onDeviceSupported) {
+            return record(now, Route.API, "sin soporte local", apiExpected, onDeviceExpected);
+        }
+        if (connectivity == Connectivity.OFFLINE) {
+            return record(now, Route.ON_DEVICE, "sin conexión", apiExpected, onDeviceExpected);
+        }
+        if (onDeviceExpected + API_PREFERENCE_MS >= apiExpected) {
+            return record(now, Route.API, "API más rápida o similar", apiExpected, onDeviceExpected);
+        }
+        if (now - lastApiSampleAt > PROBE_INTERVAL_MS) {
+            return record(now, Route.API, "sonda", apiExpected, onDeviceExpected);
+        }
+        return record(now, Route.ON_DEVICE, "ML Kit más rápido", apiExpected, onDeviceExpected);
+    }
+
+    /**
+     * Latencia esperada de la API: la mediana si va bien, y si falla el p90
+     * (normalmente un timeout) más la traducción local de respaldo.
+     */
+    private long expectedApiLatency(long onDeviceExpected) {
+        long p50 = percentile(apiSamples, 0.5, DEFAULT_API_MS);
+        long p90 = percentile(apiSamples, 0.9, DEFAULT_API_MS);
+        double failureRate = failureRate();
+
+        double expected = (1 - failureRate) * p50 + failureRate * (p90 + onDeviceExpected);
+        if (connectivity == Connectivity.CONSTRAINED) {
+            expected *= CONSTRAINED_PENALTY;
+        }
+        return Math.round(expected);
+    }
+
+    private Route record(long now, Route route, String reason, long apiExpected, long onDeviceExpected) {
+        decisions.addLast(new Decision(now, route, reason, apiExpected, onDeviceExpected));
+        if (decisions.size() > DECISION_LOG_SIZE) {
+            decisions.pollFirst();
+        }
+        if (route == Route.API) {
+            apiRoutes++;
+        } else {
+            onDeviceRoutes++;
+        }
+        return route;
+    }
+
+    public synchronized void recordApiResult(long latencyMs, boolean success) {
+        long now = clock.nowMillis();
+        lastApiSampleAt = now;
+        add(apiSamples, new Sample(now, latencyMs, success));
+    }
+
+    public synchronized void recordOnDeviceResult(long latencyMs) {
+        add(onDeviceSamples, new Sample(clock.nowMillis(), latencyMs, true));
+    }
+
+    public synchronized void onConnectivityChanged(Connectivity connectivity) {
+        this.connectivity = connectivity;
+    }
+
+    private void add(ArrayDeque<Sample> samples, Sample sample) {
+        samples.addLast(sample);
+        if (samples.size() > WINDOW_SIZE) {
+            samples.pollFirst();
+        }
+    }
+
+    private void prune(long now) {
+        while (!apiSamples.isEmpty() && now - apiSamples.peekFirst().at > WINDOW_MAX_AGE_MS) {
+            apiSamples.pollFirst();
+        }
+        while (!onDeviceSamples.isEmpty() && now - onDeviceSamples.peekFirst().at > WINDOW_MAX_AGE_MS) {
+            onDeviceSamples.pollFirst();
+        }
+    }
+
+    private static long percentile(ArrayDeque<Sample> samples, double fraction, long fallback) {
+        if (samples.isEmpty()) {
+            return fallback;
+        }
+        long[] values = new long[samples.size()];
+        int i = 0;
+        for (Sample sample : samples) {
+            values[i++] = sample.latencyMs;
+        }
+        Arrays.sort(values);
+        return values[(int) Math.min(values.length - 1, Math.floor(fraction * values.length))];
+    }
+
+    private double failureRate() {
+        if (apiSamples.isEmpty()) {
+            return 0;
+        }
+        int failures = 0;
+        for (Sample sample : apiSamples) {
+            if (!sample.success) {
+                failures++;
+            }
+        }
+        return (double) failures / apiSamples.size();
+    }
+
+    public synchronized long getApiLatencyPercentile(double fraction) {
+        prune(clock.nowMillis());
+        return percentile(apiSamples, fraction, DEFAULT_API_MS);
+    }
+
+    public synchronized double getApiFailureRate() {
+        prune(clock.nowMillis());
+        return failureRate();
+    }
+
+    public synchronized Connectivity getConnectivity() {
+        return connectivity;
+    }
+
+    /** Últimas decisiones, de la más antigua a la más reciente */
+    public synchronized List<Decision> getRecentDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    @Override
+    public synchronized String toString() {
+        prune(clock.nowMillis());
+        return "TranslationRouter{connectivity=" + connectivity
+                + ", apiP50=" + percentile(apiSamples, 0.5, DEFAULT_API_MS) + "ms"
+                + ", apiP90=" + percentile(apiSamples, 0.9, DEFAULT_API_MS) + "ms"
+                + ", apiFailures=" + Math.round(failureRate() * 100) + "%"
+                + ", localP50=" + percentile(onDeviceSamples, 0.5, DEFAULT_ON_DEVICE_MS) + "ms"
+                + ", routes=API:" + apiRoutes + "/local:" + onDeviceRoutes
+                + ", last=" + decisions.peekLast() + "}";
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.snap.services;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Planificador único para todo el trabajo en segundo plano de la app
+ * (traducción, Room, login). Sustituye a los newSingleThreadExecutor() que
+ * creaba cada servicio, repositorio y actividad.
+ *
+ * Las tareas se ordenan por prioridad: lo que pide el usuario (texto, voz)
+ * va antes que la cámara, y la cámara antes que el almacenamiento y la
+ * precarga. Un hilo queda reservado para INTERACTIVE, así una petición
+ * explícita nunca espera detrás de los bloques de un frame.
+ */
+public class TranslationScheduler {
+
+    public enum Priority {
+        // capacidad de la cola, espera máxima en cola (0 = sin caducidad), si al llenarse se descarta la más antigua
+        INTERACTIVE(100, 0, false),
+        CAMERA(20, 1500, true),
+        STORAGE(500, 0, false),
+        PREFETCH(50, 10_000, true);
+
+        final int capacity;
+        final long maxQueueMillis;
+        final boolean dropOldest;
+
+        Priority(int capacity, long maxQueueMillis, boolean dropOldest) {
+            this.capacity = capacity;
+            this.maxQueueMillis = maxQueueMillis;
+            this.dropOldest = dropOldest;
+        }
+    }
+
+    private static final int WORKER_COUNT = 4;
+
+    private static final Logger LOG = Logger.getLogger("TranslationScheduler");
+
+    private static volatile TranslationScheduler INSTANCE;
+
+    private final Map<Priority, ArrayDeque<Task>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Stats> stats = new EnumMap<>(Priority.class);
+    // Un único hilo de temporizador para los reintentos diferidos
+    private final ScheduledExecutorService timer;
+
+    private static class Task {
+        final Runnable runnable;
+        final Runnable onDiscarded;
+        final long enqueuedAt;
+
+        Task(Runnable runnable, Runnable onDiscarded, long enqueuedAt) {
+            this.runnable = runnable;
+            this.onDiscarded = onDiscarded;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    public static TranslationScheduler getInstance() {
+        if (INSTANCE == null) {
+            synchronized (TranslationScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TranslationScheduler(WORKER_COUNT);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    TranslationScheduler(int workers) {
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            stats.put(priority, new Stats());
+        }
+
+        for (int i = 0; i < workers; i++) {
+            // El primer hilo solo atiende INTERACTIVE
+            Priority lowest = i == 0 ? Priority.INTERACTIVE : Priority.PREFETCH;
+            Thread worker = new Thread(() -> workLoop(lowest), "snap-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snap-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void execute(Priority priority, Runnable runnable) {
+        execute(priority, runnable, null);
+    }
+
+    /**
+     * Encola una tarea. Si la cola de su prioridad está llena, en CAMERA y
+     * PREFETCH se descarta la más antigua; en el resto se rechaza la nueva.
+     *
+     * @param onDiscarded se ejecuta si la tarea no llega a correr (caducada,
+     *                    descartada o rechazada). Si es null, el rechazo lanza
+     *                    RejectedExecutionException.
+     */
+    public void execute(Priority priority, Runnable runnable, Runnable onDiscarded) {
+        enqueue(priority, new Task(runnable, onDiscarded, now()), true);
+    }
+
+    private void enqueue(Priority priority, Task task, boolean bounded) {
+        Task discarded = null;
+        synchronized (this) {
+            ArrayDeque<Task> queue = queues.get(priority);
+            Stats priorityStats = stats.get(priority);
+            if (bounded && queue.size() >= priority.capacity) {
+                if (priority.dropOldest) {
+                    discarded = queue.pollFirst();
+                    priorityStats.dropped++;
+                } else {
+                    priorityStats.rejected++;
+                    if (task.onDiscarded == null) {
+                        throw new RejectedExecutionException("Cola " + priority + " llena");
+                    }
+                    discarded = task;
+                }
+            }
+            if (discarded != task) {
+                queue.addLast(task);
+                priorityStats.submitted++;
+                notifyAll();
+            }
+        }
+        notifyDiscarded(discarded);
+    }
+
+    /**
+     * Ejecuta la tarea en el hilo del temporizador pasado el retardo.
+     * Solo para trabajo ligero, como volver a encolar una petición.
+     */
+    public void executeDelayed(Runnable runnable, long delayMillis) {
+        timer.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Vista de Executor con una prioridad fija */
+    public Executor executor(Priority priority) {
+        return runnable -> execute(priority, runnable);
+    }
+
+    /**
+     * Executor que ejecuta sus tareas de una en una y en orden, como el
+     * newSingleThreadExecutor() de los repositorios, pero sin hilo propio.
+     */
+    public Executor serialExecutor(Priority priority) {
+        // Si una tarea se descartara, la cadena se quedaría parada
+        if (priority.dropOldest || priority.maxQueueMillis > 0) {
+            throw new IllegalArgumentException("Prioridad sin garantía de ejecución: " + priority);
+        }
+        return new SerialExecutor(priority);
+    }
+
+    private void workLoop(Priority lowest) {
+        while (true) {
+            Task task;
+            Priority priority;
+            Task expired = null;
+            synchronized (this) {
+                while ((priority = nextPriority(lowest)) == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                task = queues.get(priority).pollFirst();
+
+                long waited = now() - task.enqueuedAt;
+                Stats priorityStats = stats.get(priority);
+                if (priority.maxQueueMillis > 0 && waited > priority.maxQueueMillis) {
+                    // Trabajo caducado (p. ej. un frame viejo): ya no interesa
+                    priorityStats.expired++;
+                    expired = task;
+                } else {
+                    priorityStats.executed++;
+                    priorityStats.totalWaitMillis += waited;
+                    priorityStats.maxWaitMillis = Math.max(priorityStats.maxWaitMillis, waited);
+                }
+            }
+
+            if (expired != null) {
+                notifyDiscarded(expired);
+                continue;
+            }
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                // java.util.logging y no android.util.Log: este hilo también corre en los tests de JVM
+                LOG.log(Level.SEVERE, "Error en tarea " + priority, e);
+            }
+        }
+    }
+
+    private void notifyDiscarded(Task task) {
+        if (task != null && task.onDiscarded != null) {
+            task.onDiscarded.run();
+        }
+    }
+
+    private Priority nextPriority(Priority lowest) {
+        for (Priority priority : Priority.values()) {
+            if (!queues.get(priority).isEmpty()) {
+                return priority;
+            }
+            if (priority == lowest) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+
+    public synchronized int getQueueDepth(Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    public synchronized long getAverageWaitMillis(Priority priority) {
+        Stats priorityStats = stats.get(priority);
+        return priorityStats.executed == 0 ? 0 : priorityStats.totalWaitMillis / priorityStats.executed;
+    }
+
+    public synchronized long getExpiredCount(Priority priority) {
+        return stats.get(priority).expired;
+    }
+
+    public synchronized long getDroppedCount(Priority priority) {
+        return stats.get(priority).dropped;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("TranslationScheduler{");
+        for (Priority priority : Priority.values()) {
+            Stats priorityStats = stats.get(priority);
+            builder.append(priority).append(": depth=").append(queues.get(priority).size())
+                    .append(", run=").append(priorityStats.executed)
+                    .append(", avgWait=").append(getAverageWaitMillis(priority)).append("ms")
+                    .append(", maxWait=").append(priorityStats.maxWaitMillis).append("ms")
+                    .append(", expired=").append(priorityStats.expired)
+                    .append(", dropped=").append(priorityStats.dropped).append("; ");
+        }
+        return builder.append("}").toString();
+    }
+
+    // Contadores por prioridad, protegidos por el lock del planificador
+    private static class Stats {
+        long submitted;
+        long executed;
+        long expired;
+        long dropped;
+        long rejected;
+        long totalWaitMillis;
+        long maxWaitMillis;
+    }
+
+    private class SerialExecutor implements Executor {
+        private final Priority priority;
+        private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        private boolean running = false;
+
+        SerialExecutor(Priority priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute(Runnable runnable) {
+            synchronized (this) {
+                pending.addLast(runnable);
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            scheduleNext();
+        }
+
+        private void scheduleNext() {
+            Runnable next;
+            synchronized (this) {
+                next = pending.pollFirst();
+                if (next == null) {
+                    running = false;
+                    return;
+                }
+            }
+            // Cada cadena tiene como mucho una tarea en la cola, así que no se
+            // limita: si se rechazara, la cadena se quedaría parada para siempre
+            enqueue(priority, new Task(() -> {
+                try {
+                    next.run();
+                } finally {
+                    scheduleNext();
+                }
+            }, null, now()), false);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import android.widget.Spinner;
 import androidx.annotation.Nullable;
 
 import com.example.snap.R;
+import com.example.snap.services.SourceLanguageDetector;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -33,13 +34,21 @@ public class LanguageSelector extends LinearLayout {
     // Mapa ordenado: Nombre visible -> Código ISO
     private final Map<String, String> languagesMap = new LinkedHashMap<>();
     private final List<String> languageNames = new ArrayList<>();
+    // Origen: los mismos idiomas, más "Detectar idioma" al principio si está activado
+    private final List<String> sourceLanguageNames = new ArrayList<>();
+    private ArrayAdapter<String> sourceAdapter;
+    private String autoDetectName;
+    private boolean autoDetectEnabled = false;
+    // Último idioma de origen concreto elegido: es el que se guarda aunque esté en "Detectar idioma"
+    private String lastConcreteSourceCode;
 
     private OnLanguageChangeListener listener;
 
     /**
      * Listener que notifica:
      * - códigos ISO
-     * - índices seleccionados (útil para actualizar chips u otros componentes)
+     * - índices seleccionados (útil para actualizar chips u otros componentes);
+     *   con "Detectar idioma" activado el de origen cuenta esa opción
      */
     public interface OnLanguageChangeListener {
         void onLanguageChanged(
@@ -90,6 +99,10 @@ public class LanguageSelector extends LinearLayout {
         }
 
         languageNames.addAll(languagesMap.keySet());
+        sourceLanguageNames.addAll(languageNames);
+
+        autoDetectName = getContext().getString(R.string.detectar_idioma);
+        languagesMap.put(autoDetectName, SourceLanguageDetector.AUTO);
     }
 
     private void setupSpinners(Context context) {
@@ -99,12 +112,19 @@ public class LanguageSelector extends LinearLayout {
                 languageNames);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
 
-        spinnerSourceLanguage.setAdapter(adapter);
+        sourceAdapter = new ArrayAdapter<>(
+                context,
+                android.R.layout.simple_spinner_item,
+                sourceLanguageNames);
+        sourceAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+
+        spinnerSourceLanguage.setAdapter(sourceAdapter);
         spinnerTargetLanguage.setAdapter(adapter);
 
         // Default: Español → Inglés
         spinnerSourceLanguage.setSelection(0);
         spinnerTargetLanguage.setSelection(1);
+        lastConcreteSourceCode = languagesMap.get(languageNames.get(0));
     }
 
     private void setupListeners() {
@@ -113,6 +133,7 @@ public class LanguageSelector extends LinearLayout {
         AdapterView.OnItemSelectedListener spinnerListener = new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int pos, long id) {
+                rememberConcreteSource(getSourceLangCode());
                 notifyLanguageChange();
             }
 
@@ -130,11 +151,35 @@ public class LanguageSelector extends LinearLayout {
      * La notificación se dispara automáticamente.
      */
     public void swapLanguages() {
-        int sourceIndex = spinnerSourceLanguage.getSelectedItemPosition();
-        int targetIndex = spinnerTargetLanguage.getSelectedItemPosition();
+        String sourceCode = getSourceLangCode();
+        // "Detectar idioma" no puede ser destino
+        if (SourceLanguageDetector.isAuto(sourceCode)) {
+            return;
+        }
+        setLanguages(getTargetLangCode(), sourceCode);
+    }
 
-        spinnerSourceLanguage.setSelection(targetIndex);
-        spinnerTargetLanguage.setSelection(sourceIndex);
+    /**
+     * Añade (o quita) "Detectar idioma" como primera opción de origen. Solo
+     * para pantallas que traducen texto ya escrito o reconocido; el
+     * reconocimiento de voz necesita saber el idioma de antemano.
+     */
+    public void setAutoDetectEnabled(boolean enabled) {
+        if (enabled == autoDetectEnabled) {
+            return;
+        }
+        String sourceCode = getSourceLangCode();
+        autoDetectEnabled = enabled;
+        if (enabled) {
+            sourceLanguageNames.add(0, autoDetectName);
+        } else {
+            sourceLanguageNames.remove(autoDetectName);
+            if (SourceLanguageDetector.isAuto(sourceCode)) {
+                sourceCode = languagesMap.get(languageNames.get(0));
+            }
+        }
+        sourceAdapter.notifyDataSetChanged();
+        setLanguages(sourceCode, getTargetLangCode());
     }
 
     /**
@@ -176,17 +221,19 @@ public class LanguageSelector extends LinearLayout {
     }
 
     public void setLanguages(String sourceCode, String targetCode) {
+        rememberConcreteSource(sourceCode);
         int sourceIndex = -1;
         int targetIndex = -1;
 
-        // Buscar índices
-        for (int i = 0; i < languageNames.size(); i++) {
-            String name = languageNames.get(i);
-            String code = languagesMap.get(name);
-
+        // Buscar índices (las listas de origen y destino pueden diferir en "Detectar idioma")
+        for (int i = 0; i < sourceLanguageNames.size(); i++) {
+            String code = languagesMap.get(sourceLanguageNames.get(i));
             if (code != null && code.equals(sourceCode)) {
                 sourceIndex = i;
             }
+        }
+        for (int i = 0; i < languageNames.size(); i++) {
+            String code = languagesMap.get(languageNames.get(i));
             if (code != null && code.equals(targetCode)) {
                 targetIndex = i;
             }
@@ -200,19 +247,34 @@ public class LanguageSelector extends LinearLayout {
         }
     }
 
+    private void rememberConcreteSource(String sourceCode) {
+        if (sourceCode != null && languagesMap.containsValue(sourceCode)
+                && !SourceLanguageDetector.isAuto(sourceCode)) {
+            lastConcreteSourceCode = sourceCode;
+        }
+    }
+
     /**
      * Guarda la selección actual de idiomas en SharedPreferences.
      * Se usa una clave diferente a los idiomas "por defecto" para diferenciar
      * entre la configuración inicial y la selección actual de la sesión.
+     *
+     * "Detectar idioma" va en una clave aparte y como origen se guarda el
+     * último idioma concreto, así las pantallas sin esa opción (voz) nunca
+     * cargan "auto".
      */
     public void saveCurrentLanguages() {
         android.content.SharedPreferences prefs = getContext().getSharedPreferences(
                 "current_languages", android.content.Context.MODE_PRIVATE);
         
-        prefs.edit()
-                .putString("current_source_lang", getSourceLangCode())
-                .putString("current_target_lang", getTargetLangCode())
-                .apply();
+        android.content.SharedPreferences.Editor editor = prefs.edit()
+                .putString("current_source_lang", lastConcreteSourceCode)
+                .putString("current_target_lang", getTargetLangCode());
+        // Un selector sin la opción no sabe si estaba activada: la deja como estaba
+        if (autoDetectEnabled) {
+            editor.putBoolean("current_source_auto", SourceLanguageDetector.isAuto(getSourceLangCode()));
+        }
+        editor.apply();
     }
 
     /**
@@ -227,6 +289,10 @@ public class LanguageSelector extends LinearLayout {
         
         String source = prefs.getString("current_source_lang", null);
         String target = prefs.getString("current_target_lang", null);
+        // "Detectar idioma" solo si este selector lo ofrece (llamar después de setAutoDetectEnabled)
+        if (autoDetectEnabled && prefs.getBoolean("current_source_auto", false)) {
+            source = SourceLanguageDetector.AUTO;
+        }
         
         if (source != null && target != null) {
             return new String[]{source, target};
@@ -0,0 +1,159 @@
+package com.example.snap.camara;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ritmo de análisis de la cámara con latencias, escenas y estados del
+ * dispositivo simulados.
+ */
+public class AnalysisCadenceControllerTest {
+
+    private AnalysisCadenceController cadence;
+
+    @Before
+    public void setUp() {
+        cadence = new AnalysisCadenceController(100, 2000);
+    }
+
+    @Test
+    public void startsAtTheMinimumInterval() {
+        assertEquals(100, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void fastRecognizerKeepsTheMinimum() {
+        simulateOcr(40, 10);
+
+        assertEquals(100, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void slowRecognizerStretchesTheInterval() {
+        simulateOcr(200, 10);
+
+        // 1.5 x 200 ms para no tener el reconocedor ocupado todo el tiempo
+        assertEquals(300, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void latencyIsSmoothed() {
+        simulateOcr(100, 10);
+        long before = cadence.getIntervalMs();
+
+        // Un pico aislado no dispara el intervalo
+        cadence.onOcrCompleted(1000);
+
+        long after = cadence.getIntervalMs();
+        assertTrue(after > before);
+        assertTrue(after < 1.5 * 1000);
+    }
+
+    @Test
+    public void idleSceneBacksOffAndChangeSpeedsUp() {
+        simulateOcr(100, 10);
+        long base = cadence.getIntervalMs();
+
+        long previous = base;
+        for (int i = 0; i < 3; i++) {
+            cadence.onFrameChecked(false);
+            long interval = cadence.getIntervalMs();
+            assertTrue(interval > previous);
+            previous = interval;
+        }
+
+        cadence.onFrameChecked(true);
+        assertEquals(base, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void idleBackoffIsCapped() {
+        simulateOcr(100, 10);
+        long base = cadence.getIntervalMs();
+
+        for (int i = 0; i < 50; i++) {
+            cadence.onFrameChecked(false);
+        }
+
+        assertEquals(Math.round(base * AnalysisCadenceController.IDLE_MAX_FACTOR), cadence.getIntervalMs());
+    }
+
+    @Test
+    public void pendingTranslationsHoldBackTheScanner() {
+        simulateOcr(60, 10);
+        cadence.onTranslationCompleted(800);
+
+        // Sin lote en vuelo la latencia de traducción no frena el OCR
+        assertEquals(100, cadence.getIntervalMs());
+
+        cadence.setBacklog(1);
+        assertEquals(800, cadence.getIntervalMs());
+
+        cadence.setBacklog(0);
+        assertEquals(100, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void heatSlowsDownAndCriticalGoesToTheMaximum() {
+        simulateOcr(200, 10);
+
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_LIGHT);
+        assertEquals(300, cadence.getIntervalMs());
+
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_MODERATE);
+        assertEquals(600, cadence.getIntervalMs());
+
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_SEVERE);
+        assertEquals(1200, cadence.getIntervalMs());
+
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_CRITICAL);
+        assertEquals(2000, cadence.getIntervalMs());
+
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_NONE);
+        assertEquals(300, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void powerSaveDoublesTheInterval() {
+        simulateOcr(200, 10);
+
+        cadence.setPowerSaveMode(true);
+
+        assertEquals(600, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void neverExceedsTheMaximum() {
+        simulateOcr(900, 10);
+        cadence.setThermalStatus(AnalysisCadenceController.THERMAL_STATUS_SEVERE);
+        cadence.setPowerSaveMode(true);
+        for (int i = 0; i < 10; i++) {
+            cadence.onFrameChecked(false);
+        }
+
+        assertEquals(2000, cadence.getIntervalMs());
+    }
+
+    @Test
+    public void isDueFollowsTheCurrentInterval() {
+        simulateOcr(200, 10);
+
+        assertFalse(cadence.isDue(1299, 1000));
+        assertTrue(cadence.isDue(1300, 1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvertedBounds() {
+        new AnalysisCadenceController(500, 100);
+    }
+
+    /** Frames con cambios cuyo OCR tarda latencyMs */
+    private void simulateOcr(long latencyMs, int frames) {
+        for (int i = 0; i < frames; i++) {
+            cadence.onFrameChecked(true);
+            cadence.onOcrCompleted(latencyMs);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.snap.camara;
+
+import org.junit.Test;
+
+import static com.example.snap.camara.AnalysisResolutionPolicy.Tier;
+import static org.junit.Assert.*;
+
+/**
+ * Resolución del análisis según el dispositivo y la latencia del OCR medida
+ * en la sesión anterior.
+ */
+public class AnalysisResolutionPolicyTest {
+
+    private final AnalysisResolutionPolicy policy = new AnalysisResolutionPolicy();
+
+    @Test
+    public void withoutMeasurementsDependsOnTheDevice() {
+        assertEquals(Tier.HD, policy.choose(false, 8, null, 0, true));
+        assertEquals(Tier.SD, policy.choose(false, 4, null, 0, true));
+        assertEquals(Tier.SD, policy.choose(true, 8, null, 0, true));
+    }
+
+    @Test
+    public void fastOcrWithCroppingMovesUpToFullHd() {
+        assertEquals(Tier.FHD, policy.choose(false, 8, Tier.HD, 40, true));
+    }
+
+    @Test
+    public void fullHdNeedsCropping() {
+        assertEquals(Tier.HD, policy.choose(false, 8, Tier.HD, 40, false));
+        // Si se dejó de recortar, se baja aunque el OCR fuera rápido
+        assertEquals(Tier.HD, policy.choose(false, 8, Tier.FHD, 40, false));
+    }
+
+    @Test
+    public void slowOcrStepsDown() {
+        assertEquals(Tier.HD, policy.choose(false, 8, Tier.FHD, 400, true));
+        assertEquals(Tier.SD, policy.choose(false, 8, Tier.HD, 400, true));
+        assertEquals(Tier.SD, policy.choose(false, 8, Tier.SD, 400, true));
+    }
+
+    @Test
+    public void acceptableLatencyKeepsTheTier() {
+        // Sin ir y venir: 1080p a 150 ms sigue en 1080p
+        assertEquals(Tier.FHD, policy.choose(false, 8, Tier.FHD, 150, true));
+        assertEquals(Tier.SD, policy.choose(false, 8, Tier.SD, 150, true));
+    }
+
+    @Test
+    public void modestDevicesCanEarnHdButNotMore() {
+        assertEquals(Tier.HD, policy.choose(true, 4, Tier.SD, 40, true));
+        assertEquals(Tier.HD, policy.choose(true, 4, Tier.HD, 40, true));
+    }
+}
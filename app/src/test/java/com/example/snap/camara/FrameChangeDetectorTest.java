@@ -0,0 +1,176 @@
+package com.example.snap.camara;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Detector de cambios sobre planos Y sintéticos de 640x480 que imitan un
+ * cartel con texto: ruido de sensor, temblor de pulso, cambio de exposición
+ * y escena nueva.
+ */
+public class FrameChangeDetectorTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private FrameChangeDetector detector;
+
+    @Before
+    public void setUp() {
+        detector = new FrameChangeDetector();
+    }
+
+    @Test
+    public void firstFrameIsAlwaysNew() {
+        assertTrue(changed(sign(1, 0, 0, 0, 0)));
+    }
+
+    @Test
+    public void sameSceneWithSensorNoiseIsSkipped() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        for (int i = 1; i <= 5; i++) {
+            assertFalse("frame " + i + " score " + detector.getLastScore(), changed(sign(1, 0, 0, 0, i)));
+        }
+    }
+
+    @Test
+    public void smallHandShakeIsSkipped() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        assertFalse(changed(sign(1, 2, 1, 0, 1)));
+    }
+
+    @Test
+    public void uniformExposureChangeIsSkipped() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        assertFalse(changed(sign(1, 0, 0, 25, 1)));
+    }
+
+    @Test
+    public void differentTextIsDetected() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        assertTrue(changed(sign(2, 0, 0, 0, 1)));
+    }
+
+    @Test
+    public void panningAcrossTheSignIsDetected() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        assertTrue(changed(sign(1, 120, 0, 0, 1)));
+    }
+
+    @Test
+    public void slowDriftEventuallyTriggers() {
+        changed(sign(1, 0, 0, 0, 0));
+
+        // Cada paso es pequeño, pero se compara con el último frame analizado
+        boolean triggered = false;
+        for (int dx = 4; dx <= 120 && !triggered; dx += 4) {
+            triggered = changed(sign(1, dx, 0, 0, dx));
+        }
+        assertTrue(triggered);
+    }
+
+    @Test
+    public void resetForcesTheNextFrame() {
+        changed(sign(1, 0, 0, 0, 0));
+        detector.reset();
+
+        assertTrue(changed(sign(1, 0, 0, 0, 1)));
+    }
+
+    @Test
+    public void rowStridePaddingIsIgnored() {
+        int rowStride = WIDTH + 64;
+        byte[] frame = sign(1, 0, 0, 0, 0);
+        byte[] padded = new byte[rowStride * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            System.arraycopy(frame, y * WIDTH, padded, y * rowStride, WIDTH);
+            // Basura en el relleno, como en algunos dispositivos
+            for (int x = WIDTH; x < rowStride; x++) {
+                padded[y * rowStride + x] = (byte) (x * 31);
+            }
+        }
+
+        assertTrue(detector.hasChanged(ByteBuffer.wrap(padded), WIDTH, HEIGHT, rowStride, 1));
+        assertFalse(detector.hasChanged(ByteBuffer.wrap(padded), WIDTH, HEIGHT, rowStride, 1));
+    }
+
+    @Test
+    public void thresholdsAreTunable() {
+        FrameChangeDetector strict = new FrameChangeDetector(16, 2, 0.01);
+        strict.hasChanged(ByteBuffer.wrap(sign(1, 0, 0, 0, 0)), WIDTH, HEIGHT, WIDTH, 1);
+
+        // Lo que el detector por defecto toma por temblor, uno estricto lo ve como cambio
+        assertTrue(strict.hasChanged(ByteBuffer.wrap(sign(1, 6, 3, 0, 1)), WIDTH, HEIGHT, WIDTH, 1));
+    }
+
+    @Test
+    public void doesNotMoveTheBufferPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(sign(1, 0, 0, 0, 0));
+
+        detector.hasChanged(buffer, WIDTH, HEIGHT, WIDTH, 1);
+
+        assertEquals(0, buffer.position());
+    }
+
+    private boolean changed(byte[] luma) {
+        return detector.hasChanged(ByteBuffer.wrap(luma), WIDTH, HEIGHT, WIDTH, 1);
+    }
+
+    /**
+     * Plano Y de un cartel claro con líneas de "texto" oscuras.
+     *
+     * @param text     semilla del contenido (cambia palabras y líneas)
+     * @param dx       desplazamiento horizontal de la escena en píxeles
+     * @param dy       desplazamiento vertical
+     * @param exposure brillo sumado a todo el frame
+     * @param noise    semilla del ruido de sensor (±6 niveles)
+     */
+    private static byte[] sign(int text, int dx, int dy, int exposure, int noise) {
+        Random layout = new Random(text);
+        Random sensor = new Random(1000 + noise);
+        int lines = 5 + layout.nextInt(3);
+        int[][] words = new int[lines][];
+        for (int l = 0; l < lines; l++) {
+            words[l] = new int[6 + layout.nextInt(6)];
+            for (int w = 0; w < words[l].length; w++) {
+                words[l][w] = 20 + layout.nextInt(60);
+            }
+        }
+
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = sceneAt(x + dx, y + dy, words) + exposure + sensor.nextInt(13) - 6;
+                luma[y * WIDTH + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+        return luma;
+    }
+
+    private static int sceneAt(int x, int y, int[][] words) {
+        int lineHeight = 60;
+        int line = (y - 40) / lineHeight;
+        if (y < 40 || line >= words.length || (y - 40) % lineHeight > 30) {
+            return 200;
+        }
+        int cursor = 30;
+        for (int width : words[line]) {
+            if (x >= cursor && x < cursor + width) {
+                // Trazos verticales dentro de la palabra
+                return (x - cursor) % 6 < 3 ? 40 : 190;
+            }
+            cursor += width + 15;
+        }
+        return 200;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.snap.camara;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Modelo inmutable del frame que se publica a la UI.
+ */
+public class OcrFrameTest {
+
+    private final TextBlockTracker tracker = new TextBlockTracker();
+    private final Map<Long, String> translations = new HashMap<>();
+
+    @Test
+    public void untranslatedBlocksShowTheOriginal() {
+        List<TextBlockTracker.Detection> detections = Arrays.asList(
+                new TextBlockTracker.Detection("SALIDA", 10, 20, 130, 60),
+                new TextBlockTracker.Detection("Ascensor", 300, 20, 460, 60));
+
+        OcrFrame frame = OcrFrame.of(1280, 720, detections, tracker.update(detections), translations::get);
+
+        assertEquals(1280, frame.getImageWidth());
+        assertEquals(2, frame.getItems().size());
+        OcrFrame.Item first = frame.getItems().get(0);
+        assertEquals("SALIDA", first.displayText);
+        assertFalse(first.translated);
+        assertEquals(10, first.left);
+        assertEquals(60, first.bottom);
+        assertEquals("SALIDA\nAscensor", frame.getFullText());
+    }
+
+    @Test
+    public void withTranslationsReplacesOnlyWhatArrived() {
+        List<TextBlockTracker.Detection> detections = Arrays.asList(
+                new TextBlockTracker.Detection("SALIDA", 10, 20, 130, 60),
+                new TextBlockTracker.Detection("Ascensor", 300, 20, 460, 60));
+        OcrFrame frame = OcrFrame.of(1280, 720, detections, tracker.update(detections), translations::get);
+
+        translations.put(frame.getItems().get(0).trackId, "EXIT");
+        OcrFrame updated = frame.withTranslations(translations::get);
+
+        assertNotSame(frame, updated);
+        assertEquals("EXIT", updated.getItems().get(0).displayText);
+        assertTrue(updated.getItems().get(0).translated);
+        assertEquals("Ascensor", updated.getItems().get(1).displayText);
+        assertEquals("EXIT\nAscensor", updated.getFullText());
+        // El original no cambia
+        assertEquals("SALIDA", frame.getItems().get(0).displayText);
+    }
+
+    @Test
+    public void withTranslationsReturnsTheSameFrameWhenNothingArrived() {
+        List<TextBlockTracker.Detection> detections = Collections.singletonList(
+                new TextBlockTracker.Detection("SALIDA", 10, 20, 130, 60));
+        OcrFrame frame = OcrFrame.of(1280, 720, detections, tracker.update(detections), translations::get);
+
+        assertSame(frame, frame.withTranslations(translations::get));
+    }
+
+    @Test
+    public void staticImageFrameUsesTheGivenTexts() {
+        List<TextBlockTracker.Detection> detections = Collections.singletonList(
+                new TextBlockTracker.Detection("Farmacia", 0, 0, 100, 30));
+
+        OcrFrame frame = OcrFrame.ofTexts(800, 600, detections, Collections.singletonList("Pharmacy"));
+
+        assertEquals("Pharmacy", frame.getItems().get(0).displayText);
+        assertEquals("Farmacia", frame.getItems().get(0).originalText);
+        // Sin pista no hay nada que completar después
+        assertSame(frame, frame.withTranslations(id -> "otra"));
+    }
+
+    @Test
+    public void emptyFrameHasNoText() {
+        OcrFrame frame = OcrFrame.of(1280, 720, Collections.emptyList(),
+                tracker.update(Collections.emptyList()), translations::get);
+
+        assertTrue(frame.getItems().isEmpty());
+        assertEquals("", frame.getFullText());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void itemsCannotBeModified() {
+        List<TextBlockTracker.Detection> detections = Collections.singletonList(
+                new TextBlockTracker.Detection("SALIDA", 10, 20, 130, 60));
+        OcrFrame frame = OcrFrame.of(1280, 720, detections, tracker.update(detections), translations::get);
+
+        frame.getItems().clear();
+    }
+}
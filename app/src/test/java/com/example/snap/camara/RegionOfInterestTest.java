@@ -0,0 +1,97 @@
+package com.example.snap.camara;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Paso de la región (en la imagen derecha) al recorte del buffer sin rotar,
+ * para cada rotación del sensor.
+ */
+public class RegionOfInterestTest {
+
+    // Región asimétrica para que se note si una rotación está mal
+    private static final RegionOfInterest TOP_LEFT = new RegionOfInterest(0.1f, 0.2f, 0.5f, 0.4f);
+
+    @Test
+    public void fullFrameDoesNotCrop() {
+        RegionOfInterest.Crop crop = RegionOfInterest.FULL_FRAME.cropFor(1280, 720, 90);
+
+        assertTrue(crop.isFullFrame());
+        assertEquals(0, crop.offsetX);
+        assertEquals(0, crop.offsetY);
+    }
+
+    @Test
+    public void centerReticleIsCenteredInAnyRotation() {
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            RegionOfInterest.Crop crop = RegionOfInterest.CENTER_RETICLE.cropFor(1280, 720, rotation);
+
+            assertFalse(crop.isFullFrame());
+            assertEquals("rotación " + rotation, 1280 - crop.width, 2 * crop.left);
+            assertEquals("rotación " + rotation, 720 - crop.height, 2 * crop.top);
+        }
+    }
+
+    @Test
+    public void noRotationMapsDirectly() {
+        RegionOfInterest.Crop crop = TOP_LEFT.cropFor(1000, 500, 0);
+
+        assertCrop(crop, 100, 100, 400, 100);
+        assertEquals(100, crop.offsetX);
+        assertEquals(100, crop.offsetY);
+    }
+
+    @Test
+    public void rotation90() {
+        // Buffer 1000x500 que se ve como 500x1000 en vertical
+        RegionOfInterest.Crop crop = TOP_LEFT.cropFor(1000, 500, 90);
+
+        assertCrop(crop, 200, 250, 200, 200);
+        // En la imagen derecha empieza en (0.1 x 500, 0.2 x 1000)
+        assertEquals(50, crop.offsetX);
+        assertEquals(200, crop.offsetY);
+    }
+
+    @Test
+    public void rotation180() {
+        RegionOfInterest.Crop crop = TOP_LEFT.cropFor(1000, 500, 180);
+
+        assertCrop(crop, 500, 300, 400, 100);
+        assertEquals(100, crop.offsetX);
+        assertEquals(100, crop.offsetY);
+    }
+
+    @Test
+    public void rotation270() {
+        RegionOfInterest.Crop crop = TOP_LEFT.cropFor(1000, 500, 270);
+
+        assertCrop(crop, 600, 50, 200, 200);
+        assertEquals(50, crop.offsetX);
+        assertEquals(200, crop.offsetY);
+    }
+
+    @Test
+    public void cropIsAlignedForChroma() {
+        RegionOfInterest.Crop crop = RegionOfInterest.centered(0.33f, 0.27f).cropFor(641, 479, 90);
+
+        assertEquals(0, crop.left % 2);
+        assertEquals(0, crop.top % 2);
+        assertEquals(0, crop.width % 2);
+        assertEquals(0, crop.height % 2);
+        assertTrue(crop.left + crop.width <= 641);
+        assertTrue(crop.top + crop.height <= 479);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyRegion() {
+        new RegionOfInterest(0.5f, 0.2f, 0.5f, 0.8f);
+    }
+
+    private static void assertCrop(RegionOfInterest.Crop crop, int left, int top, int width, int height) {
+        assertEquals("left", left, crop.left);
+        assertEquals("top", top, crop.top);
+        assertEquals("width", width, crop.width);
+        assertEquals("height", height, crop.height);
+    }
+}
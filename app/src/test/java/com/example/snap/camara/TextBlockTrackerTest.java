@@ -0,0 +1,185 @@
+package com.example.snap.camara;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Emparejamiento de bloques entre frames: ids estables, traducciones
+ * reutilizadas y solo los bloques nuevos o cambiados por traducir.
+ */
+public class TextBlockTrackerTest {
+
+    private TextBlockTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new TextBlockTracker();
+    }
+
+    @Test
+    public void newBlocksNeedTranslation() {
+        List<TextBlockTracker.TrackedBlock> tracked = tracker.update(Arrays.asList(
+                block("SALIDA", 10, 10), block("Prohibido fumar", 10, 200)));
+
+        assertTrue(tracked.get(0).needsTranslation());
+        assertTrue(tracked.get(1).needsTranslation());
+        assertNotEquals(tracked.get(0).getId(), tracked.get(1).getId());
+    }
+
+    @Test
+    public void staticSceneReusesTranslationsWithStableIds() {
+        List<TextBlockTracker.TrackedBlock> first = tracker.update(Arrays.asList(
+                block("SALIDA", 10, 10), block("Prohibido fumar", 10, 200)));
+        translateAll(first);
+
+        // Temblor de unos píxeles: mismos bloques, nada que traducir
+        for (int frame = 1; frame <= 10; frame++) {
+            List<TextBlockTracker.TrackedBlock> tracked = tracker.update(Arrays.asList(
+                    block("SALIDA", 10 + frame % 3, 10), block("Prohibido fumar", 10, 200 - frame % 2)));
+
+            assertEquals(first.get(0).getId(), tracked.get(0).getId());
+            assertEquals(first.get(1).getId(), tracked.get(1).getId());
+            assertEquals(0, pendingCount(tracked));
+            assertEquals("EXIT", tracked.get(0).getTranslation());
+        }
+    }
+
+    @Test
+    public void onlyTheNewBlockIsTranslated() {
+        translateAll(tracker.update(Arrays.asList(block("SALIDA", 10, 10))));
+
+        List<TextBlockTracker.TrackedBlock> tracked = tracker.update(Arrays.asList(
+                block("SALIDA", 10, 10), block("Ascensor", 300, 10)));
+
+        assertFalse(tracked.get(0).needsTranslation());
+        assertTrue(tracked.get(1).needsTranslation());
+    }
+
+    @Test
+    public void changedTextKeepsIdButNeedsTranslation() {
+        TextBlockTracker.TrackedBlock first = tracker.update(Arrays.asList(block("Menú del día 12€", 10, 10))).get(0);
+        translateAll(Arrays.asList(first));
+
+        TextBlockTracker.TrackedBlock second = tracker.update(Arrays.asList(block("Menú del día 14€", 10, 10))).get(0);
+
+        assertEquals(first.getId(), second.getId());
+        assertTrue(second.needsTranslation());
+    }
+
+    @Test
+    public void whitespaceChangesAreNotNewText() {
+        translateAll(tracker.update(Arrays.asList(block("Prohibido fumar", 10, 10))));
+
+        TextBlockTracker.TrackedBlock tracked = tracker.update(Arrays.asList(block("Prohibido\nfumar ", 10, 10))).get(0);
+
+        assertFalse(tracked.needsTranslation());
+    }
+
+    @Test
+    public void sameTextFarAwayIsStillMatched() {
+        TextBlockTracker.TrackedBlock first = tracker.update(Arrays.asList(block("Prohibido fumar", 10, 10))).get(0);
+        translateAll(Arrays.asList(first));
+
+        // Movimiento brusco: sin solape, pero es el mismo cartel
+        TextBlockTracker.TrackedBlock moved = tracker.update(Arrays.asList(block("Prohibido fumar", 400, 300))).get(0);
+
+        assertEquals(first.getId(), moved.getId());
+        assertFalse(moved.needsTranslation());
+    }
+
+    @Test
+    public void differentTextInTheSamePlaceIsANewBlock() {
+        TextBlockTracker.TrackedBlock first = tracker.update(Arrays.asList(block("Farmacia", 10, 10))).get(0);
+
+        TextBlockTracker.TrackedBlock other = tracker.update(Arrays.asList(block("Panadería", 10, 10))).get(0);
+
+        assertNotEquals(first.getId(), other.getId());
+    }
+
+    @Test
+    public void identicalBlocksAreMatchedByPosition() {
+        List<TextBlockTracker.TrackedBlock> first = tracker.update(Arrays.asList(
+                block("EXIT", 10, 10), block("EXIT", 500, 10)));
+
+        // Llegan en otro orden
+        List<TextBlockTracker.TrackedBlock> next = tracker.update(Arrays.asList(
+                block("EXIT", 502, 12), block("EXIT", 12, 12)));
+
+        assertEquals(first.get(1).getId(), next.get(0).getId());
+        assertEquals(first.get(0).getId(), next.get(1).getId());
+    }
+
+    @Test
+    public void blocksAreForgottenAfterMissingSeveralFrames() {
+        TextBlockTracker.TrackedBlock first = tracker.update(Arrays.asList(block("SALIDA", 10, 10))).get(0);
+        translateAll(Arrays.asList(first));
+
+        // Unos pocos frames sin el bloque (reflejo, mano delante) no lo olvidan
+        for (int i = 0; i < TextBlockTracker.MAX_MISSED_FRAMES; i++) {
+            tracker.update(new ArrayList<>());
+        }
+        assertEquals(first.getId(), tracker.update(Arrays.asList(block("SALIDA", 10, 10))).get(0).getId());
+
+        for (int i = 0; i <= TextBlockTracker.MAX_MISSED_FRAMES; i++) {
+            tracker.update(new ArrayList<>());
+        }
+        TextBlockTracker.TrackedBlock back = tracker.update(Arrays.asList(block("SALIDA", 10, 10))).get(0);
+        assertNotEquals(first.getId(), back.getId());
+        assertTrue(back.needsTranslation());
+    }
+
+    @Test
+    public void lateTranslationOfOldTextIsDiscarded() {
+        TextBlockTracker.TrackedBlock first = tracker.update(Arrays.asList(block("Abierto", 10, 10))).get(0);
+        tracker.update(Arrays.asList(block("Abierta", 10, 10)));
+
+        assertFalse(tracker.onTranslated(first.getId(), "Abierto", "Open"));
+        assertNull(tracker.getTranslation(first.getId()));
+        assertTrue(tracker.hasUntranslated());
+    }
+
+    @Test
+    public void resetForgetsTranslations() {
+        translateAll(tracker.update(Arrays.asList(block("SALIDA", 10, 10))));
+        assertFalse(tracker.hasUntranslated());
+
+        tracker.reset();
+
+        assertTrue(tracker.update(Arrays.asList(block("SALIDA", 10, 10))).get(0).needsTranslation());
+    }
+
+    @Test
+    public void similarityIgnoresWhitespaceAndToleratesOcrNoise() {
+        assertEquals(1.0, TextBlockTracker.similarity("Prohibido  fumar", "Prohibido fumar"), 1e-9);
+        assertTrue(TextBlockTracker.similarity("Prohibido fumar", "Prohibldo fumar") > TextBlockTracker.MIN_TEXT_SIMILARITY);
+        assertTrue(TextBlockTracker.similarity("Farmacia", "Panadería") < TextBlockTracker.MIN_TEXT_SIMILARITY);
+    }
+
+    private void translateAll(List<TextBlockTracker.TrackedBlock> tracked) {
+        for (TextBlockTracker.TrackedBlock block : tracked) {
+            String translation = block.getText().equals("SALIDA") ? "EXIT" : "[en] " + block.getText();
+            assertTrue(tracker.onTranslated(block.getId(), block.getText(), translation));
+        }
+    }
+
+    private static int pendingCount(List<TextBlockTracker.TrackedBlock> tracked) {
+        int pending = 0;
+        for (TextBlockTracker.TrackedBlock block : tracked) {
+            if (block.needsTranslation()) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    /** Bloque de una línea con un recuadro proporcional a su texto */
+    private static TextBlockTracker.Detection block(String text, int left, int top) {
+        return new TextBlockTracker.Detection(text, left, top, left + 20 * text.length(), top + 40);
+    }
+}
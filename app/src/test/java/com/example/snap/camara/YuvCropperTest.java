@@ -0,0 +1,119 @@
+package com.example.snap.camara;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recorte a NV21 desde planos YUV_420_888 con relleno de fila y con color
+ * planar o semiplanar, como los entregan los distintos fabricantes.
+ */
+public class YuvCropperTest {
+
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 8;
+    private static final int Y_ROW_STRIDE = 20;
+
+    // Recorte de 6x4 en (4, 2)
+    private final RegionOfInterest.Crop crop =
+            new RegionOfInterest(0.25f, 0.25f, 0.625f, 0.75f).cropFor(WIDTH, HEIGHT, 0);
+
+    @Test
+    public void cropsLumaRows() {
+        byte[] nv21 = cropPlanar();
+
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 6; col++) {
+                assertEquals(luma(4 + col, 2 + row), nv21[row * 6 + col]);
+            }
+        }
+    }
+
+    @Test
+    public void interleavesChromaAsVu() {
+        byte[] nv21 = cropPlanar();
+
+        int offset = 6 * 4;
+        assertEquals(6 * 4 + 2 * 3 * 2, nv21.length);
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+                int index = offset + (row * 3 + col) * 2;
+                assertEquals(v(2 + col, 1 + row), nv21[index]);
+                assertEquals(u(2 + col, 1 + row), nv21[index + 1]);
+            }
+        }
+    }
+
+    @Test
+    public void semiPlanarChromaGivesTheSameResult() {
+        // U y V intercalados en el mismo buffer (pixelStride 2), lo habitual en CameraX
+        int uvRowStride = WIDTH + 4;
+        byte[] interleaved = new byte[uvRowStride * HEIGHT / 2];
+        for (int y = 0; y < HEIGHT / 2; y++) {
+            for (int x = 0; x < WIDTH / 2; x++) {
+                interleaved[y * uvRowStride + 2 * x] = u(x, y);
+                interleaved[y * uvRowStride + 2 * x + 1] = v(x, y);
+            }
+        }
+        ByteBuffer uPlane = ByteBuffer.wrap(interleaved);
+        ByteBuffer vPlane = ByteBuffer.wrap(interleaved, 1, interleaved.length - 1).slice();
+
+        byte[] nv21 = new YuvCropper().toNv21(lumaPlane(), Y_ROW_STRIDE, 1, uPlane, vPlane, uvRowStride, 2, crop);
+
+        assertArrayEquals(cropPlanar(), nv21);
+    }
+
+    @Test
+    public void reusesTheOutputArrayAndLeavesPlanesUntouched() {
+        YuvCropper cropper = new YuvCropper();
+        ByteBuffer y = lumaPlane();
+        byte[] first = cropper.toNv21(y, Y_ROW_STRIDE, 1, chroma(true), chroma(false), WIDTH / 2, 1, crop);
+        byte[] second = cropper.toNv21(y, Y_ROW_STRIDE, 1, chroma(true), chroma(false), WIDTH / 2, 1, crop);
+
+        assertSame(first, second);
+        assertEquals(0, y.position());
+    }
+
+    private byte[] cropPlanar() {
+        return new YuvCropper().toNv21(lumaPlane(), Y_ROW_STRIDE, 1, chroma(true), chroma(false), WIDTH / 2, 1, crop)
+                .clone();
+    }
+
+    private static ByteBuffer lumaPlane() {
+        byte[] data = new byte[Y_ROW_STRIDE * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                data[y * Y_ROW_STRIDE + x] = luma(x, y);
+            }
+            // Relleno de fila que no debe aparecer en el recorte
+            for (int x = WIDTH; x < Y_ROW_STRIDE; x++) {
+                data[y * Y_ROW_STRIDE + x] = (byte) 0xEE;
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static ByteBuffer chroma(boolean isU) {
+        byte[] data = new byte[(WIDTH / 2) * (HEIGHT / 2)];
+        for (int y = 0; y < HEIGHT / 2; y++) {
+            for (int x = 0; x < WIDTH / 2; x++) {
+                data[y * (WIDTH / 2) + x] = isU ? u(x, y) : v(x, y);
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static byte luma(int x, int y) {
+        return (byte) (y * WIDTH + x);
+    }
+
+    private static byte u(int x, int y) {
+        return (byte) (0x80 + y * 8 + x);
+    }
+
+    private static byte v(int x, int y) {
+        return (byte) (0xC0 + y * 8 + x);
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Enrutado, respaldo, cobertura y caché sobre motores falsos.
+ */
+public class CompositeTranslationEngineTest {
+
+    private AtomicLong now;
+    private TranslationRouter router;
+    private FakeEngine remote;
+    private FakeEngine onDevice;
+    private CompositeTranslationEngine composite;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        router = new TranslationRouter(now::get);
+        remote = new FakeEngine("api", 20);
+        onDevice = new FakeEngine("mlkit", 20);
+        composite = new CompositeTranslationEngine(remote, onDevice, router);
+    }
+
+    @Test
+    public void healthyApiIsUsedFirst() throws Exception {
+        assertEquals("api:hola", translate(composite, "hola"));
+        assertEquals(0, onDevice.calls.get());
+    }
+
+    @Test
+    public void offlineGoesOnDevice() throws Exception {
+        router.onConnectivityChanged(TranslationRouter.Connectivity.OFFLINE);
+
+        assertEquals("mlkit:hola", translate(composite, "hola"));
+        assertEquals(0, remote.calls.get());
+    }
+
+    @Test
+    public void remoteFailureFallsBackOnDevice() throws Exception {
+        remote.failing = true;
+        onDevice.ready = false;
+
+        assertEquals("mlkit:hola", translate(composite, "hola"));
+        assertEquals(1, remote.calls.get());
+    }
+
+    @Test
+    public void unsupportedPairDoesNotTouchOnDevice() throws Exception {
+        remote.failing = true;
+        onDevice.supported = false;
+
+        assertEquals("error api", translate(composite, "hola"));
+        assertEquals(0, onDevice.calls.get());
+    }
+
+    @Test
+    public void slowRemoteIsHedgedWhenModelIsReady() throws Exception {
+        remote.latencyMs = 2000;
+        composite.setHedgeThresholdMillis(50);
+
+        long start = System.nanoTime();
+        String result = translate(composite, "hola");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("mlkit:hola", result);
+        assertTrue("tardó " + elapsedMs + " ms", elapsedMs < 1000);
+        assertEquals(1, remote.cancelled.get());
+    }
+
+    @Test
+    public void prefetchIsNeverHedged() throws Exception {
+        remote.latencyMs = 300;
+        composite.setHedgeThresholdMillis(50);
+
+        assertEquals(Arrays.asList("api:uno"),
+                translateBatch(composite, Arrays.asList("uno"), Priority.PREFETCH));
+        assertEquals(0, onDevice.calls.get());
+    }
+
+    @Test
+    public void prefetchDoesNotFallBack() throws Exception {
+        remote.failing = true;
+
+        assertNull(translateBatch(composite, Arrays.asList("uno"), Priority.PREFETCH));
+        assertEquals(0, onDevice.calls.get());
+    }
+
+    @Test
+    public void batchGoesThroughTheSameRouting() throws Exception {
+        router.onConnectivityChanged(TranslationRouter.Connectivity.OFFLINE);
+
+        List<String> result = translateBatch(composite, Arrays.asList("uno", "dos"));
+
+        assertEquals(Arrays.asList("mlkit:uno", "mlkit:dos"), result);
+    }
+
+    @Test
+    public void cacheAnswersRepeatsWithoutCallingEngines() throws Exception {
+        TranslationEngine cached = new CachedTranslationEngine(composite, new TranslationCache(100, 10_000));
+
+        assertEquals("api:hola", translate(cached, "hola"));
+        assertEquals("api:hola", translate(cached, "hola"));
+        assertEquals(Arrays.asList("api:hola"), translateBatch(cached, Arrays.asList("hola")));
+        assertEquals(1, remote.calls.get());
+    }
+
+    @Test
+    public void cacheKeepsOnlyApiResults() throws Exception {
+        TranslationCache cache = new TranslationCache(100, 10_000);
+        TranslationEngine cached = new CachedTranslationEngine(composite, cache);
+        router.onConnectivityChanged(TranslationRouter.Connectivity.OFFLINE);
+
+        assertEquals("mlkit:hola", translate(cached, "hola"));
+        assertEquals(Arrays.asList("mlkit:uno"), translateBatch(cached, Arrays.asList("uno")));
+        assertNull(cache.get("es", "en", "hola"));
+        assertNull(cache.get("es", "en", "uno"));
+
+        // Con la API de vuelta se traduce de nuevo y ahora sí se guarda
+        router.onConnectivityChanged(TranslationRouter.Connectivity.ONLINE);
+        assertEquals("api:hola", translate(cached, "hola"));
+        assertEquals("api:hola", cache.get("es", "en", "hola"));
+    }
+
+    @Test
+    public void batchAsksOnlyForMissingTexts() throws Exception {
+        TranslationCache cache = new TranslationCache(100, 10_000);
+        cache.put("es", "en", "dos", "two");
+        TranslationEngine cached = new CachedTranslationEngine(composite, cache);
+
+        assertEquals(Arrays.asList("api:uno", "two", "api:tres"),
+                translateBatch(cached, Arrays.asList("uno", "dos", "tres")));
+        assertEquals(1, remote.calls.get());
+        assertEquals("api:tres", cache.get("es", "en", "tres"));
+    }
+
+    @Test
+    public void persistentCacheAnswersBeforeTheEngines() throws Exception {
+        TranslationCache cache = new TranslationCache(100, 10_000);
+        FakePersistentCache persistent = new FakePersistentCache();
+        persistent.stored.put("hola", "hello");
+        TranslationEngine cached = new CachedTranslationEngine(composite, cache, persistent);
+
+        // Lo de Room vino de la API en su día
+        assertTrue(translateFromApi(cached, "hola"));
+        assertEquals(0, remote.calls.get());
+        assertEquals("hello", cache.get("es", "en", "hola"));
+
+        assertEquals("api:adiós", translate(cached, "adiós"));
+        assertEquals("api:adiós", persistent.stored.get("adiós"));
+        assertEquals(1, persistent.stores.get());
+    }
+
+    @Test
+    public void persistentCacheKeepsOnlyApiResults() throws Exception {
+        FakePersistentCache persistent = new FakePersistentCache();
+        TranslationEngine cached = new CachedTranslationEngine(composite, new TranslationCache(100, 10_000),
+                persistent);
+        router.onConnectivityChanged(TranslationRouter.Connectivity.OFFLINE);
+
+        assertFalse(translateFromApi(cached, "hola"));
+        assertTrue(persistent.stored.isEmpty());
+    }
+
+    @Test
+    public void resultsSayWhichEngineAnswered() throws Exception {
+        assertTrue(translateFromApi(composite, "hola"));
+
+        router.onConnectivityChanged(TranslationRouter.Connectivity.OFFLINE);
+        assertFalse(translateFromApi(composite, "hola"));
+    }
+
+    private static boolean translateFromApi(TranslationEngine engine, String text) throws Exception {
+        Boolean[] fromApi = new Boolean[1];
+        CountDownLatch done = new CountDownLatch(1);
+        engine.translate(text, "es", "en", Priority.INTERACTIVE, new TranslationEngine.Callback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                done.countDown();
+            }
+
+            @Override
+            public void onSuccess(String translatedText, boolean api) {
+                fromApi[0] = api;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                done.countDown();
+            }
+        });
+        assertTrue("sin respuesta", done.await(5, TimeUnit.SECONDS));
+        assertNotNull("sin origen", fromApi[0]);
+        return fromApi[0];
+    }
+
+    private static String translate(TranslationEngine engine, String text) throws Exception {
+        String[] result = new String[1];
+        CountDownLatch done = new CountDownLatch(1);
+        engine.translate(text, "es", "en", Priority.INTERACTIVE, new TranslationEngine.Callback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                result[0] = translatedText;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                result[0] = error;
+                done.countDown();
+            }
+        });
+        assertTrue("sin respuesta", done.await(5, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private static List<String> translateBatch(TranslationEngine engine, List<String> texts) throws Exception {
+        return translateBatch(engine, texts, Priority.CAMERA);
+    }
+
+    private static List<String> translateBatch(TranslationEngine engine, List<String> texts, Priority priority)
+            throws Exception {
+        List<List<String>> result = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        engine.translateBatch(texts, "es", "en", priority, new TranslationEngine.BatchCallback() {
+            @Override
+            public void onSuccess(List<String> translatedTexts) {
+                result.add(translatedTexts);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                done.countDown();
+            }
+        });
+        assertTrue("sin respuesta", done.await(5, TimeUnit.SECONDS));
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /** Caché persistente en memoria, con respuesta inmediata */
+    static class FakePersistentCache implements CachedTranslationEngine.PersistentCache {
+        final Map<String, String> stored = new ConcurrentHashMap<>();
+        final AtomicInteger stores = new AtomicInteger();
+
+        @Override
+        public void lookup(String sourceLang, String targetLang, String text, LookupCallback callback) {
+            callback.onResult(stored.get(text));
+        }
+
+        @Override
+        public void store(String sourceLang, String targetLang, String text, String translatedText) {
+            stores.incrementAndGet();
+            stored.put(text, translatedText);
+        }
+    }
+
+    /** Motor falso: antepone su nombre al texto tras una latencia fija */
+    static class FakeEngine implements TranslationEngine {
+        final String name;
+        volatile long latencyMs;
+        volatile boolean failing = false;
+        volatile boolean supported = true;
+        volatile boolean ready = true;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+
+        FakeEngine(String name, long latencyMs) {
+            this.name = name;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean supports(String sourceLang, String targetLang) {
+            return supported;
+        }
+
+        @Override
+        public boolean isReady(String sourceLang, String targetLang) {
+            return supported && ready;
+        }
+
+        @Override
+        public TranslationHandle translate(String text, String sourceLang, String targetLang, Priority priority,
+                Callback callback) {
+            calls.incrementAndGet();
+            TranslationHandle handle = new TranslationHandle();
+            handle.onCancel(cancelled::incrementAndGet);
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(latencyMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (handle.isCancelled()) {
+                    return;
+                }
+                if (failing) {
+                    callback.onError("error " + name);
+                } else {
+                    callback.onSuccess(name + ":" + text);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            return handle;
+        }
+
+        @Override
+        public TranslationHandle translateBatch(List<String> texts, String sourceLang, String targetLang,
+                Priority priority, BatchCallback callback) {
+            return translate(String.join("\n", texts), sourceLang, targetLang, priority, new Callback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    List<String> results = new ArrayList<>();
+                    for (String text : texts) {
+                        results.add(name + ":" + text);
+                    }
+                    callback.onSuccess(results);
+                }
+
+                @Override
+                public void onError(String error) {
+                    callback.onError(error);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.snap.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Precarga de favoritos para uso sin conexión, sobre un motor y un almacén falsos.
+ */
+public class FavoritesPrefetcherTest {
+
+    private AtomicLong now;
+    private CompositeTranslationEngineTest.FakeEngine engine;
+    private OfflineReplayerTest.FakeConnectivity connectivity;
+    private MemoryStore store;
+    private FavoritesPrefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        engine = new CompositeTranslationEngineTest.FakeEngine("api", 5);
+        connectivity = new OfflineReplayerTest.FakeConnectivity(TranslationRouter.Connectivity.ONLINE);
+        store = new MemoryStore();
+        prefetcher = new FavoritesPrefetcher(store, engine, connectivity, Runnable::run, now::get);
+    }
+
+    @Test
+    public void translatesFavoritesToEveryDefaultLanguage() throws Exception {
+        store.languages.addAll(Arrays.asList("en", "fr"));
+        store.phrases.add(new FavoritesPrefetcher.Phrase("Hola", "es"));
+
+        prefetcher.start();
+
+        waitFor(() -> store.cache.size() == 2);
+        assertEquals("api:Hola", store.cache.get("es|en|Hola"));
+        assertEquals("api:Hola", store.cache.get("es|fr|Hola"));
+    }
+
+    @Test
+    public void knownTranslationIsStoredWithoutCallingTheApi() {
+        store.languages.add("en");
+        store.phrases.add(new FavoritesPrefetcher.Phrase("Hola", "es", "en", "Hello"));
+
+        prefetcher.start();
+
+        assertEquals("Hello", store.cache.get("es|en|Hola"));
+        assertEquals(0, engine.calls.get());
+    }
+
+    @Test
+    public void cachedEntriesAreSkipped() {
+        store.languages.add("en");
+        store.phrases.add(new FavoritesPrefetcher.Phrase("Hola", "es"));
+        store.cache.put("es|en|Hola", "Hi");
+
+        prefetcher.start();
+
+        assertEquals(0, engine.calls.get());
+        assertEquals("Hi", store.cache.get("es|en|Hola"));
+    }
+
+    @Test
+    public void stopsAtTheBudget() throws Exception {
+        store.languages.add("en");
+        for (int i = 0; i < 10; i++) {
+            store.phrases.add(new FavoritesPrefetcher.Phrase("frase " + i, "es"));
+        }
+        prefetcher.setBudget(new FavoritesPrefetcher.Budget(3, 1000, 0));
+
+        prefetcher.start();
+
+        waitFor(() -> store.cache.size() == 3);
+        Thread.sleep(50);
+        assertEquals(3, store.cache.size());
+        assertEquals(1, engine.calls.get());
+    }
+
+    @Test
+    public void waitsForUnconstrainedNetworkAndThrottles() throws Exception {
+        store.languages.add("en");
+        store.phrases.add(new FavoritesPrefetcher.Phrase("Hola", "es"));
+        connectivity.set(TranslationRouter.Connectivity.CONSTRAINED);
+
+        prefetcher.start();
+        assertEquals(0, engine.calls.get());
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+        waitFor(() -> store.cache.size() == 1);
+
+        // Otra reconexión poco después no vuelve a lanzar la pasada
+        store.phrases.add(new FavoritesPrefetcher.Phrase("Adiós", "es"));
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+        Thread.sleep(50);
+        assertEquals(1, engine.calls.get());
+
+        now.addAndGet(FavoritesPrefetcher.MIN_INTERVAL_MS);
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+        waitFor(() -> store.cache.size() == 2);
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.met()) {
+            assertTrue("no se cumplió a tiempo", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /** Un único usuario; la caché usa claves "origen|destino|texto" */
+    private static class MemoryStore implements FavoritesPrefetcher.Store {
+        final Set<String> languages = new LinkedHashSet<>();
+        final List<FavoritesPrefetcher.Phrase> phrases = new ArrayList<>();
+        final Map<String, String> cache = new ConcurrentHashMap<>();
+
+        @Override
+        public List<String> getUserIds() {
+            return Arrays.asList("user");
+        }
+
+        @Override
+        public Set<String> getDefaultLanguages(String userId) {
+            return languages;
+        }
+
+        @Override
+        public List<FavoritesPrefetcher.Phrase> loadPhrases(String userId, int historyLimit) {
+            return new ArrayList<>(phrases);
+        }
+
+        @Override
+        public boolean isCached(String sourceLang, String targetLang, String text) {
+            return cache.containsKey(sourceLang + "|" + targetLang + "|" + text);
+        }
+
+        @Override
+        public void store(String sourceLang, String targetLang, String text, String translatedText) {
+            cache.put(sourceLang + "|" + targetLang + "|" + text, translatedText);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.snap.services;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HedgedRequestTest {
+
+    @Test
+    public void fastPrimaryNeverStartsBackup() throws Exception {
+        FakeAttempt primary = new FakeAttempt("api", 20, false);
+        FakeAttempt backup = new FakeAttempt("mlkit", 20, false);
+
+        Result result = run(primary, backup, 200);
+
+        assertEquals("api", result.value);
+        Thread.sleep(300);
+        assertEquals(0, backup.starts.get());
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        FakeAttempt primary = new FakeAttempt("api", 2000, false);
+        FakeAttempt backup = new FakeAttempt("mlkit", 20, false);
+
+        long start = System.nanoTime();
+        Result result = run(primary, backup, 100);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("mlkit", result.value);
+        assertTrue("tardó " + elapsedMs + " ms", elapsedMs < 1000);
+        assertTrue(primary.cancelled.get());
+    }
+
+    @Test
+    public void earlyPrimaryFailureStartsBackupImmediately() throws Exception {
+        FakeAttempt primary = new FakeAttempt("api", 10, true);
+        FakeAttempt backup = new FakeAttempt("mlkit", 10, false);
+
+        long start = System.nanoTime();
+        Result result = run(primary, backup, 5000);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("mlkit", result.value);
+        assertTrue("tardó " + elapsedMs + " ms", elapsedMs < 1000);
+    }
+
+    @Test
+    public void primaryStillWinsIfBackupFails() throws Exception {
+        FakeAttempt primary = new FakeAttempt("api", 300, false);
+        FakeAttempt backup = new FakeAttempt("mlkit", 10, true);
+
+        Result result = run(primary, backup, 50);
+
+        assertEquals("api", result.value);
+        assertEquals(1, backup.starts.get());
+    }
+
+    @Test
+    public void bothFailingReportsPrimaryError() throws Exception {
+        FakeAttempt primary = new FakeAttempt("api", 10, true);
+        FakeAttempt backup = new FakeAttempt("mlkit", 10, true);
+
+        Result result = run(primary, backup, 50);
+
+        assertNull(result.value);
+        assertEquals("fallo api", result.error);
+        assertEquals(1, result.calls.get());
+    }
+
+    private Result run(FakeAttempt primary, FakeAttempt backup, long hedgeAfterMillis) throws Exception {
+        Result result = new Result();
+        CountDownLatch done = new CountDownLatch(1);
+        HedgedRequest.start(primary, backup, hedgeAfterMillis, new HedgedRequest.Callback<String>() {
+            @Override
+            public void onSuccess(String value) {
+                result.value = value;
+                result.calls.incrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                result.error = error;
+                result.calls.incrementAndGet();
+                done.countDown();
+            }
+        });
+        assertTrue("sin respuesta", done.await(5, TimeUnit.SECONDS));
+        // Margen para detectar un segundo callback indebido
+        Thread.sleep(50);
+        assertEquals(1, result.calls.get());
+        return result;
+    }
+
+    private static class Result {
+        volatile String value;
+        volatile String error;
+        final AtomicInteger calls = new AtomicInteger();
+    }
+
+    /** Motor falso: responde (o falla) tras una latencia fija en su propio hilo */
+    private static class FakeAttempt implements HedgedRequest.Attempt<String> {
+        final String name;
+        final long latencyMs;
+        final boolean failing;
+        final AtomicInteger starts = new AtomicInteger();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        FakeAttempt(String name, long latencyMs, boolean failing) {
+            this.name = name;
+            this.latencyMs = latencyMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public TranslationHandle start(HedgedRequest.Callback<String> callback) {
+            starts.incrementAndGet();
+            TranslationHandle handle = new TranslationHandle();
+            handle.onCancel(() -> cancelled.set(true));
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(latencyMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (handle.isCancelled()) {
+                    return;
+                }
+                if (failing) {
+                    callback.onError("fallo " + name);
+                } else {
+                    callback.onSuccess(name);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            return handle;
+        }
+    }
+}
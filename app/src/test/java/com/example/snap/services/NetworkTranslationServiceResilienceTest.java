@@ -0,0 +1,190 @@
+package com.example.snap.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reintentos y circuit breaker contra un servidor HTTP local que inyecta
+ * errores y latencia.
+ */
+public class NetworkTranslationServiceResilienceTest {
+
+    private static final String OK_BODY = "[[[\"Hello\",\"Hola\",null,null,1]],null,\"es\"]";
+
+    private MockWebServer server;
+    private TranslationApiService api;
+    private AtomicLong now;
+    private CircuitBreaker breaker;
+    private NetworkTranslationService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        // Timeout de lectura corto para poder simular un servidor lento
+        OkHttpClient client = new OkHttpClient.Builder()
+                .readTimeout(300, TimeUnit.MILLISECONDS)
+                .build();
+        api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(TranslationApiService.class);
+
+        now = new AtomicLong(0);
+        breaker = new CircuitBreaker(3, 10_000, now::get);
+        // Presupuesto holgado: aquí no se prueba el limitador
+        RateLimiter unlimited = new RateLimiter(1000, 1000, 1_000_000, 1_000_000);
+        service = new NetworkTranslationService(null, api, breaker, unlimited);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void retriesTransientErrorsUntilSuccess() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(OK_BODY));
+
+        Result result = translate("reintento tras 503");
+
+        assertEquals("Hello", result.translation);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        Result result = translate("petición mal formada");
+
+        assertEquals("Error API: 400", result.error);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void retriesAfterSlowResponse() throws Exception {
+        server.enqueue(new MockResponse().setBody(OK_BODY).setHeadersDelay(1, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(OK_BODY));
+
+        Result result = translate("servidor lento");
+
+        assertEquals("Hello", result.translation);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void openCircuitFailsFastWithoutTouchingNetwork() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        Result first = translate("circuito que se abre");
+        assertNotNull(first.error);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        long start = System.nanoTime();
+        Result second = translate("circuito ya abierto");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(NetworkTranslationService.CIRCUIT_OPEN_ERROR, second.error);
+        assertEquals(3, server.getRequestCount());
+        assertTrue("fallo rápido tardó " + elapsedMs + " ms", elapsedMs < 200);
+    }
+
+    @Test
+    public void halfOpenProbeClosesCircuitOnSuccess() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(502));
+        }
+        translate("sonda fallida");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(10_000);
+        server.enqueue(new MockResponse().setBody(OK_BODY));
+
+        Result probe = translate("sonda correcta");
+
+        assertEquals("Hello", probe.translation);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenProbeReopensCircuitOnFailure() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        translate("primer corte");
+
+        now.addAndGet(10_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        Result probe = translate("sigue caído");
+
+        assertNotNull(probe.error);
+        assertEquals(4, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenProbeAnsweredWithClientErrorClosesCircuit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        translate("corte");
+
+        now.addAndGet(10_000);
+        server.enqueue(new MockResponse().setResponseCode(400));
+        Result probe = translate("sonda con 400");
+
+        // La API respondió: el circuito se cierra y la prueba no se queda colgada
+        assertEquals("Error API: 400", probe.error);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        server.enqueue(new MockResponse().setBody(OK_BODY));
+        assertEquals("Hello", translate("después de la sonda").translation);
+    }
+
+    private Result translate(String text) throws InterruptedException {
+        Result result = new Result();
+        CountDownLatch done = new CountDownLatch(1);
+        service.translateText(text, "es", "en", new NetworkTranslationService.TranslationCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                result.translation = translatedText;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                result.error = error;
+                done.countDown();
+            }
+        });
+        assertTrue("sin respuesta", done.await(10, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static class Result {
+        volatile String translation;
+        volatile String error;
+    }
+}
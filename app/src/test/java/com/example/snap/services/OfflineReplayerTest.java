@@ -0,0 +1,288 @@
+package com.example.snap.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cola sin conexión: nada sale mientras no hay red y, al volver, se reenvía
+ * por lotes a un servidor HTTP local.
+ */
+public class OfflineReplayerTest {
+
+    private MockWebServer server;
+    private FakeConnectivity connectivity;
+    private MemoryStore store;
+    private ExecutorService executor;
+    private OfflineReplayer replayer;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        TranslationApiService api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .build()
+                .create(TranslationApiService.class);
+        RateLimiter unlimited = new RateLimiter(1000, 1000, 1_000_000, 1_000_000);
+        NetworkTranslationService service = new NetworkTranslationService(null, api,
+                new CircuitBreaker(100, 10_000), unlimited);
+
+        connectivity = new FakeConnectivity(TranslationRouter.Connectivity.OFFLINE);
+        store = new MemoryStore();
+        executor = Executors.newSingleThreadExecutor();
+        replayer = new OfflineReplayer(store, service, connectivity, executor);
+        replayer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        replayer.stop();
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void replaysCoalescedBatchWhenBackOnline() throws Exception {
+        store.add("user", "Hola", "es", "en", "Hi");
+        store.add("user", "Mundo", "es", "en", null);
+        store.add(null, "Hola", "es", "en", null);
+
+        replayer.replay();
+        Thread.sleep(200);
+        assertEquals("sin red no se envía nada", 0, server.getRequestCount());
+
+        server.enqueue(new MockResponse().setBody("[[[\"Hello\\nWorld\",\"Hola\\nMundo\",null,null,1]],null,\"es\"]"));
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertTrue("la cola no se vació", store.awaitEmpty(5_000));
+        assertEquals(1, server.getRequestCount());
+        RecordedRequest request = server.takeRequest();
+        // "Hola" va una sola vez aunque esté dos veces en la cola
+        assertEquals("Hola\nMundo", request.getRequestUrl().queryParameter("q"));
+
+        assertEquals("Hello", store.results.get(1L));
+        assertEquals("World", store.results.get(2L));
+        assertEquals("Hello", store.results.get(3L));
+    }
+
+    @Test
+    public void sendsTheOriginalTextNotTheDedupKey() throws Exception {
+        store.add("user", "Buenos  días ", "es", "en", null);
+        store.add("user", "Buenos días", "es", "en", null);
+        server.enqueue(new MockResponse().setBody("[[[\"Good morning\",\"Buenos  días\",null,null,1]],null,\"es\"]"));
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertTrue("la cola no se vació", store.awaitEmpty(5_000));
+        assertEquals(1, server.getRequestCount());
+        // Las dos son el mismo texto normalizado, pero se envía tal cual lo escribió el usuario
+        assertEquals("Buenos  días", server.takeRequest().getRequestUrl().queryParameter("q"));
+        assertEquals("Good morning", store.results.get(2L));
+    }
+
+    @Test
+    public void groupsByLanguagePair() throws Exception {
+        store.add("user", "Hola", "es", "en", null);
+        store.add("user", "Bonjour", "fr", "en", null);
+        server.enqueue(new MockResponse().setBody("[[[\"Hello\",\"Hola\",null,null,1]],null,\"es\"]"));
+        server.enqueue(new MockResponse().setBody("[[[\"Good morning\",\"Bonjour\",null,null,1]],null,\"fr\"]"));
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertTrue("la cola no se vació", store.awaitEmpty(5_000));
+        assertEquals(2, server.getRequestCount());
+        assertEquals("Good morning", store.results.get(2L));
+    }
+
+    @Test
+    public void failedBatchStaysQueued() throws Exception {
+        store.add("user", "Hola", "es", "en", null);
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertTrue("sin registrar el fallo", store.awaitFailures(1, 5_000));
+        assertEquals(1, store.size());
+        assertTrue(store.results.isEmpty());
+    }
+
+    @Test
+    public void dropsItemAfterMaxAttempts() throws Exception {
+        store.add("user", "Hola", "es", "en", null);
+        store.setAttempts(1L, OfflineReplayer.MAX_ATTEMPTS - 1);
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertTrue("no se descartó", store.awaitEmpty(5_000));
+        assertTrue(store.results.isEmpty());
+    }
+
+    @Test
+    public void localThrottlingDoesNotCountAsAnAttempt() throws Exception {
+        TranslationApiService api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .build()
+                .create(TranslationApiService.class);
+        // Sin presupuesto: la precarga se rechaza antes de salir a la red
+        RateLimiter exhausted = new RateLimiter(0.001, 0, 0.001, 0);
+        NetworkTranslationService throttled = new NetworkTranslationService(null, api,
+                new CircuitBreaker(100, 10_000), exhausted);
+        MemoryStore throttledStore = new MemoryStore();
+        throttledStore.add("user", "Hola", "es", "en", null);
+        throttledStore.setAttempts(1L, OfflineReplayer.MAX_ATTEMPTS - 1);
+        OfflineReplayer throttledReplayer = new OfflineReplayer(throttledStore, throttled, connectivity, executor);
+        throttledReplayer.start();
+
+        connectivity.set(TranslationRouter.Connectivity.ONLINE);
+
+        assertFalse("se contó como intento", throttledStore.awaitFailures(1, 500));
+        assertEquals(1, throttledStore.size());
+        assertEquals(0, server.getRequestCount());
+        throttledReplayer.stop();
+    }
+
+    @Test
+    public void onlyRealFailuresAreAttempts() {
+        assertTrue(OfflineReplayer.isLocalRefusal(NetworkTranslationService.RATE_LIMITED_ERROR));
+        assertTrue(OfflineReplayer.isLocalRefusal(NetworkTranslationService.DISCARDED_ERROR));
+        assertTrue(OfflineReplayer.isLocalRefusal(NetworkTranslationService.CIRCUIT_OPEN_ERROR));
+        assertFalse(OfflineReplayer.isLocalRefusal(NetworkTranslationService.NETWORK_ERROR + ": timeout"));
+        assertFalse(OfflineReplayer.isLocalRefusal("Error HTTP 400"));
+    }
+
+    @Test
+    public void onlyFailuresThatCanHealAreQueued() {
+        assertTrue(NetworkTranslationService.isRetryableLater(NetworkTranslationService.NETWORK_ERROR + ": timeout"));
+        assertTrue(NetworkTranslationService.isRetryableLater(NetworkTranslationService.CIRCUIT_OPEN_ERROR));
+        assertTrue(NetworkTranslationService.isRetryableLater(NetworkTranslationService.RATE_LIMITED_ERROR));
+        assertFalse(NetworkTranslationService.isRetryableLater("Error API: 400"));
+        assertFalse(NetworkTranslationService.isRetryableLater("Texto vacío"));
+        assertFalse(NetworkTranslationService.isRetryableLater(null));
+    }
+
+    static class FakeConnectivity implements ConnectivitySource {
+        private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+        private volatile TranslationRouter.Connectivity state;
+
+        FakeConnectivity(TranslationRouter.Connectivity state) {
+            this.state = state;
+        }
+
+        void set(TranslationRouter.Connectivity newState) {
+            state = newState;
+            for (Listener listener : listeners) {
+                listener.onConnectivityChanged(newState);
+            }
+        }
+
+        @Override
+        public TranslationRouter.Connectivity getState() {
+            return state;
+        }
+
+        @Override
+        public void addListener(Listener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(Listener listener) {
+            listeners.remove(listener);
+        }
+    }
+
+    /** Cola en memoria en lugar de Room */
+    private static class MemoryStore implements OfflineReplayer.Store {
+        private final Map<Long, OfflineReplayer.PendingItem> pending = new LinkedHashMap<>();
+        final Map<Long, String> results = new java.util.concurrent.ConcurrentHashMap<>();
+        private long nextId = 1;
+        private int failures = 0;
+
+        synchronized void add(String userId, String text, String sourceLang, String targetLang,
+                String provisional) {
+            long id = nextId++;
+            pending.put(id, new OfflineReplayer.PendingItem(id, userId, text, sourceLang, targetLang,
+                    provisional, 0));
+        }
+
+        synchronized void setAttempts(long id, int attempts) {
+            OfflineReplayer.PendingItem item = pending.get(id);
+            pending.put(id, new OfflineReplayer.PendingItem(id, item.userId, item.text, item.sourceLang,
+                    item.targetLang, item.provisionalText, attempts));
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+
+        synchronized boolean awaitEmpty(long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (!pending.isEmpty() && System.currentTimeMillis() < deadline) {
+                wait(50);
+            }
+            return pending.isEmpty();
+        }
+
+        synchronized boolean awaitFailures(int count, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (failures < count && System.currentTimeMillis() < deadline) {
+                wait(50);
+            }
+            return failures >= count;
+        }
+
+        @Override
+        public synchronized List<OfflineReplayer.PendingItem> loadPending(int limit) {
+            List<OfflineReplayer.PendingItem> items = new ArrayList<>();
+            for (OfflineReplayer.PendingItem item : pending.values()) {
+                if (items.size() == limit) {
+                    break;
+                }
+                items.add(item);
+            }
+            return items;
+        }
+
+        @Override
+        public void onTranslated(OfflineReplayer.PendingItem item, String translatedText) {
+            results.put(item.id, translatedText);
+        }
+
+        @Override
+        public synchronized void remove(List<Long> ids) {
+            for (Long id : ids) {
+                pending.remove(id);
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void recordFailure(List<Long> ids) {
+            for (Long id : ids) {
+                OfflineReplayer.PendingItem item = pending.get(id);
+                pending.put(id, new OfflineReplayer.PendingItem(id, item.userId, item.text, item.sourceLang,
+                        item.targetLang, item.provisionalText, item.attempts + 1));
+            }
+            failures++;
+            notifyAll();
+        }
+    }
+}
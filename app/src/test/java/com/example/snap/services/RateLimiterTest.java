@@ -0,0 +1,66 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    private AtomicLong now;
+    private RateLimiter limiter;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        // 10 peticiones de ráfaga, 5 por segundo; 1000 caracteres de ráfaga, 500 por segundo
+        limiter = new RateLimiter(5, 10, 500, 1000, now::get);
+    }
+
+    @Test
+    public void cameraIsShedBeforeInteractive() {
+        int granted = 0;
+        while (limiter.tryAcquire(Priority.CAMERA, 10)) {
+            granted++;
+        }
+
+        // La cámara deja libre el 30 % de la ráfaga
+        assertEquals(7, granted);
+        assertFalse(limiter.hasCapacity(Priority.CAMERA, 10));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE, 10));
+        assertEquals(1, limiter.getShedCount(Priority.CAMERA));
+    }
+
+    @Test
+    public void prefetchKeepsALargerReserve() {
+        int granted = 0;
+        while (limiter.tryAcquire(Priority.PREFETCH, 10)) {
+            granted++;
+        }
+        assertEquals(4, granted);
+        assertTrue(limiter.hasCapacity(Priority.CAMERA, 10));
+    }
+
+    @Test
+    public void charactersAreBudgetedToo() {
+        assertTrue(limiter.tryAcquire(Priority.CAMERA, 600));
+        assertFalse(limiter.hasCapacity(Priority.CAMERA, 200));
+        assertTrue(limiter.hasCapacity(Priority.CAMERA, 50));
+    }
+
+    @Test
+    public void interactiveDebtDelaysCameraUntilRefill() {
+        for (int i = 0; i < 15; i++) {
+            assertTrue(limiter.tryAcquire(Priority.INTERACTIVE, 1));
+        }
+        assertFalse(limiter.hasCapacity(Priority.CAMERA, 1));
+
+        // -5 peticiones + 2 s a 5/s = 5, por encima de la reserva de 3
+        now.addAndGet(2000);
+        assertTrue(limiter.hasCapacity(Priority.CAMERA, 1));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.snap.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Resolución de "auto", caché por hash del texto y latencias, sobre un identificador falso.
+ */
+public class SourceLanguageDetectorTest {
+
+    private AtomicLong now;
+    private FakeBackend backend;
+    private SourceLanguageDetector detector;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        backend = new FakeBackend();
+        detector = new SourceLanguageDetector(backend, now::get);
+    }
+
+    @Test
+    public void explicitSourceIsPassedThroughWithoutIdentifying() {
+        assertEquals("fr", resolve("Bonjour", "fr"));
+        assertTrue(backend.calls.isEmpty());
+    }
+
+    @Test
+    public void autoIsResolvedOnDevice() {
+        backend.answer = "de";
+
+        assertEquals("de", resolve("Guten Morgen", SourceLanguageDetector.AUTO));
+        assertEquals(1, backend.calls.size());
+    }
+
+    @Test
+    public void sameTextIsIdentifiedOnce() {
+        backend.answer = "de";
+
+        resolve("Guten Morgen", SourceLanguageDetector.AUTO);
+        // Mismo texto normalizado: acierto de caché
+        assertEquals("de", resolve("  Guten   Morgen ", SourceLanguageDetector.AUTO));
+
+        assertEquals(1, backend.calls.size());
+    }
+
+    @Test
+    public void undeterminedFallsBackToAutoAndIsCached() {
+        backend.answer = null;
+
+        assertEquals(SourceLanguageDetector.AUTO, resolve("ok", SourceLanguageDetector.AUTO));
+        assertEquals(SourceLanguageDetector.AUTO, resolve("ok", SourceLanguageDetector.AUTO));
+        assertEquals(1, backend.calls.size());
+    }
+
+    @Test
+    public void longTextsAreSampled() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 5000) {
+            text.append("Esto es un cartel muy largo. ");
+        }
+
+        resolve(text.toString(), SourceLanguageDetector.AUTO);
+
+        assertTrue(backend.calls.get(0).length() <= 300);
+    }
+
+    @Test
+    public void measuresIdentificationLatency() {
+        backend.answer = "es";
+        backend.latencyMs = 4;
+        resolve("uno", SourceLanguageDetector.AUTO);
+        backend.latencyMs = 12;
+        resolve("dos", SourceLanguageDetector.AUTO);
+        // Los aciertos de caché no cuentan como muestra
+        resolve("dos", SourceLanguageDetector.AUTO);
+
+        assertEquals(4, detector.getLatencyPercentile(0.0));
+        assertEquals(12, detector.getLatencyPercentile(0.99));
+    }
+
+    @Test
+    public void hashIsStableAndDistinguishesTexts() {
+        assertEquals(SourceLanguageDetector.hash("hola"), SourceLanguageDetector.hash("hola"));
+        assertNotEquals(SourceLanguageDetector.hash("hola"), SourceLanguageDetector.hash("hole"));
+    }
+
+    private String resolve(String text, String sourceLang) {
+        String[] result = new String[1];
+        detector.resolve(text, sourceLang, languageCode -> result[0] = languageCode);
+        return result[0];
+    }
+
+    /** Responde al momento avanzando el reloj la latencia configurada */
+    private class FakeBackend implements SourceLanguageDetector.Backend {
+        final List<String> calls = new ArrayList<>();
+        String answer;
+        long latencyMs = 0;
+
+        @Override
+        public void identify(String text, SourceLanguageDetector.Callback callback) {
+            calls.add(text);
+            now.addAndGet(latencyMs);
+            callback.onDetected(answer);
+        }
+    }
+}
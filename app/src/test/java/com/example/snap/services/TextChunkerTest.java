@@ -0,0 +1,98 @@
+package com.example.snap.services;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TextChunkerTest {
+
+    private static final String PARAGRAPH = "La traducción automática ha mejorado mucho. "
+            + "Aun así, los textos largos conviene partirlos por frases. "
+            + "Así la primera parte aparece antes y el resto llega después. "
+            + "Cada trozo viaja en su propia petición.";
+
+    @Test
+    public void noChunkIsLongerThanTheLimit() {
+        for (int maxChars = 10; maxChars <= 80; maxChars += 7) {
+            for (TextChunker.Chunk chunk : TextChunker.split(PARAGRAPH, maxChars)) {
+                assertTrue("trozo de " + chunk.text.length() + " > " + maxChars, chunk.text.length() <= maxChars);
+                assertFalse(chunk.text.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void rejoiningGivesBackTheText() {
+        for (int maxChars = 10; maxChars <= 80; maxChars += 7) {
+            assertEquals(normalize(PARAGRAPH), normalize(join(TextChunker.split(PARAGRAPH, maxChars))));
+        }
+    }
+
+    @Test
+    public void sentencesAreKeptWholeWhenTheyFit() {
+        List<TextChunker.Chunk> chunks = TextChunker.split("Hola. Adiós.", 8);
+
+        assertEquals(2, chunks.size());
+        assertEquals("Hola.", chunks.get(0).text);
+        assertEquals(" ", chunks.get(0).separator);
+        assertEquals("Adiós.", chunks.get(1).text);
+    }
+
+    @Test
+    public void wordLongerThanTheLimitIsCutWithoutAddingSpaces() {
+        String word = "Donaudampfschifffahrtsgesellschaftskapitän";
+        List<TextChunker.Chunk> chunks = TextChunker.split("Es un " + word + " alemán.", 10);
+
+        for (TextChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.text.length() <= 10);
+        }
+        assertEquals("Es un " + word + " alemán.", join(chunks));
+    }
+
+    @Test
+    public void cjkWithoutSpacesIsCutAndRejoinedAsIs() {
+        String text = "机器翻译在过去几年里进步很大。长文本最好按句子拆分。这样第一部分会更早出现。";
+        List<TextChunker.Chunk> chunks = TextChunker.split(text, 10);
+
+        assertTrue(chunks.size() > 1);
+        for (TextChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.text.length() <= 10);
+        }
+        assertEquals(text, join(chunks));
+    }
+
+    @Test
+    public void newlineSeparatorsArePreserved() {
+        String text = "Primera línea\nSegunda línea\n\nTercera línea";
+        List<TextChunker.Chunk> chunks = TextChunker.split(text, 15);
+
+        assertEquals(3, chunks.size());
+        assertEquals("\n", chunks.get(0).separator);
+        assertEquals("\n\n", chunks.get(1).separator);
+        assertEquals(text, join(chunks));
+    }
+
+    @Test
+    public void emptyTextHasNoChunks() {
+        assertTrue(TextChunker.split(null, 10).isEmpty());
+        assertTrue(TextChunker.split("  \n ", 10).isEmpty());
+    }
+
+    // Como ChunkedTranslation al emitir: cada trozo seguido del separador del anterior
+    private static String join(List<TextChunker.Chunk> chunks) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                joined.append(chunks.get(i - 1).separator);
+            }
+            joined.append(chunks.get(i).text);
+        }
+        return joined.toString();
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+}
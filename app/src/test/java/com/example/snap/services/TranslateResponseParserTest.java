@@ -0,0 +1,139 @@
+package com.example.snap.services;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Paridad entre el parser en streaming y el de árbol (org.json) sobre respuestas
+ * grabadas de translate_a/single, más una comparación de memoria y tiempo.
+ */
+public class TranslateResponseParserTest {
+
+    private static final String[] RECORDED = {
+            "single_sentence.json",
+            "multi_sentence.json",
+            "ocr_batch.json",
+            "escaped.json",
+            "cjk.json",
+            "empty.json"
+    };
+
+    @Test
+    public void streamingMatchesTree_onRecordedResponses() throws Exception {
+        for (String name : RECORDED) {
+            String json = readResource(name);
+            assertEquals(name, TranslateResponseParser.parseTree(json), parseStreaming(json));
+        }
+    }
+
+    @Test
+    public void streaming_concatenatesSentences() throws Exception {
+        assertEquals("Hello. How are you?", parseStreaming(readResource("multi_sentence.json")));
+        assertEquals("Coffee\nCroissant with butter\nOrange juice", parseStreaming(readResource("ocr_batch.json")));
+    }
+
+    @Test
+    public void streaming_decodesEscapes() throws Exception {
+        assertEquals("Il a dit : \"C'est là\" \\ fin", parseStreaming(readResource("escaped.json")));
+    }
+
+    @Test
+    public void streaming_returnsNullOnEmptyResponse() throws Exception {
+        assertNull(parseStreaming(readResource("empty.json")));
+    }
+
+    @Test
+    public void streaming_skipsSentencesWithoutText() throws Exception {
+        // Entradas de transliteración: [null, null, "romanización"]
+        String json = "[[[\"Hello\",\"Hola\"],[null,null,\"Ola\"]],null,\"es\"]";
+        assertEquals("Hello", parseStreaming(json));
+    }
+
+    @Test(expected = IOException.class)
+    public void streaming_failsOnMalformedBody() throws Exception {
+        parseStreaming("{\"error\": 429}");
+    }
+
+    @Test
+    public void streaming_allocatesLessThanTree_onLongDocument() throws Exception {
+        byte[] body = longDocument(2000).getBytes(StandardCharsets.UTF_8);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Calentamiento para no medir la carga de clases
+        for (int i = 0; i < 20; i++) {
+            streamFrom(body);
+            treeFrom(body);
+        }
+
+        int rounds = 50;
+        long allocBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        String streamed = null;
+        for (int i = 0; i < rounds; i++) {
+            streamed = streamFrom(body);
+        }
+        long streamingNanos = (System.nanoTime() - start) / rounds;
+        long streamingBytes = (threads.getThreadAllocatedBytes(threadId) - allocBefore) / rounds;
+
+        allocBefore = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        String tree = null;
+        for (int i = 0; i < rounds; i++) {
+            tree = treeFrom(body);
+        }
+        long treeNanos = (System.nanoTime() - start) / rounds;
+        long treeBytes = (threads.getThreadAllocatedBytes(threadId) - allocBefore) / rounds;
+
+        System.out.println("Parser streaming: " + streamingBytes + " B/op, " + streamingNanos / 1000 + " us/op");
+        System.out.println("Parser árbol:     " + treeBytes + " B/op, " + treeNanos / 1000 + " us/op");
+
+        assertEquals(tree, streamed);
+        assertTrue("streaming=" + streamingBytes + " tree=" + treeBytes, streamingBytes < treeBytes);
+    }
+
+    // El árbol necesita el cuerpo completo como String, como hacía response.body().string()
+    private static String treeFrom(byte[] body) throws Exception {
+        return TranslateResponseParser.parseTree(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static String streamFrom(byte[] body) throws IOException {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            return TranslateResponseParser.parseStreaming(reader);
+        }
+    }
+
+    private static String parseStreaming(String json) throws IOException {
+        return streamFrom(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String longDocument(int sentences) {
+        StringBuilder json = new StringBuilder("[[");
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) json.append(',');
+            json.append("[\"This is translated sentence number ").append(i).append(". \",")
+                    .append("\"Esta es la frase traducida n\\u00famero ").append(i).append(". \",")
+                    .append("null,null,3,null,null,[[]],[[[\"f1a3d2b0c9e8d7f6\",\"es_en_2023q1.md\"]]]]");
+        }
+        json.append("],null,\"es\",null,null,null,1,[],[[\"es\"],null,[1],[\"es\"]]]");
+        return json.toString();
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream in = TranslateResponseParserTest.class.getClassLoader()
+                .getResourceAsStream("translate_responses/" + name)) {
+            assertNotNull("Falta el recurso " + name, in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.snap.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga en bucle cerrado sobre NetworkTranslationService: concurrency
+ * llamantes piden traducciones una tras otra (cada una espera a la
+ * anterior) hasta completar requests peticiones.
+ *
+ * Cada texto es distinto para que no respondan la caché ni SingleFlight.
+ * Las asignaciones se miden con el contador por hilo de la JVM sumado para
+ * todos los hilos vivos, así que incluyen lo que hagan OkHttp y el servidor
+ * local: sirven para comparar cambios, no como cifra absoluta.
+ */
+class TranslationLoadBenchmark {
+
+    private static final String SAMPLE = "El café de la esquina abre a las ocho; ¿pedimos un croissant? ";
+
+    /** Resultado de una ejecución */
+    static class Result {
+        final int requests;
+        final int errors;
+        final long elapsedNanos;
+        final long[] latenciesNanos;
+        final long allocatedBytes;
+
+        Result(int requests, int errors, long elapsedNanos, long[] latenciesNanos, long allocatedBytes) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latenciesNanos = latenciesNanos.clone();
+            Arrays.sort(this.latenciesNanos);
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        double throughputPerSecond() {
+            return requests * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /** Percentil (0-100) de la latencia en milisegundos */
+        double percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1_000_000.0;
+        }
+
+        long allocatedBytesPerRequest() {
+            return requests == 0 ? 0 : allocatedBytes / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5d req  %4d err  %8.1f req/s  p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms  %8d B/req",
+                    requests, errors, throughputPerSecond(), percentileMillis(50), percentileMillis(95),
+                    percentileMillis(99), allocatedBytesPerRequest());
+        }
+    }
+
+    private final NetworkTranslationService service;
+    private final int textLength;
+
+    TranslationLoadBenchmark(NetworkTranslationService service, int textLength) {
+        this.service = service;
+        this.textLength = textLength;
+    }
+
+    Result run(int concurrency, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+
+        long allocatedBefore = totalAllocatedBytes();
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            callers.execute(() -> {
+                try {
+                    int i;
+                    while ((i = nextRequest.getAndIncrement()) < requests) {
+                        long requestStart = System.nanoTime();
+                        if (!translate(text(i))) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - requestStart;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        long allocated = totalAllocatedBytes() - allocatedBefore;
+        callers.shutdown();
+        callers.awaitTermination(5, TimeUnit.SECONDS);
+
+        return new Result(requests, errors.get(), elapsed, latencies, allocated);
+    }
+
+    private boolean translate(String text) throws InterruptedException {
+        boolean[] success = new boolean[1];
+        CountDownLatch finished = new CountDownLatch(1);
+        service.translateText(text, "es", "en", new TranslationEngine.Callback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                success[0] = true;
+                finished.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                finished.countDown();
+            }
+        });
+        finished.await();
+        return success[0];
+    }
+
+    private String text(int index) {
+        StringBuilder text = new StringBuilder(textLength + 8).append(index).append(' ');
+        while (text.length() < textLength) {
+            text.append(SAMPLE);
+        }
+        return text.substring(0, textLength);
+    }
+
+    private static long totalAllocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean counters = (com.sun.management.ThreadMXBean) threads;
+        if (!counters.isThreadAllocatedMemorySupported()) {
+            return 0;
+        }
+        long total = 0;
+        for (long allocated : counters.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
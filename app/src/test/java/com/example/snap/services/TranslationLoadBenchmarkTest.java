@@ -0,0 +1,76 @@
+package com.example.snap.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rendimiento y latencia de cola de NetworkTranslationService contra el
+ * servidor local con respuestas grabadas, usando el mismo OkHttpClient que
+ * la app (ApiClient).
+ *
+ * Los valores por defecto son pequeños para que corra con el resto de tests.
+ * Para medir un cambio de red conviene subirlos, p. ej.:
+ * -Dbench.requests=2000 -Dbench.concurrency=1,4,16 -Dbench.latencyMs=80 -Dbench.jitterMs=40
+ */
+public class TranslationLoadBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 120);
+    private static final String CONCURRENCY = System.getProperty("bench.concurrency", "1,4,8");
+    private static final long LATENCY_MS = Long.getLong("bench.latencyMs", 20);
+    private static final long JITTER_MS = Long.getLong("bench.jitterMs", 10);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("bench.errorRate", "0.05"));
+    private static final int TEXT_LENGTH = Integer.getInteger("bench.textLength", 200);
+
+    @Test
+    public void throughputAndTailLatency() throws Exception {
+        RecordedTranslateServer server = new RecordedTranslateServer(LATENCY_MS, JITTER_MS, 0);
+        server.start();
+        try {
+            TranslationLoadBenchmark benchmark = new TranslationLoadBenchmark(service(server), TEXT_LENGTH);
+            // Calentamiento de conexiones y JIT
+            benchmark.run(2, 20);
+
+            System.out.println("Carga sin errores (latencia " + LATENCY_MS + " ± " + JITTER_MS + " ms):");
+            for (String value : CONCURRENCY.split(",")) {
+                int concurrency = Integer.parseInt(value.trim());
+                TranslationLoadBenchmark.Result result = benchmark.run(concurrency, REQUESTS);
+                System.out.println(String.format("  x%-3d %s", concurrency, result));
+
+                assertEquals(0, result.errors);
+                assertTrue(result.percentileMillis(50) >= LATENCY_MS);
+                assertTrue(result.percentileMillis(50) <= result.percentileMillis(95));
+                assertTrue(result.percentileMillis(95) <= result.percentileMillis(99));
+            }
+            System.out.println("  " + ApiClient.getTimingStats());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void retriesAbsorbServerErrors() throws Exception {
+        RecordedTranslateServer server = new RecordedTranslateServer(LATENCY_MS, JITTER_MS, ERROR_RATE);
+        server.start();
+        try {
+            TranslationLoadBenchmark benchmark = new TranslationLoadBenchmark(service(server), TEXT_LENGTH);
+            TranslationLoadBenchmark.Result result = benchmark.run(4, REQUESTS);
+
+            System.out.println(String.format("Con %.0f%% de 503:\n  x4   %s  (503 servidos: %d)",
+                    ERROR_RATE * 100, result, server.getErrorsServed()));
+
+            // Cada 503 cuesta un reintento, salvo el último de quien agota los reintentos
+            assertEquals(REQUESTS + server.getErrorsServed() - result.errors, server.getRequestCount());
+            assertTrue(result.errors <= server.getErrorsServed());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static NetworkTranslationService service(RecordedTranslateServer server) {
+        // Sin presupuesto ni circuito que frenen la carga: se mide solo la red
+        RateLimiter unlimited = new RateLimiter(100_000, 100_000, 100_000_000, 100_000_000);
+        CircuitBreaker breaker = new CircuitBreaker(Integer.MAX_VALUE, 1000);
+        return new NetworkTranslationService(null, ApiClient.createApiService(server.baseUrl()), breaker, unlimited);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.snap.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Precarga de frases al cambiar de idioma, sobre un motor falso.
+ */
+public class TranslationPrefetcherTest {
+
+    private TranslationCache cache;
+    private CompositeTranslationEngineTest.FakeEngine engine;
+    private TranslationPrefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        cache = new TranslationCache(100, 10_000);
+        engine = new CompositeTranslationEngineTest.FakeEngine("api", 20);
+        prefetcher = new TranslationPrefetcher(engine, cache);
+    }
+
+    @Test
+    public void missingTextsGoInOneBatchAndLandInCache() throws Exception {
+        Map<String, String> stored = new ConcurrentHashMap<>();
+
+        prefetcher.prefetch(Arrays.asList("Hola", "Gracias", " Hola "), "es", "en", stored::put);
+
+        waitFor(() -> stored.size() == 2);
+        assertEquals(1, engine.calls.get());
+        assertEquals("api:Hola", cache.get("es", "en", "Hola"));
+        assertEquals("api:Gracias", cache.get("es", "en", "Gracias"));
+    }
+
+    @Test
+    public void cachedTextsAreNotRequestedAgain() throws Exception {
+        cache.put("es", "en", "Hola", "Hello");
+        cache.put("es", "en", "Gracias", "Thanks");
+
+        TranslationHandle handle = prefetcher.prefetch(Arrays.asList("Hola", "Gracias"), "es", "en", null);
+
+        assertFalse(handle.isCancelled());
+        assertEquals(0, engine.calls.get());
+        // La comprobación previa no cuenta como fallo de caché
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void samePairDoesNothing() {
+        prefetcher.prefetch(Arrays.asList("Hola"), "es", "es", null);
+
+        assertEquals(0, engine.calls.get());
+    }
+
+    @Test
+    public void newPrefetchCancelsThePreviousOne() {
+        engine.latencyMs = 2000;
+
+        TranslationHandle first = prefetcher.prefetch(Arrays.asList("Hola"), "es", "en", null);
+        prefetcher.prefetch(Arrays.asList("Hola"), "es", "fr", null);
+
+        assertTrue(first.isCancelled());
+        assertEquals(1, engine.cancelled.get());
+    }
+
+    @Test
+    public void isCappedAtMaxTexts() throws Exception {
+        String[] texts = new String[TranslationPrefetcher.MAX_TEXTS + 5];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = "frase " + i;
+        }
+
+        prefetcher.prefetch(Arrays.asList(texts), "es", "en", null);
+
+        waitFor(() -> cache.size() == TranslationPrefetcher.MAX_TEXTS);
+        assertFalse(cache.contains("es", "en", texts[texts.length - 1]));
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.met()) {
+            assertTrue("no se cumplió a tiempo", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationRouter.Connectivity;
+import com.example.snap.services.TranslationRouter.Route;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Enrutado API / ML Kit con reloj simulado y motores falsos de latencia fija.
+ */
+public class TranslationRouterTest {
+
+    private AtomicLong now;
+    private TranslationRouter router;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        router = new TranslationRouter(now::get);
+    }
+
+    @Test
+    public void prefersApiWhenItIsHealthy() {
+        FakeEngine api = new FakeEngine(200, false);
+        FakeEngine onDevice = new FakeEngine(100, false);
+
+        for (int i = 0; i < 20; i++) {
+            run(true, api, onDevice);
+        }
+
+        assertEquals(20, api.calls);
+        assertEquals(0, onDevice.calls);
+    }
+
+    @Test
+    public void offlineGoesOnDevice() {
+        router.onConnectivityChanged(Connectivity.OFFLINE);
+
+        assertEquals(Route.ON_DEVICE, router.choose(true, true));
+        assertEquals("sin conexión", lastDecision().reason);
+    }
+
+    @Test
+    public void unsupportedPairAlwaysUsesApi() {
+        router.onConnectivityChanged(Connectivity.OFFLINE);
+
+        assertEquals(Route.API, router.choose(false, false));
+    }
+
+    @Test
+    public void slowApiShiftsTrafficOnDevice() {
+        FakeEngine api = new FakeEngine(1500, false);
+        FakeEngine onDevice = new FakeEngine(120, false);
+
+        for (int i = 0; i < 20; i++) {
+            run(true, api, onDevice);
+        }
+
+        // La primera (estimación por defecto) va a la API; después ML Kit gana
+        assertEquals(1, api.calls);
+        assertEquals(19, onDevice.calls);
+    }
+
+    @Test
+    public void failingApiShiftsTrafficOnDevice() {
+        // Rápida cuando responde, pero cada fallo cuesta el timeout más el respaldo
+        for (int i = 0; i < 3; i++) {
+            router.recordApiResult(250, true);
+        }
+        router.recordApiResult(2000, false);
+        router.recordApiResult(2000, false);
+
+        assertEquals(250, router.getApiLatencyPercentile(0.5));
+        assertEquals(0.4, router.getApiFailureRate(), 0.001);
+        assertEquals(Route.ON_DEVICE, router.choose(true, true));
+    }
+
+    @Test
+    public void modelDownloadKeepsApiPreferred() {
+        router.recordApiResult(1500, true);
+
+        // Sin modelo, ML Kit tendría que descargarlo primero
+        assertEquals(Route.API, router.choose(true, false));
+        assertEquals(Route.ON_DEVICE, router.choose(true, true));
+    }
+
+    @Test
+    public void constrainedNetworkPenalisesApi() {
+        router.recordApiResult(400, true);
+        assertEquals(Route.API, router.choose(true, true));
+
+        router.onConnectivityChanged(Connectivity.CONSTRAINED);
+        assertEquals(Route.ON_DEVICE, router.choose(true, true));
+    }
+
+    @Test
+    public void probesApiAfterIdleInterval() {
+        FakeEngine api = new FakeEngine(1500, false);
+        FakeEngine onDevice = new FakeEngine(120, false);
+        run(true, api, onDevice);
+        run(true, api, onDevice);
+        assertEquals(1, onDevice.calls);
+
+        // Pasados 30 s sin muestras de la API se vuelve a probar
+        now.addAndGet(30_001);
+        api.latencyMs = 150;
+        run(true, api, onDevice);
+        assertEquals(2, api.calls);
+        assertEquals("sonda", lastDecision().reason);
+
+        // La API se ha recuperado pero la muestra lenta sigue en la ventana
+        // de 60 s; al caducar, la API vuelve a ser la preferida
+        now.addAndGet(30_000);
+        run(true, api, onDevice);
+        assertEquals(Route.API, lastDecision().route);
+    }
+
+    @Test
+    public void decisionLogKeepsRecentEntries() {
+        for (int i = 0; i < 25; i++) {
+            router.choose(false, false);
+        }
+        router.onConnectivityChanged(Connectivity.OFFLINE);
+        router.choose(true, true);
+
+        List<TranslationRouter.Decision> decisions = router.getRecentDecisions();
+        assertEquals(20, decisions.size());
+        assertEquals(Route.ON_DEVICE, decisions.get(decisions.size() - 1).route);
+    }
+
+    private TranslationRouter.Decision lastDecision() {
+        List<TranslationRouter.Decision> decisions = router.getRecentDecisions();
+        return decisions.get(decisions.size() - 1);
+    }
+
+    /** Elige ruta, "ejecuta" el motor elegido avanzando el reloj y registra el resultado */
+    private void run(boolean onDeviceReady, FakeEngine api, FakeEngine onDevice) {
+        if (router.choose(true, onDeviceReady) == Route.API) {
+            api.calls++;
+            now.addAndGet(api.latencyMs);
+            router.recordApiResult(api.latencyMs, !api.failing);
+        } else {
+            onDevice.calls++;
+            now.addAndGet(onDevice.latencyMs);
+            router.recordOnDeviceResult(onDevice.latencyMs);
+        }
+    }
+
+    private static class FakeEngine {
+        long latencyMs;
+        boolean failing;
+        int calls;
+
+        FakeEngine(long latencyMs, boolean failing) {
+            this.latencyMs = latencyMs;
+            this.failing = failing;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.snap.services;
+
+import com.example.snap.services.TranslationScheduler.Priority;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TranslationSchedulerTest {
+
+    @Test
+    public void interactiveDoesNotWaitBehindCameraBlocks() throws Exception {
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 20 bloques de cámara que ocupan los hilos compartidos
+        for (int i = 0; i < 20; i++) {
+            scheduler.execute(Priority.CAMERA, () -> await(release));
+        }
+
+        CountDownLatch interactiveDone = new CountDownLatch(1);
+        scheduler.execute(Priority.INTERACTIVE, interactiveDone::countDown);
+
+        assertTrue(interactiveDone.await(1, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void failingTaskDoesNotStopTheWorker() throws Exception {
+        // Con un solo hilo compartido, las dos tareas van por el mismo
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        scheduler.execute(Priority.STORAGE, () -> {
+            throw new IllegalStateException("fallo de prueba");
+        });
+
+        CountDownLatch next = new CountDownLatch(1);
+        scheduler.execute(Priority.STORAGE, next::countDown);
+
+        assertTrue(next.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void higherPriorityRunsFirst() throws Exception {
+        // Un solo hilo compartido y el reservado para INTERACTIVE
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(Priority.STORAGE, () -> await(release));
+        Thread.sleep(50);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        scheduler.execute(Priority.PREFETCH, () -> { order.add("prefetch"); done.countDown(); });
+        scheduler.execute(Priority.STORAGE, () -> { order.add("storage"); done.countDown(); });
+        scheduler.execute(Priority.CAMERA, () -> { order.add("camera"); done.countDown(); });
+        release.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("camera", "storage", "prefetch"), order);
+    }
+
+    @Test
+    public void staleCameraWorkExpires() throws Exception {
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(Priority.CAMERA, () -> await(release));
+        Thread.sleep(50);
+
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch discarded = new CountDownLatch(1);
+        scheduler.execute(Priority.CAMERA, ran::incrementAndGet, discarded::countDown);
+
+        Thread.sleep(Priority.CAMERA.maxQueueMillis + 100);
+        release.countDown();
+
+        assertTrue(discarded.await(1, TimeUnit.SECONDS));
+        assertEquals(0, ran.get());
+        assertEquals(1, scheduler.getExpiredCount(Priority.CAMERA));
+    }
+
+    @Test
+    public void fullCameraQueueDropsOldest() throws Exception {
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(Priority.CAMERA, () -> await(release));
+        Thread.sleep(50);
+
+        AtomicInteger discarded = new AtomicInteger();
+        for (int i = 0; i < Priority.CAMERA.capacity + 5; i++) {
+            scheduler.execute(Priority.CAMERA, () -> { }, discarded::incrementAndGet);
+        }
+
+        assertEquals(Priority.CAMERA.capacity, scheduler.getQueueDepth(Priority.CAMERA));
+        assertEquals(5, discarded.get());
+        assertEquals(5, scheduler.getDroppedCount(Priority.CAMERA));
+        release.countDown();
+    }
+
+    @Test
+    public void serialExecutorKeepsOrder() throws Exception {
+        TranslationScheduler scheduler = new TranslationScheduler(4);
+        Executor serial = scheduler.serialExecutor(Priority.STORAGE);
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            serial.execute(() -> {
+                order.add(value);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    @Test
+    public void serialExecutorSurvivesAFullQueue() throws Exception {
+        // Un solo hilo compartido, ocupado mientras se llena la cola de STORAGE
+        TranslationScheduler scheduler = new TranslationScheduler(2);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(Priority.STORAGE, () -> await(release));
+        Thread.sleep(50);
+        for (int i = 0; i < Priority.STORAGE.capacity; i++) {
+            scheduler.execute(Priority.STORAGE, () -> { });
+        }
+
+        Executor serial = scheduler.serialExecutor(Priority.STORAGE);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            int value = i;
+            serial.execute(() -> {
+                order.add(value);
+                done.countDown();
+            });
+        }
+        release.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 1, 2), order);
+
+        // La cadena sigue viva después de vaciarse la cola
+        CountDownLatch later = new CountDownLatch(1);
+        serial.execute(later::countDown);
+        assertTrue(later.await(1, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.snap.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URLDecoder;
+import java.util.Arrays;
+
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.*;
+
+/**
+ * GET frente a POST contra un servidor local: bytes enviados y latencia para
+ * textos de 100, 5.000 y 50.000 caracteres.
+ */
+public class TranslationTransportBenchmarkTest {
+
+    private static final int[] SIZES = { 100, 5_000, 50_000 };
+    private static final int ROUNDS = 15;
+    private static final String SAMPLE =
+            "El café de la esquina abre a las ocho; ¿pedimos un croissant con mantequilla? ";
+
+    private MockWebServer server;
+    private TranslationApiService api;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("[[[\"ok\",\"ok\"]]]");
+            }
+        });
+        server.start();
+        api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .build()
+                .create(TranslationApiService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void getAndPostSendTheSameText() throws Exception {
+        String text = sample(500);
+
+        execute(api.translate("gtx", "es", "en", "t", text));
+        RecordedRequest get = server.takeRequest();
+        execute(api.translatePost("gtx", "es", "en", "t", text));
+        RecordedRequest post = server.takeRequest();
+
+        assertEquals(text, get.getRequestUrl().queryParameter("q"));
+        assertEquals("POST", post.getMethod());
+        String form = post.getBody().readUtf8();
+        assertEquals(text, URLDecoder.decode(form.substring("q=".length()), "UTF-8"));
+    }
+
+    @Test
+    public void choosesPostOnlyForLargePayloads() {
+        assertFalse(NetworkTranslationService.shouldUsePost(sample(100)));
+        assertTrue(NetworkTranslationService.shouldUsePost(sample(5_000)));
+        assertTrue(NetworkTranslationService.shouldUsePost(sample(50_000)));
+    }
+
+    @Test
+    public void compareGetAndPost() throws Exception {
+        // Calentamiento de conexión y clases
+        for (int i = 0; i < 5; i++) {
+            measure(false, sample(100));
+            measure(true, sample(100));
+        }
+
+        for (int size : SIZES) {
+            String text = sample(size);
+            long[] getNanos = new long[ROUNDS];
+            long[] postNanos = new long[ROUNDS];
+            long getBytes = 0;
+            long postBytes = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                getBytes = measure(false, text);
+                getNanos[i] = lastNanos;
+                postBytes = measure(true, text);
+                postNanos[i] = lastNanos;
+            }
+
+            System.out.println(String.format("%6d chars  GET: %7d B %6d us   POST: %7d B %6d us", size,
+                    getBytes, median(getNanos) / 1000, postBytes, median(postNanos) / 1000));
+
+            // El formulario codifica casi lo mismo que la query y suma Content-Type/Length,
+            // así que en bytes quedan a la par; lo que gana el POST es no depender del
+            // límite de longitud de la URL
+            assertTrue("size=" + size, Math.abs(postBytes - getBytes) < getBytes / 10 + 200);
+        }
+    }
+
+    private long lastNanos;
+
+    // Devuelve los bytes que recibió el servidor (línea de petición + cabeceras + cuerpo)
+    private long measure(boolean post, String text) throws Exception {
+        Call<ResponseBody> call = post
+                ? api.translatePost("gtx", "es", "en", "t", text)
+                : api.translate("gtx", "es", "en", "t", text);
+        long start = System.nanoTime();
+        execute(call);
+        lastNanos = System.nanoTime() - start;
+
+        RecordedRequest request = server.takeRequest();
+        return request.getRequestLine().length() + request.getHeaders().toString().length()
+                + request.getBodySize();
+    }
+
+    private static void execute(Call<ResponseBody> call) throws Exception {
+        Response<ResponseBody> response = call.execute();
+        assertTrue(response.isSuccessful());
+        response.body().close();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String sample(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append(SAMPLE);
+        }
+        return text.substring(0, length);
+    }
+}